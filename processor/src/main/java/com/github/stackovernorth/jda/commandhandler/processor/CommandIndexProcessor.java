@@ -0,0 +1,350 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates a <code>GeneratedCommandIndex</code> for all classes annotated with <code>RegisterCommand</code>.
+ * <p>
+ * The annotated classes are collected in the first round containing any of them and the index is written right away.
+ * The index creates every command with plain constructor calls, so loading it neither scans the classpath nor uses
+ * reflection. Additionally the index is registered as service, so it can be found via {@link java.util.ServiceLoader}.
+ * Commands generated by other processors in later rounds cannot be added to the index anymore.
+ * </p>
+ * <p>
+ * Annotation values are read from their mirrors only, so neither this library nor JDA needs to be loaded into the
+ * compiler.
+ * </p>
+ */
+public class CommandIndexProcessor extends AbstractProcessor {
+
+  static final String PACKAGE_OPTION = "commandhandler.indexPackage";
+
+  private static final String BASE_PACKAGE = "com.github.stackovernorth.jda.commandhandler";
+  private static final String ANNOTATION = BASE_PACKAGE + ".api.annotation.RegisterCommand";
+  private static final String INDEX = BASE_PACKAGE + ".api.annotation.CommandIndex";
+  private static final String CONFIGURER = BASE_PACKAGE + ".api.annotation.CommandConfigurer";
+  private static final String COMMAND_LISTENER = BASE_PACKAGE + ".listener.CommandListener";
+  private static final String TYPED_LISTENER = BASE_PACKAGE + ".listener.TypedCommandListener";
+  private static final String CACHEABLE_LISTENER = BASE_PACKAGE + ".listener.CacheableCommandListener";
+  private static final String SLASH_LISTENER = BASE_PACKAGE + ".listener.SlashCommandListener";
+  private static final String INDEX_NAME = "GeneratedCommandIndex";
+
+  private final List<TypeElement> listeners = new ArrayList<>();
+  private boolean written;
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return Collections.singleton(ANNOTATION);
+  }
+
+  @Override
+  public Set<String> getSupportedOptions() {
+    return Collections.singleton(PACKAGE_OPTION);
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    TypeElement annotation = processingEnv.getElementUtils().getTypeElement(ANNOTATION);
+    boolean found = false;
+    if (annotation != null) {
+      for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+        found = true;
+        if (written) {
+          processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+              "The command index was already written before this command was generated.", element);
+        } else if (isValid(element)) {
+          listeners.add((TypeElement) element);
+        }
+      }
+    }
+
+    // Commands are usually written by hand, thus all of them are found in the first round. Writing the index right away
+    // means it is compiled like any other source instead of being created in the last round.
+    if (found && !written && !listeners.isEmpty()) {
+      written = true;
+
+      // Sorted, so the same sources always generate the same index.
+      listeners.sort(Comparator.comparing(listener -> listener.getQualifiedName().toString()));
+      try {
+        writeIndex();
+      } catch (IOException e) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write the command index: " + e);
+      }
+    }
+
+    return true;
+  }
+
+  private boolean isValid(Element element) {
+    Messager messager = processingEnv.getMessager();
+    if (element.getKind() != ElementKind.CLASS || !element.getModifiers().contains(Modifier.PUBLIC)
+        || element.getModifiers().contains(Modifier.ABSTRACT)) {
+      messager.printMessage(Diagnostic.Kind.ERROR, "Commands must be public, non-abstract classes.", element);
+      return false;
+    }
+
+    if (element.getEnclosingElement().getKind() != ElementKind.PACKAGE
+        && !element.getModifiers().contains(Modifier.STATIC)) {
+      messager.printMessage(Diagnostic.Kind.ERROR, "Nested commands must be static.", element);
+      return false;
+    }
+
+    boolean constructor = false;
+    for (ExecutableElement executable : ElementFilter.constructorsIn(element.getEnclosedElements())) {
+      constructor |= executable.getParameters().isEmpty() && executable.getModifiers().contains(Modifier.PUBLIC);
+    }
+
+    if (!constructor) {
+      messager.printMessage(Diagnostic.Kind.ERROR, "Commands need a public constructor without parameters.", element);
+      return false;
+    }
+
+    if (listenerType(element) == null) {
+      messager.printMessage(Diagnostic.Kind.ERROR, "Commands must implement CommandListener, TypedCommandListener or "
+          + "CacheableCommandListener.", element);
+      return false;
+    }
+
+    return true;
+  }
+
+  private String listenerType(Element element) {
+    for (String type : new String[] {COMMAND_LISTENER, TYPED_LISTENER, CACHEABLE_LISTENER}) {
+      if (implementsType(element, type)) {
+        return type;
+      }
+    }
+
+    return null;
+  }
+
+  private boolean implementsType(Element element, String type) {
+    TypeElement typeElement = processingEnv.getElementUtils().getTypeElement(type);
+    if (typeElement == null) {
+      return false;
+    }
+
+    TypeMirror erasure = processingEnv.getTypeUtils().erasure(typeElement.asType());
+    return processingEnv.getTypeUtils().isAssignable(element.asType(), erasure);
+  }
+
+  private void writeIndex() throws IOException {
+    String indexPackage = processingEnv.getOptions().get(PACKAGE_OPTION);
+    if (indexPackage == null) {
+      indexPackage = commonPackage();
+    }
+
+    String indexName = indexPackage.isEmpty() ? INDEX_NAME : indexPackage + "." + INDEX_NAME;
+    Filer filer = processingEnv.getFiler();
+    JavaFileObject source = filer.createSourceFile(indexName, listeners.toArray(new Element[0]));
+    try (PrintWriter writer = new PrintWriter(source.openWriter())) {
+      if (!indexPackage.isEmpty()) {
+        writer.println("package " + indexPackage + ";");
+        writer.println();
+      }
+
+      writer.println("import " + BASE_PACKAGE + ".api.command.Command;");
+      writer.println("import " + BASE_PACKAGE + ".api.command.CommandBuilder;");
+      writer.println("import java.util.ArrayList;");
+      writer.println("import java.util.List;");
+      writer.println();
+      writer.println("/**");
+      writer.println(" * Generated from all classes annotated with <code>RegisterCommand</code>, do not edit.");
+      writer.println(" */");
+      writer.println("public final class " + INDEX_NAME + " implements " + INDEX + " {");
+      writer.println();
+      writer.println("  @Override");
+      writer.println("  public List<Command> getCommands() {");
+      writer.println("    List<Command> commands = new ArrayList<>(" + listeners.size() + ");");
+      for (TypeElement listener : listeners) {
+        writeCommand(writer, listener);
+      }
+
+      writer.println("    return commands;");
+      writer.println("  }");
+      writer.println("}");
+    }
+
+    FileObject services = filer.createResource(StandardLocation.CLASS_OUTPUT, "", "META-INF/services/" + INDEX,
+        listeners.toArray(new Element[0]));
+    try (Writer writer = services.openWriter()) {
+      writer.write(indexName + "\n");
+    }
+  }
+
+  private void writeCommand(PrintWriter writer, TypeElement listener) {
+    String type = listener.getQualifiedName().toString();
+    String listenerType = listenerType(listener);
+    Map<? extends ExecutableElement, ? extends AnnotationValue> values = annotationValues(listener);
+
+    writer.println("    {");
+    writer.println("      " + type + " listener = new " + type + "();");
+    // The cast avoids an ambiguous constructor call if the listener implements both listener interfaces.
+    writer.println("      CommandBuilder builder = new CommandBuilder(" + literal(value(values, "name"))
+        + ", (" + listenerType + ") listener);");
+    for (AnnotationValue alias : values(values, "aliases")) {
+      writer.println("      builder.addAlias(" + literal(alias.getValue()) + ");");
+    }
+
+    String description = (String) value(values, "description");
+    if (!description.isEmpty()) {
+      writer.println("      builder.setDescription(" + literal(description) + ");");
+    }
+
+    for (AnnotationValue channel : values(values, "channels")) {
+      writer.println("      builder.addAllowedChannel(" + channel.getValue() + "L);");
+    }
+
+    for (AnnotationValue permission : values(values, "permissions")) {
+      String constant = ((VariableElement) permission.getValue()).getSimpleName().toString();
+      writer.println("      builder.addPermission(net.dv8tion.jda.api.Permission." + constant + ");");
+    }
+
+    if ((Boolean) value(values, "allowBotReply")) {
+      writer.println("      builder.allowBotReply(true);");
+    }
+
+    if (implementsType(listener, SLASH_LISTENER)) {
+      writer.println("      builder.setSlashListener(listener);");
+    }
+
+    if (implementsType(listener, CONFIGURER)) {
+      writer.println("      listener.configure(builder);");
+    }
+
+    writer.println("      commands.add(builder.build());");
+    writer.println("    }");
+  }
+
+  private Map<? extends ExecutableElement, ? extends AnnotationValue> annotationValues(TypeElement listener) {
+    for (AnnotationMirror mirror : listener.getAnnotationMirrors()) {
+      if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(ANNOTATION)) {
+        return processingEnv.getElementUtils().getElementValuesWithDefaults(mirror);
+      }
+    }
+
+    return Collections.emptyMap();
+  }
+
+  private static Object value(Map<? extends ExecutableElement, ? extends AnnotationValue> values, String name) {
+    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+      if (entry.getKey().getSimpleName().contentEquals(name)) {
+        return entry.getValue().getValue();
+      }
+    }
+
+    throw new IllegalStateException("The annotation has no value " + name);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<? extends AnnotationValue> values(
+      Map<? extends ExecutableElement, ? extends AnnotationValue> values, String name) {
+    return (List<? extends AnnotationValue>) value(values, name);
+  }
+
+  private String commonPackage() {
+    String common = null;
+    for (TypeElement listener : listeners) {
+      String listenerPackage = processingEnv.getElementUtils().getPackageOf(listener).getQualifiedName().toString();
+      if (common == null) {
+        common = listenerPackage;
+      }
+
+      while (!common.isEmpty() && !listenerPackage.equals(common) && !listenerPackage.startsWith(common + ".")) {
+        int end = common.lastIndexOf('.');
+        common = end < 0 ? "" : common.substring(0, end);
+      }
+    }
+
+    // Classes in the unnamed package cannot be imported, so the first package is used if there is nothing in common.
+    if (common == null || common.isEmpty()) {
+      return processingEnv.getElementUtils().getPackageOf(listeners.get(0)).getQualifiedName().toString();
+    }
+
+    return common;
+  }
+
+  private static String literal(Object value) {
+    StringBuilder builder = new StringBuilder("\"");
+    for (char c : value.toString().toCharArray()) {
+      switch (c) {
+        case '"':
+          builder.append("\\\"");
+          break;
+        case '\\':
+          builder.append("\\\\");
+          break;
+        case '\n':
+          builder.append("\\n");
+          break;
+        case '\r':
+          builder.append("\\r");
+          break;
+        default:
+          if (c < 0x20) {
+            builder.append(String.format("\\u%04x", (int) c));
+          } else {
+            builder.append(c);
+          }
+      }
+    }
+
+    return builder.append('"').toString();
+  }
+}
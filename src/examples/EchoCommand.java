@@ -25,6 +25,7 @@
 import com.github.stackovernorth.jda.commandhandler.api.command.CommandBuilder;
 import com.github.stackovernorth.jda.commandhandler.api.handler.CommandHandler;
 import com.github.stackovernorth.jda.commandhandler.api.handler.CommandHandlerBuilder;
+import com.github.stackovernorth.jda.commandhandler.api.handler.ReplyQueue;
 import com.github.stackovernorth.jda.commandhandler.listener.CommandListener;
 import java.util.Arrays;
 import javax.security.auth.login.LoginException;
@@ -43,10 +44,12 @@ import net.dv8tion.jda.api.entities.TextChannel;
  */
 public class EchoCommand implements CommandListener {
 
+  private final CommandHandler commandHandler;
+
   EchoCommand(JDA jda) {
     // Now we will construct a new command handler using the builder with our newly created JDA object.
     // As of now, we do nothing but setting our global prefix to "!".
-    CommandHandler commandHandler = new CommandHandlerBuilder(jda)
+    commandHandler = new CommandHandlerBuilder(jda)
         .setPrefix("!").build();
 
     // Now we are able to add a command to our handler.
@@ -94,16 +97,17 @@ public class EchoCommand implements CommandListener {
     // Firstly, we need to check whether args where provided.
     // FYI: Args (alias arguments) are every other content after the prefix and command, e.g. !echo hi I'm part of args
     //		So, everything but "!echo" is included in args. If someone only types "!echo", the array is empty.
+    // Instead of sending the messages directly, we hand them to the reply queue of the handler. If many people use the
+    // command at once, their echos are combined into fewer messages instead of running into rate limits.
+    ReplyQueue replyQueue = commandHandler.getReplyQueue();
     if (args.length >= 1) {
       // In this case, we are transforming the array into an String, that's why we need to remove the square brackets.
-      textChannel.sendMessage(Arrays.toString(args)
+      replyQueue.reply(textChannel, Arrays.toString(args)
           .replaceAll("\\[", "")
-          .replaceAll("]", ""))
-          .queue();
+          .replaceAll("]", ""));
     } else {
       // If nothing but the command was provided, let the user know.
-      textChannel.sendMessage("Cannot echo your message, if you don't tell me what to echo.")
-          .queue();
+      replyQueue.reply(textChannel, "Cannot echo your message, if you don't tell me what to echo.");
     }
   }
 }
\ No newline at end of file
@@ -0,0 +1,188 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.benchmark;
+
+import com.github.stackovernorth.jda.commandhandler.api.command.CommandBuilder;
+import com.github.stackovernorth.jda.commandhandler.api.handler.CommandHandlerBuilder;
+import com.github.stackovernorth.jda.commandhandler.listener.CommandListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.TextChannel;
+import net.dv8tion.jda.api.events.message.guild.GuildMessageReceivedEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures how long the handler needs to dispatch a single message.
+ * <p>
+ * Every benchmark feeds a prebuilt {@link GuildMessageReceivedEvent} into the listener registered by a real {@link
+ * com.github.stackovernorth.jda.commandhandler.api.handler.CommandHandler}, using {@link StubEntities} instead of a
+ * connection to Discord. All inputs are fixed, so results are reproducible offline.
+ * </p>
+ * <p>
+ * The benchmarks report throughput and a sampled latency distribution including percentiles. To measure the
+ * allocation rate per message, run them with the GC profiler, e.g.
+ * <code>mvn -Pjmh test-compile exec:exec -Dbenchmark.args="-prof gc"</code>.
+ * {@link #baseline(Blackhole)} only touches the stubs and shows how much of the measured time is spent in them.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DispatchBenchmark {
+
+  private static final long GUILD_ID = 100L;
+  private static final long CHANNEL_ID = 200L;
+  private static final long OTHER_CHANNEL_ID = 201L;
+
+  @Param({"10", "100", "400"})
+  public int commandCount;
+
+  @Param({"16", "512"})
+  public int messageLength;
+
+  private final CountingListener commandListener = new CountingListener();
+  private ListenerAdapter listener;
+  private GuildMessageReceivedEvent nonCommand;
+  private GuildMessageReceivedEvent firstCommand;
+  private GuildMessageReceivedEvent lastCommand;
+  private GuildMessageReceivedEvent aliasCommand;
+  private GuildMessageReceivedEvent unknownCommand;
+  private GuildMessageReceivedEvent channelRejected;
+  private GuildMessageReceivedEvent permissionRejected;
+
+  @Setup
+  public void setUp() {
+    List<Object> listeners = new ArrayList<>();
+    JDA jda = StubEntities.jda(1L, listeners);
+    CommandHandlerBuilder builder = new CommandHandlerBuilder(jda).setPrefix("!");
+    for (int i = 0; i < commandCount; i++) {
+      builder.addCommand(new CommandBuilder("command" + i, commandListener).setAlias("alias" + i).build());
+    }
+
+    builder.addCommand(new CommandBuilder("restricted", commandListener).addAllowedChannel(OTHER_CHANNEL_ID).build());
+    builder.addCommand(new CommandBuilder("admin", commandListener).addPermission(Permission.ADMINISTRATOR).build());
+    builder.build();
+    listener = StubEntities.listener(listeners);
+
+    Guild guild = StubEntities.guild(GUILD_ID);
+    TextChannel channel = StubEntities.channel(guild, CHANNEL_ID);
+    Member member = StubEntities.member(guild, StubEntities.user(300L, false), Permission.MESSAGE_WRITE);
+    String arguments = padding(messageLength);
+
+    nonCommand = StubEntities.event(jda, 1, "just chatting" + arguments, channel, member);
+    firstCommand = StubEntities.event(jda, 2, "!command0" + arguments, channel, member);
+    lastCommand = StubEntities.event(jda, 3, "!command" + (commandCount - 1) + arguments, channel, member);
+    aliasCommand = StubEntities.event(jda, 4, "!alias" + (commandCount / 2) + arguments, channel, member);
+    unknownCommand = StubEntities.event(jda, 5, "!unknown" + arguments, channel, member);
+    channelRejected = StubEntities.event(jda, 6, "!restricted" + arguments, channel, member);
+    permissionRejected = StubEntities.event(jda, 7, "!admin" + arguments, channel, member);
+  }
+
+  @Benchmark
+  public void baseline(Blackhole blackhole) {
+    blackhole.consume(nonCommand.getMessage().getContentRaw());
+    blackhole.consume(nonCommand.getGuild().getIdLong());
+  }
+
+  @Benchmark
+  public void nonCommand() {
+    listener.onGuildMessageReceived(nonCommand);
+  }
+
+  @Benchmark
+  public void firstCommand() {
+    listener.onGuildMessageReceived(firstCommand);
+  }
+
+  @Benchmark
+  public void lastCommand() {
+    listener.onGuildMessageReceived(lastCommand);
+  }
+
+  @Benchmark
+  public void aliasCommand() {
+    listener.onGuildMessageReceived(aliasCommand);
+  }
+
+  @Benchmark
+  public void unknownCommand() {
+    listener.onGuildMessageReceived(unknownCommand);
+  }
+
+  @Benchmark
+  public void channelRejected() {
+    listener.onGuildMessageReceived(channelRejected);
+  }
+
+  @Benchmark
+  public void permissionRejected() {
+    listener.onGuildMessageReceived(permissionRejected);
+  }
+
+  private static String padding(int length) {
+    StringBuilder builder = new StringBuilder();
+    while (builder.length() < length) {
+      builder.append(" word");
+    }
+
+    return builder.substring(0, length);
+  }
+
+  /**
+   * A command listener which only consumes its arguments, so the dispatch itself is measured.
+   */
+  private static final class CountingListener implements CommandListener {
+
+    private long invocations;
+    private long arguments;
+
+    @Override
+    public void onCommand(Member sender, TextChannel channel, Message message, String[] args) {
+      invocations++;
+      arguments += args.length;
+    }
+  }
+}
@@ -0,0 +1,261 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.benchmark;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.SelfUser;
+import net.dv8tion.jda.api.entities.TextChannel;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.message.guild.GuildMessageReceivedEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+
+/**
+ * Lightweight stand-ins for the JDA entities needed to drive the handler without a connection to Discord.
+ * <p>
+ * Every entity is a dynamic proxy answering the few methods the handler calls from a fixed table of values. Methods
+ * which are not part of the table return <code>null</code>, <code>false</code> or <code>0</code>. Since the proxies
+ * are not free either, benchmarks should compare against a baseline only touching the stubs.
+ * </p>
+ */
+public final class StubEntities {
+
+  private StubEntities() {
+  }
+
+  /**
+   * Creates a new stub of the given interface.
+   *
+   * @param type
+   *     The interface to implement
+   * @param values
+   *     The return values by method name
+   * @param <T>
+   *     The type of the stub
+   *
+   * @return A new stub
+   */
+  public static <T> T stub(Class<T> type, Map<String, Object> values) {
+    Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+      Object value = values.get(method.getName());
+      if (value != null || values.containsKey(method.getName())) {
+        return value;
+      }
+
+      switch (method.getName()) {
+        case "hashCode":
+          return System.identityHashCode(self);
+        case "equals":
+          return self == args[0];
+        case "toString":
+          return type.getSimpleName() + "Stub";
+        default:
+          return defaultValue(method.getReturnType());
+      }
+    });
+
+    return type.cast(proxy);
+  }
+
+  /**
+   * Creates a {@link JDA} stub which remembers every event listener added to it.
+   *
+   * @param selfUserId
+   *     The id of the bot user
+   * @param listeners
+   *     The list all added listeners are put into
+   *
+   * @return A new stub
+   */
+  public static JDA jda(long selfUserId, List<Object> listeners) {
+    Map<String, Object> selfUserValues = new HashMap<>();
+    selfUserValues.put("getIdLong", selfUserId);
+    SelfUser selfUser = stub(SelfUser.class, selfUserValues);
+
+    return (JDA) Proxy.newProxyInstance(JDA.class.getClassLoader(), new Class<?>[]{JDA.class},
+        (self, method, args) -> {
+          if (method.getName().equals("addEventListener")) {
+            Collections.addAll(listeners, (Object[]) args[0]);
+            return null;
+          }
+
+          if (method.getName().equals("removeEventListener")) {
+            listeners.removeAll(Arrays.asList((Object[]) args[0]));
+            return null;
+          }
+
+          return method.getName().equals("getSelfUser") ? selfUser : defaultValue(method.getReturnType());
+        });
+  }
+
+  /**
+   * Returns the listener the handler registered on a stubbed {@link JDA}.
+   *
+   * @param listeners
+   *     The list passed to {@link #jda(long, List)}
+   *
+   * @return The registered listener
+   */
+  public static ListenerAdapter listener(List<Object> listeners) {
+    for (Object listener : listeners) {
+      if (listener instanceof ListenerAdapter) {
+        return (ListenerAdapter) listener;
+      }
+    }
+
+    throw new IllegalStateException("No listener was registered!");
+  }
+
+  /**
+   * Creates a guild member holding the given permissions through a single role.
+   *
+   * @param guild
+   *     The guild of the member
+   * @param user
+   *     The user of the member
+   * @param permissions
+   *     The permissions of the member
+   *
+   * @return A new stub
+   */
+  public static Member member(Guild guild, User user, Permission... permissions) {
+    Map<String, Object> roleValues = new HashMap<>();
+    roleValues.put("getPermissionsRaw", Permission.getRaw(permissions));
+    Role role = stub(Role.class, roleValues);
+
+    List<Role> roles = new ArrayList<>();
+    roles.add(role);
+    Map<String, Object> values = new HashMap<>();
+    values.put("getGuild", guild);
+    values.put("getUser", user);
+    values.put("getIdLong", user.getIdLong());
+    values.put("getRoles", Collections.unmodifiableList(roles));
+    values.put("getPermissions", Permission.getPermissions(Permission.getRaw(permissions)));
+    values.put("isOwner", false);
+    return stub(Member.class, values);
+  }
+
+  /**
+   * Creates a user.
+   *
+   * @param id
+   *     The id of the user
+   * @param bot
+   *     Whether the user is a bot
+   *
+   * @return A new stub
+   */
+  public static User user(long id, boolean bot) {
+    Map<String, Object> values = new HashMap<>();
+    values.put("getIdLong", id);
+    values.put("isBot", bot);
+    return stub(User.class, values);
+  }
+
+  /**
+   * Creates a guild without any permissions for the everyone role.
+   *
+   * @param id
+   *     The id of the guild
+   *
+   * @return A new stub
+   */
+  public static Guild guild(long id) {
+    Map<String, Object> roleValues = new HashMap<>();
+    roleValues.put("getPermissionsRaw", 0L);
+
+    Map<String, Object> values = new HashMap<>();
+    values.put("getIdLong", id);
+    values.put("getPublicRole", stub(Role.class, roleValues));
+    return stub(Guild.class, values);
+  }
+
+  /**
+   * Creates a text channel.
+   *
+   * @param guild
+   *     The guild of the channel
+   * @param id
+   *     The id of the channel
+   *
+   * @return A new stub
+   */
+  public static TextChannel channel(Guild guild, long id) {
+    Map<String, Object> values = new HashMap<>();
+    values.put("getIdLong", id);
+    values.put("getGuild", guild);
+    return stub(TextChannel.class, values);
+  }
+
+  /**
+   * Creates a message received event.
+   *
+   * @param jda
+   *     The stubbed {@link JDA} object
+   * @param id
+   *     The id of the message
+   * @param content
+   *     The raw content of the message
+   * @param channel
+   *     The channel the message was sent in
+   * @param member
+   *     The member who sent the message
+   *
+   * @return A new event
+   */
+  public static GuildMessageReceivedEvent event(JDA jda, long id, String content, TextChannel channel, Member member) {
+    Map<String, Object> values = new HashMap<>();
+    values.put("getIdLong", id);
+    values.put("getContentRaw", content);
+    values.put("getTextChannel", channel);
+    values.put("getChannel", channel);
+    values.put("getGuild", channel.getGuild());
+    values.put("getMember", member);
+    values.put("getAuthor", member.getUser());
+    values.put("getJDA", jda);
+    return new GuildMessageReceivedEvent(jda, 0, stub(Message.class, values));
+  }
+
+  private static Object defaultValue(Class<?> type) {
+    if (!type.isPrimitive() || type == void.class) {
+      return null;
+    }
+
+    // A new primitive array is the simplest way to get the zero value of any primitive type.
+    return Array.get(Array.newInstance(type, 1), 0);
+  }
+}
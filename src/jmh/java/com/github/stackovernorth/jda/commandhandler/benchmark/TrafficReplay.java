@@ -0,0 +1,317 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.github.stackovernorth.jda.commandhandler.benchmark;
+
+import com.github.stackovernorth.jda.commandhandler.api.command.CommandBuilder;
+import com.github.stackovernorth.jda.commandhandler.api.handler.CommandHandler;
+import com.github.stackovernorth.jda.commandhandler.api.handler.CommandHandlerBuilder;
+import com.github.stackovernorth.jda.commandhandler.api.interceptor.CommandInvocation;
+import com.github.stackovernorth.jda.commandhandler.api.interceptor.InterceptorChain;
+import com.github.stackovernorth.jda.commandhandler.api.metrics.HistogramSnapshot;
+import com.github.stackovernorth.jda.commandhandler.api.metrics.LatencyHistogram;
+import com.github.stackovernorth.jda.commandhandler.api.traffic.TrafficReader;
+import com.github.stackovernorth.jda.commandhandler.api.traffic.TrafficRecord;
+import com.github.stackovernorth.jda.commandhandler.api.traffic.TrafficRecorder;
+import com.github.stackovernorth.jda.commandhandler.listener.CommandListener;
+import com.sun.management.ThreadMXBean;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.TextChannel;
+import net.dv8tion.jda.api.events.message.guild.GuildMessageReceivedEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+
+/**
+ * Replays a log written by {@link TrafficRecorder} through a handler, using {@link StubEntities} instead of a
+ * connection to Discord, to see how the handler copes with real traffic.
+ * <p>
+ * Messages are fed to the listener of the handler on a single thread at the pace they were recorded, sped up by the
+ * given factor. If the handler cannot keep up, messages are fed as soon as the previous one was dispatched and counted
+ * as behind schedule. The report lists the throughput, the latency percentiles and allocated bytes of dispatching
+ * every message and of executing every command, and the garbage collections during the replay. Unless the handler
+ * executes its commands on an executor, dispatching a message includes executing its command.
+ * </p>
+ * <p>
+ * Run it with the <code>jmh</code> profile of the build, which registers a command doing nothing for every name used
+ * after the prefix in the log, or call {@link #run(Function, PrintStream)} with the commands of your bot:
+ * <code>mvn -Pjmh test-compile exec:exec
+ * -Dbenchmark.main=com.github.stackovernorth.jda.commandhandler.benchmark.TrafficReplay
+ * -Dbenchmark.args="&lt;log&gt; [speed] [prefix]"</code>
+ * </p>
+ */
+public final class TrafficReplay {
+
+  private static final long SELF_USER_ID = 1L;
+  private static final int MAX_NAME_LENGTH = 32;
+  private static final long LATE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean() instanceof ThreadMXBean
+      ? (ThreadMXBean) ManagementFactory.getThreadMXBean() : null;
+
+  private final Path log;
+  private final double speed;
+  private final Stats dispatch = new Stats();
+  private final Map<String, Stats> commands = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a new replay.
+   *
+   * @param log
+   *     The file containing the log
+   * @param speed
+   *     How many times faster than recorded the messages are fed, e.g. between <code>1</code> and <code>100</code>
+   *
+   * @throws IllegalArgumentException
+   *     If the speed is not positive
+   */
+  public TrafficReplay(Path log, double speed) {
+    if (!(speed > 0)) {
+      throw new IllegalArgumentException("The speed must be positive!");
+    }
+
+    this.log = log;
+    this.speed = speed;
+  }
+
+  /**
+   * Replays a log, registering a command doing nothing for every name used after the prefix.
+   *
+   * @param args
+   *     The path of the log, optionally followed by the speed and the prefix, <code>1</code> and <code>!</code> by
+   *     default
+   *
+   * @throws IOException
+   *     If the log cannot be read
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.err.println("Usage: TrafficReplay <log> [speed] [prefix]");
+      System.exit(2);
+    }
+
+    Path log = Paths.get(args[0]);
+    double speed = args.length > 1 ? Double.parseDouble(args[1]) : 1;
+    String prefix = args.length > 2 ? args[2] : "!";
+    Set<String> names = commandNames(log, prefix);
+    new TrafficReplay(log, speed).run(jda -> {
+      CommandHandlerBuilder builder = new CommandHandlerBuilder(jda).setPrefix(prefix);
+      for (String name : names) {
+        try {
+          builder.addCommand(new CommandBuilder(name, new IdleListener()).build());
+        } catch (IllegalArgumentException e) {
+          // Names which are no valid command names stay unknown.
+        }
+      }
+
+      return builder;
+    }, System.out);
+  }
+
+  /**
+   * Replays the log and prints the report.
+   *
+   * @param setup
+   *     Creates the builder of the handler for the given stubbed {@link JDA} object, e.g. adding the commands of your
+   *     bot. The handler is built and shut down by the replay.
+   * @param out
+   *     The stream to print the report to
+   *
+   * @throws IOException
+   *     If the log cannot be read
+   */
+  public void run(Function<JDA, CommandHandlerBuilder> setup, PrintStream out) throws IOException {
+    List<Object> listeners = new ArrayList<>();
+    JDA jda = StubEntities.jda(SELF_USER_ID, listeners);
+    CommandHandler commandHandler = setup.apply(jda).addInterceptor(this::measure).build();
+    ListenerAdapter listener = StubEntities.listener(listeners);
+    Entities entities = new Entities(jda);
+
+    long[] gcBefore = gcUsage();
+    long start = System.nanoTime();
+    long firstReceivedAt = -1;
+    long messages = 0;
+    long late = 0;
+    try (TrafficReader reader = new TrafficReader(log)) {
+      for (TrafficRecord record = reader.next(); record != null; record = reader.next()) {
+        GuildMessageReceivedEvent event = entities.event(record);
+        if (firstReceivedAt < 0) {
+          firstReceivedAt = record.getReceivedAt();
+        }
+
+        long due = start + (long) (TimeUnit.MILLISECONDS.toNanos(record.getReceivedAt() - firstReceivedAt) / speed);
+        long now = System.nanoTime();
+        while (due - now > 0) {
+          LockSupport.parkNanos(due - now);
+          now = System.nanoTime();
+        }
+
+        if (now - due > LATE_NANOS) {
+          late++;
+        }
+
+        long allocated = allocatedBytes();
+        listener.onGuildMessageReceived(event);
+        dispatch.record(System.nanoTime() - now, allocatedBytes() - allocated);
+        messages++;
+      }
+    } finally {
+      commandHandler.shutdown();
+    }
+
+    long elapsed = System.nanoTime() - start;
+    long[] gcAfter = gcUsage();
+    out.printf("Replayed %d messages in %.1f s at %sx: %.0f messages/s, %d behind schedule%n", messages,
+        elapsed / 1e9, speed, messages / (elapsed / 1e9), late);
+    out.printf("%-32s %12s %10s %10s %10s %10s %12s%n", "", "count", "p50 us", "p99 us", "p99.9 us", "max us",
+        "bytes/call");
+    printRow(out, "(dispatching any message)", dispatch);
+    new TreeMap<>(commands).forEach((name, stats) -> printRow(out, name, stats));
+    out.printf("GC: %d collections taking %d ms%n", gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1]);
+  }
+
+  private void measure(CommandInvocation invocation, InterceptorChain chain) {
+    Stats stats = commands.computeIfAbsent(invocation.getCommand().getCommandName(), name -> new Stats());
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    try {
+      chain.proceed(invocation);
+    } finally {
+      stats.record(System.nanoTime() - start, allocatedBytes() - allocated);
+    }
+  }
+
+  private static void printRow(PrintStream out, String name, Stats stats) {
+    HistogramSnapshot latency = stats.latency.snapshot();
+    long count = latency.getCount();
+    out.printf("%-32s %12d %10d %10d %10d %10d %12d%n", name, count,
+        latency.getPercentile(50, TimeUnit.MICROSECONDS), latency.getPercentile(99, TimeUnit.MICROSECONDS),
+        latency.getPercentile(99.9, TimeUnit.MICROSECONDS), latency.getMax(TimeUnit.MICROSECONDS),
+        count == 0 ? 0 : stats.allocated.sum() / count);
+  }
+
+  private static Set<String> commandNames(Path log, String prefix) throws IOException {
+    Set<String> names = new TreeSet<>();
+    try (TrafficReader reader = new TrafficReader(log)) {
+      for (TrafficRecord record = reader.next(); record != null; record = reader.next()) {
+        String content = record.getContent();
+        if (content.startsWith(prefix)) {
+          int end = prefix.length();
+          while (end < content.length() && !Character.isWhitespace(content.charAt(end))) {
+            end++;
+          }
+
+          if (end > prefix.length() && end - prefix.length() <= MAX_NAME_LENGTH) {
+            names.add(content.substring(prefix.length(), end));
+          }
+        }
+      }
+    }
+
+    return names;
+  }
+
+  private static long allocatedBytes() {
+    return THREADS == null ? 0 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  private static long[] gcUsage() {
+    long[] usage = new long[2];
+    for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+      usage[0] += Math.max(collector.getCollectionCount(), 0);
+      usage[1] += Math.max(collector.getCollectionTime(), 0);
+    }
+
+    return usage;
+  }
+
+  /**
+   * The latencies and allocated bytes of either dispatching or executing commands.
+   */
+  private static final class Stats {
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder allocated = new LongAdder();
+
+    private void record(long nanos, long allocatedBytes) {
+      latency.record(nanos);
+      allocated.add(allocatedBytes);
+    }
+  }
+
+  /**
+   * Creates the stubbed entities of recorded messages, sharing guilds, channels and members between messages.
+   */
+  private static final class Entities {
+
+    private final JDA jda;
+    private final Map<Long, Guild> guilds = new HashMap<>();
+    private final Map<Long, TextChannel> channels = new HashMap<>();
+    private final Map<String, Member> members = new HashMap<>();
+
+    private Entities(JDA jda) {
+      this.jda = jda;
+    }
+
+    private GuildMessageReceivedEvent event(TrafficRecord record) {
+      Guild guild = guilds.computeIfAbsent(record.getGuildId(), StubEntities::guild);
+      TextChannel channel = channels.computeIfAbsent(record.getChannelId(), id -> StubEntities.channel(guild, id));
+      Member member = members.computeIfAbsent(
+          record.getGuildId() + ":" + record.getAuthorId() + ":" + record.getPermissions() + ":" + record.isBot(),
+          key -> StubEntities.member(guild, StubEntities.user(record.getAuthorId(), record.isBot()),
+              Permission.getPermissions(record.getPermissions()).toArray(new Permission[0])));
+      return StubEntities.event(jda, record.getMessageId(), record.getContent(), channel, member);
+    }
+  }
+
+  /**
+   * A command listener which does nothing, so only the handler itself is measured.
+   */
+  private static final class IdleListener implements CommandListener {
+
+    @Override
+    public void onCommand(Member sender, TextChannel channel, Message message, String[] args) {
+    }
+  }
+}
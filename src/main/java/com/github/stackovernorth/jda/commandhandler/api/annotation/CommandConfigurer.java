@@ -0,0 +1,45 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.annotation;
+
+import com.github.stackovernorth.jda.commandhandler.api.command.CommandBuilder;
+
+/**
+ * Configures a command registered via {@link RegisterCommand} beyond what the annotation offers.
+ * <p>
+ * If the annotated listener implements this interface, the builder of the command is passed to it right before the
+ * command is built. This can be used to e.g. declare arguments or set a cooldown.
+ * </p>
+ */
+public interface CommandConfigurer {
+
+  /**
+   * This method will be triggered once when the command of the listener is built.
+   *
+   * @param commandBuilder
+   *     The builder of the command, already containing everything set via {@link RegisterCommand}
+   */
+  void configure(CommandBuilder commandBuilder);
+}
@@ -0,0 +1,49 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.annotation;
+
+import com.github.stackovernorth.jda.commandhandler.api.command.Command;
+import com.github.stackovernorth.jda.commandhandler.api.handler.CommandHandlerBuilder;
+import java.util.List;
+
+/**
+ * An index of commands generated when compiling.
+ * <p>
+ * An implementation named <code>GeneratedCommandIndex</code> is generated for all classes annotated with {@link
+ * RegisterCommand}. By default it is placed in the package all annotated classes have in common, which can be changed
+ * via the compiler option <code>-Acommandhandler.indexPackage=your.package</code>. Add it via {@link
+ * CommandHandlerBuilder#addCommandIndex(CommandIndex)} or load all generated indexes via {@link
+ * CommandHandlerBuilder#loadCommandIndexes()}.
+ * </p>
+ */
+public interface CommandIndex {
+
+  /**
+   * Creates all commands of this index.
+   *
+   * @return A {@link List} of all commands, sorted by the qualified names of their listeners
+   */
+  List<Command> getCommands();
+}
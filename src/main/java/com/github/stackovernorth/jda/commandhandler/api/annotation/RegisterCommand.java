@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.annotation;
+
+import com.github.stackovernorth.jda.commandhandler.api.command.CommandBuilder;
+import com.github.stackovernorth.jda.commandhandler.listener.CacheableCommandListener;
+import com.github.stackovernorth.jda.commandhandler.listener.CommandListener;
+import com.github.stackovernorth.jda.commandhandler.listener.SlashCommandListener;
+import com.github.stackovernorth.jda.commandhandler.listener.TypedCommandListener;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import net.dv8tion.jda.api.Permission;
+
+/**
+ * Registers the annotated listener as command without adding it by hand.
+ * <p>
+ * The annotated class must be a public, non-abstract class implementing {@link CommandListener}, {@link
+ * TypedCommandListener} or {@link CacheableCommandListener} with a public constructor without parameters. If it also
+ * implements {@link SlashCommandListener}, the command is available as slash command as well.
+ * </p>
+ * <p>
+ * All annotated classes are collected when compiling, and a class implementing {@link CommandIndex} is generated which
+ * creates all of them. Thus the commands are loaded without scanning the classpath when the bot starts. Everything
+ * which cannot be set via this annotation can be set by implementing {@link CommandConfigurer}.
+ * </p>
+ * <p>
+ * An short example on how to register a command.
+ * <code>@RegisterCommand(name = "ping", aliases = "p") public class PingCommand implements CommandListener</code>
+ * </p>
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface RegisterCommand {
+
+  /**
+   * The name of the command, see {@link CommandBuilder#CommandBuilder(String, CommandListener)}.
+   *
+   * @return The command name
+   */
+  String name();
+
+  /**
+   * The aliases of the command, see {@link CommandBuilder#addAlias(String)}.
+   *
+   * @return All aliases of the command
+   */
+  String[] aliases() default {};
+
+  /**
+   * The description of the command, see {@link CommandBuilder#setDescription(String)}.
+   *
+   * @return The description or an empty String if there is none
+   */
+  String description() default "";
+
+  /**
+   * The channels the command can be executed in, see {@link CommandBuilder#addAllowedChannel(long)}.
+   *
+   * @return The ids of all allowed channels
+   */
+  long[] channels() default {};
+
+  /**
+   * The permissions required to execute the command, see {@link CommandBuilder#addPermission(Permission)}.
+   *
+   * @return All required permissions
+   */
+  Permission[] permissions() default {};
+
+  /**
+   * Whether bots can execute the command, see {@link CommandBuilder#allowBotReply(boolean)}.
+   *
+   * @return <code>true</code> if bots can execute the command
+   */
+  boolean allowBotReply() default false;
+}
@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.argument;
+
+/**
+ * The declaration of a single argument of a command.
+ */
+public final class Argument {
+
+  private final String name;
+  private final ArgumentType type;
+  private final boolean optional;
+  private final boolean varargs;
+
+  /**
+   * Declares a new argument.
+   *
+   * @param name
+   *     The name the value can be retrieved by from {@link CommandArguments}
+   * @param type
+   *     The {@link ArgumentType} of the value
+   * @param optional
+   *     Whether the argument may be missing
+   * @param varargs
+   *     Whether the argument takes all remaining values of its type
+   *
+   * @throws IllegalArgumentException
+   *     If the name or type is <code>null</code>
+   */
+  public Argument(String name, ArgumentType type, boolean optional, boolean varargs) {
+    if (name == null || type == null) {
+      throw new IllegalArgumentException("The name and type of an argument must not be null!");
+    }
+
+    this.name = name;
+    this.type = type;
+    this.optional = optional;
+    this.varargs = varargs;
+  }
+
+  /**
+   * Returns the name of the argument.
+   *
+   * @return The name as String
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the type of the argument.
+   *
+   * @return The {@link ArgumentType} of the argument
+   */
+  public ArgumentType getType() {
+    return type;
+  }
+
+  /**
+   * Returns whether the argument may be missing.
+   *
+   * @return <code>true</code> if the argument is optional
+   */
+  public boolean isOptional() {
+    return optional;
+  }
+
+  /**
+   * Returns whether the argument takes all remaining values of its type.
+   *
+   * @return <code>true</code> if the argument is a varargs argument
+   */
+  public boolean isVarargs() {
+    return varargs;
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.argument;
+
+import net.dv8tion.jda.api.entities.Guild;
+
+/**
+ * Reads arguments one after another directly from the raw content of a message.
+ * <p>
+ * The reader only moves forward, so all arguments of a message are parsed in a single pass.
+ * </p>
+ */
+final class ArgumentReader {
+
+  private final String content;
+  private final Guild guild;
+  private int position;
+
+  ArgumentReader(String content, int start, Guild guild) {
+    this.content = content;
+    this.guild = guild;
+    this.position = start;
+  }
+
+  Guild getGuild() {
+    return guild;
+  }
+
+  /**
+   * Skips all whitespace and checks whether there is anything left to read.
+   *
+   * @return <code>true</code> if there is at least one more token
+   */
+  boolean hasNext() {
+    while (position < content.length() && isWhitespace(content.charAt(position))) {
+      position++;
+    }
+
+    return position < content.length();
+  }
+
+  /**
+   * Reads the next token up to the next whitespace.
+   *
+   * @return The token
+   */
+  String readToken() {
+    hasNext();
+    int start = position;
+    while (position < content.length() && !isWhitespace(content.charAt(position))) {
+      position++;
+    }
+
+    return content.substring(start, position);
+  }
+
+  /**
+   * Reads the next token, or everything between two double quotes if the token starts with one.
+   *
+   * @param name
+   *     The name of the argument which is read
+   *
+   * @return The token or the quoted text without quotes
+   *
+   * @throws ArgumentParseException
+   *     If the closing quote is missing
+   */
+  String readQuoted(String name) throws ArgumentParseException {
+    hasNext();
+    if (position >= content.length() || content.charAt(position) != '"') {
+      return readToken();
+    }
+
+    StringBuilder builder = new StringBuilder();
+    for (int i = position + 1; i < content.length(); i++) {
+      char c = content.charAt(i);
+      if (c == '\\' && i + 1 < content.length() && content.charAt(i + 1) == '"') {
+        builder.append('"');
+        i++;
+      } else if (c == '"') {
+        position = i + 1;
+        return builder.toString();
+      } else {
+        builder.append(c);
+      }
+    }
+
+    throw new ArgumentParseException(name, "The quoted text of " + name + " is missing its closing quote.");
+  }
+
+  /**
+   * Reads everything which is left, without leading and trailing whitespace.
+   *
+   * @return The remaining content
+   */
+  String readRemaining() {
+    hasNext();
+    int end = content.length();
+    while (end > position && isWhitespace(content.charAt(end - 1))) {
+      end--;
+    }
+
+    String remaining = content.substring(position, end);
+    position = content.length();
+    return remaining;
+  }
+
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000B';
+  }
+}
@@ -0,0 +1,314 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.argument;
+
+import java.time.Duration;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.TextChannel;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+
+/**
+ * The types an argument of a command can be declared as.
+ * <p>
+ * Mentions are resolved through the caches of JDA only, thus parsing never sends a request to Discord. A mention of an
+ * entity which is not cached fails to parse.
+ * </p>
+ */
+public enum ArgumentType {
+
+  /**
+   * A whole number fitting into an <code>int</code>, parsed as {@link Integer}.
+   */
+  INTEGER(OptionType.INTEGER) {
+    @Override
+    Object parse(String name, ArgumentReader reader) throws ArgumentParseException {
+      String token = reader.readToken();
+      try {
+        return Integer.parseInt(token);
+      } catch (NumberFormatException e) {
+        throw new ArgumentParseException(name, token + " is not a valid number for " + name + ".");
+      }
+    }
+  },
+
+  /**
+   * A whole number fitting into a <code>long</code>, parsed as {@link Long}.
+   */
+  LONG(OptionType.INTEGER) {
+    @Override
+    Object parse(String name, ArgumentReader reader) throws ArgumentParseException {
+      String token = reader.readToken();
+      try {
+        return Long.parseLong(token);
+      } catch (NumberFormatException e) {
+        throw new ArgumentParseException(name, token + " is not a valid number for " + name + ".");
+      }
+    }
+  },
+
+  /**
+   * A duration like <code>90s</code>, <code>1h30m</code> or <code>2d</code>, parsed as {@link Duration}.
+   * <p>
+   * Supported units are <code>d</code>, <code>h</code>, <code>m</code>, <code>s</code> and <code>ms</code>.
+   * </p>
+   */
+  DURATION(OptionType.STRING) {
+    @Override
+    Object parse(String name, ArgumentReader reader) throws ArgumentParseException {
+      String token = reader.readToken();
+      if (token.isEmpty()) {
+        throw new ArgumentParseException(name, "The duration " + name + " is missing.");
+      }
+
+      Duration duration = Duration.ZERO;
+      int i = 0;
+      while (i < token.length()) {
+        int numberStart = i;
+        while (i < token.length() && Character.isDigit(token.charAt(i))) {
+          i++;
+        }
+
+        int unitStart = i;
+        while (i < token.length() && Character.isLetter(token.charAt(i))) {
+          i++;
+        }
+
+        if (numberStart == unitStart || unitStart == i || unitStart - numberStart > 9) {
+          throw new ArgumentParseException(name, token + " is not a valid duration for " + name + ".");
+        }
+
+        long amount = Long.parseLong(token.substring(numberStart, unitStart));
+        switch (token.substring(unitStart, i)) {
+          case "d":
+            duration = duration.plusDays(amount);
+            break;
+          case "h":
+            duration = duration.plusHours(amount);
+            break;
+          case "m":
+            duration = duration.plusMinutes(amount);
+            break;
+          case "s":
+            duration = duration.plusSeconds(amount);
+            break;
+          case "ms":
+            duration = duration.plusMillis(amount);
+            break;
+          default:
+            throw new ArgumentParseException(name, token + " is not a valid duration for " + name + ".");
+        }
+      }
+
+      return duration;
+    }
+  },
+
+  /**
+   * A mention of a user like <code>@User</code> or the id of a user, parsed as {@link User}.
+   */
+  USER(OptionType.USER) {
+    @Override
+    Object parse(String name, ArgumentReader reader) throws ArgumentParseException {
+      String token = reader.readToken();
+      long id = mentionId(name, token, "<@!", "<@");
+      Guild guild = reader.getGuild();
+      Member member = guild.getMemberById(id);
+      User user = member != null ? member.getUser() : guild.getJDA().getUserById(id);
+      if (user == null) {
+        throw new ArgumentParseException(name, token + " is not a known user.");
+      }
+
+      return user;
+    }
+
+    @Override
+    Object parseOption(String name, OptionMapping option, Guild guild) {
+      return option.getAsUser();
+    }
+  },
+
+  /**
+   * A mention of a role like <code>@Role</code> or the id of a role, parsed as {@link Role}.
+   */
+  ROLE(OptionType.ROLE) {
+    @Override
+    Object parse(String name, ArgumentReader reader) throws ArgumentParseException {
+      String token = reader.readToken();
+      Role role = reader.getGuild().getRoleById(mentionId(name, token, "<@&", "<@&"));
+      if (role == null) {
+        throw new ArgumentParseException(name, token + " is not a role of this guild.");
+      }
+
+      return role;
+    }
+
+    @Override
+    Object parseOption(String name, OptionMapping option, Guild guild) {
+      return option.getAsRole();
+    }
+  },
+
+  /**
+   * A mention of a text channel like <code>#channel</code> or the id of a channel, parsed as {@link TextChannel}.
+   */
+  CHANNEL(OptionType.CHANNEL) {
+    @Override
+    Object parse(String name, ArgumentReader reader) throws ArgumentParseException {
+      String token = reader.readToken();
+      TextChannel channel = reader.getGuild().getTextChannelById(mentionId(name, token, "<#", "<#"));
+      if (channel == null) {
+        throw new ArgumentParseException(name, token + " is not a text channel of this guild.");
+      }
+
+      return channel;
+    }
+
+    @Override
+    Object parseOption(String name, OptionMapping option, Guild guild) throws ArgumentParseException {
+      Object channel = option.getAsGuildChannel();
+      if (!(channel instanceof TextChannel)) {
+        throw new ArgumentParseException(name, option.getAsString() + " is not a text channel of this guild.");
+      }
+
+      return channel;
+    }
+  },
+
+  /**
+   * A single word or a text in double quotes, parsed as {@link String}.
+   */
+  STRING(OptionType.STRING) {
+    @Override
+    Object parse(String name, ArgumentReader reader) throws ArgumentParseException {
+      return reader.readQuoted(name);
+    }
+
+    @Override
+    Object parseOption(String name, OptionMapping option, Guild guild) {
+      return option.getAsString();
+    }
+  },
+
+  /**
+   * All remaining text of the message, parsed as {@link String}.
+   * <p>
+   * Note that this can only be used for the last argument.
+   * </p>
+   */
+  GREEDY_STRING(OptionType.STRING) {
+    @Override
+    Object parse(String name, ArgumentReader reader) {
+      return reader.readRemaining();
+    }
+
+    @Override
+    Object parseOption(String name, OptionMapping option, Guild guild) {
+      return option.getAsString();
+    }
+  };
+
+  private final OptionType optionType;
+
+  ArgumentType(OptionType optionType) {
+    this.optionType = optionType;
+  }
+
+  /**
+   * Returns the type of the option this argument is registered as for slash commands.
+   *
+   * @return The {@link OptionType} of the option
+   */
+  public OptionType getOptionType() {
+    return optionType;
+  }
+
+  /**
+   * Parses the next value of this type.
+   *
+   * @param name
+   *     The name of the argument, used for error messages
+   * @param reader
+   *     The reader positioned in front of the value
+   *
+   * @return The parsed value
+   *
+   * @throws ArgumentParseException
+   *     If the next token is not a valid value of this type
+   */
+  abstract Object parse(String name, ArgumentReader reader) throws ArgumentParseException;
+
+  /**
+   * Parses the value of an option of a slash command.
+   * <p>
+   * By default the value is read just like the text of a message. Types which are resolved by Discord itself, like
+   * users, use the resolved value instead.
+   * </p>
+   *
+   * @param name
+   *     The name of the argument, used for error messages
+   * @param option
+   *     The option of the slash command
+   * @param guild
+   *     The guild the slash command was used in
+   *
+   * @return The parsed value
+   *
+   * @throws ArgumentParseException
+   *     If the option is not a valid value of this type
+   */
+  Object parseOption(String name, OptionMapping option, Guild guild) throws ArgumentParseException {
+    String value = option.getAsString();
+    ArgumentReader reader = new ArgumentReader(value, 0, guild);
+    Object parsed = parse(name, reader);
+    if (reader.hasNext()) {
+      throw new ArgumentParseException(name, value + " is not a valid value for " + name + ".");
+    }
+
+    return parsed;
+  }
+
+  private static long mentionId(String name, String token, String longPrefix, String shortPrefix)
+      throws ArgumentParseException {
+    int start = 0;
+    int end = token.length();
+    if (token.startsWith(longPrefix) && token.endsWith(">")) {
+      start = longPrefix.length();
+      end--;
+    } else if (token.startsWith(shortPrefix) && token.endsWith(">")) {
+      start = shortPrefix.length();
+      end--;
+    }
+
+    try {
+      return Long.parseUnsignedLong(token.substring(start, end));
+    } catch (NumberFormatException e) {
+      throw new ArgumentParseException(name, token + " is not a valid mention for " + name + ".");
+    }
+  }
+}
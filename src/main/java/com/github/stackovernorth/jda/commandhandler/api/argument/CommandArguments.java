@@ -0,0 +1,161 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.argument;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.TextChannel;
+import net.dv8tion.jda.api.entities.User;
+
+/**
+ * The already parsed arguments of a command, retrievable by their declared names.
+ * <p>
+ * Optional arguments which were not provided are <code>null</code>. Varargs arguments are retrieved via {@link
+ * #getList(String)} and are empty if not provided.
+ * </p>
+ */
+public final class CommandArguments {
+
+  private final Map<String, Object> values;
+
+  CommandArguments(Map<String, Object> values) {
+    this.values = values;
+  }
+
+  /**
+   * Checks whether a value was provided for the argument.
+   *
+   * @param name
+   *     The name of the argument
+   *
+   * @return <code>true</code> if the argument has a value
+   */
+  public boolean has(String name) {
+    return values.get(name) != null;
+  }
+
+  /**
+   * Returns the value of an {@link ArgumentType#INTEGER} argument.
+   *
+   * @param name
+   *     The name of the argument
+   *
+   * @return The value or <code>null</code> if it was not provided
+   */
+  public Integer getInt(String name) {
+    return (Integer) values.get(name);
+  }
+
+  /**
+   * Returns the value of an {@link ArgumentType#LONG} argument.
+   *
+   * @param name
+   *     The name of the argument
+   *
+   * @return The value or <code>null</code> if it was not provided
+   */
+  public Long getLong(String name) {
+    return (Long) values.get(name);
+  }
+
+  /**
+   * Returns the value of a {@link ArgumentType#DURATION} argument.
+   *
+   * @param name
+   *     The name of the argument
+   *
+   * @return The value or <code>null</code> if it was not provided
+   */
+  public Duration getDuration(String name) {
+    return (Duration) values.get(name);
+  }
+
+  /**
+   * Returns the value of a {@link ArgumentType#STRING} or {@link ArgumentType#GREEDY_STRING} argument.
+   *
+   * @param name
+   *     The name of the argument
+   *
+   * @return The value or <code>null</code> if it was not provided
+   */
+  public String getString(String name) {
+    return (String) values.get(name);
+  }
+
+  /**
+   * Returns the value of a {@link ArgumentType#USER} argument.
+   *
+   * @param name
+   *     The name of the argument
+   *
+   * @return The value or <code>null</code> if it was not provided
+   */
+  public User getUser(String name) {
+    return (User) values.get(name);
+  }
+
+  /**
+   * Returns the value of a {@link ArgumentType#ROLE} argument.
+   *
+   * @param name
+   *     The name of the argument
+   *
+   * @return The value or <code>null</code> if it was not provided
+   */
+  public Role getRole(String name) {
+    return (Role) values.get(name);
+  }
+
+  /**
+   * Returns the value of a {@link ArgumentType#CHANNEL} argument.
+   *
+   * @param name
+   *     The name of the argument
+   *
+   * @return The value or <code>null</code> if it was not provided
+   */
+  public TextChannel getChannel(String name) {
+    return (TextChannel) values.get(name);
+  }
+
+  /**
+   * Returns all values of a varargs argument.
+   *
+   * @param name
+   *     The name of the argument
+   * @param <T>
+   *     The type the values were parsed as, see {@link ArgumentType}
+   *
+   * @return An unmodifiable {@link List} of all values
+   */
+  @SuppressWarnings("unchecked")
+  public <T> List<T> getList(String name) {
+    Object value = values.get(name);
+    return value == null ? Collections.emptyList() : (List<T>) value;
+  }
+}
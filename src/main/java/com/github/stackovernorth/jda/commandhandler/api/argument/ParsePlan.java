@@ -0,0 +1,200 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.argument;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.events.interaction.SlashCommandEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+
+/**
+ * The compiled declaration of all arguments of a command.
+ * <p>
+ * A plan is validated and compiled once when the command is built. Parsing then reads the arguments one after another
+ * directly from the raw content of the message, without splitting it first.
+ * </p>
+ * <p>
+ * For slash commands, every argument is registered as an option of the same name, so Discord already provides the
+ * values separately and nothing needs to be read from a text at all.
+ * </p>
+ */
+public final class ParsePlan {
+
+  private final Argument[] arguments;
+
+  private ParsePlan(Argument[] arguments) {
+    this.arguments = arguments;
+  }
+
+  /**
+   * Validates the declared arguments and compiles them into a plan.
+   *
+   * @param arguments
+   *     The arguments in the order they are expected in the message
+   *
+   * @return The compiled plan
+   *
+   * @throws IllegalArgumentException
+   *     If two arguments share the same name, a required argument follows an optional one or a varargs or greedy
+   *     argument is not the last one
+   */
+  public static ParsePlan compile(List<Argument> arguments) {
+    Set<String> names = new HashSet<>();
+    boolean optionalSeen = false;
+    for (int i = 0; i < arguments.size(); i++) {
+      Argument argument = arguments.get(i);
+      if (!names.add(argument.getName())) {
+        throw new IllegalArgumentException("The argument " + argument.getName() + " is declared twice!");
+      }
+
+      if (optionalSeen && !argument.isOptional() && !argument.isVarargs()) {
+        throw new IllegalArgumentException("The required argument " + argument.getName()
+            + " must not follow an optional one!");
+      }
+
+      boolean last = i == arguments.size() - 1;
+      if (!last && (argument.isVarargs() || argument.getType() == ArgumentType.GREEDY_STRING)) {
+        throw new IllegalArgumentException("The argument " + argument.getName() + " must be the last one!");
+      }
+
+      optionalSeen |= argument.isOptional();
+    }
+
+    return new ParsePlan(arguments.toArray(new Argument[0]));
+  }
+
+  /**
+   * Returns the arguments of this plan.
+   *
+   * @return An unmodifiable {@link List} of the arguments in their declared order
+   */
+  public List<Argument> getArguments() {
+    List<Argument> list = new ArrayList<>(arguments.length);
+    Collections.addAll(list, arguments);
+    return Collections.unmodifiableList(list);
+  }
+
+  /**
+   * Parses the arguments from the raw content of a message.
+   *
+   * @param content
+   *     The raw content of the message
+   * @param start
+   *     The index in the content at which the arguments start
+   * @param guild
+   *     The guild the message was sent in, used to resolve mentions
+   *
+   * @return The parsed {@link CommandArguments}
+   *
+   * @throws ArgumentParseException
+   *     If the content does not match the declared arguments
+   */
+  public CommandArguments parse(String content, int start, Guild guild) throws ArgumentParseException {
+    ArgumentReader reader = new ArgumentReader(content, start, guild);
+    Map<String, Object> values = new HashMap<>(arguments.length * 2);
+    for (Argument argument : arguments) {
+      String name = argument.getName();
+      if (argument.isVarargs()) {
+        List<Object> list = new ArrayList<>();
+        while (reader.hasNext()) {
+          list.add(argument.getType().parse(name, reader));
+        }
+
+        values.put(name, Collections.unmodifiableList(list));
+      } else if (reader.hasNext()) {
+        values.put(name, argument.getType().parse(name, reader));
+      } else if (!argument.isOptional()) {
+        throw new ArgumentParseException(name, "The argument " + name + " is missing.");
+      }
+    }
+
+    if (reader.hasNext()) {
+      throw new ArgumentParseException(null, "Too many arguments were provided.");
+    }
+
+    return new CommandArguments(values);
+  }
+
+  /**
+   * Returns the options a slash command needs to provide the declared arguments.
+   * <p>
+   * A varargs argument is registered as a single text option, whose values are separated by whitespace.
+   * </p>
+   *
+   * @return A {@link List} of options in their declared order
+   */
+  public List<OptionData> toOptions() {
+    List<OptionData> options = new ArrayList<>(arguments.length);
+    for (Argument argument : arguments) {
+      OptionType type = argument.isVarargs() ? OptionType.STRING : argument.getType().getOptionType();
+      options.add(new OptionData(type, argument.getName(), argument.getName(), !argument.isOptional()));
+    }
+
+    return options;
+  }
+
+  /**
+   * Parses the arguments from the options of a slash command.
+   *
+   * @param event
+   *     The event of the slash command
+   *
+   * @return The parsed {@link CommandArguments}
+   *
+   * @throws ArgumentParseException
+   *     If the options do not match the declared arguments
+   */
+  public CommandArguments parse(SlashCommandEvent event) throws ArgumentParseException {
+    Map<String, Object> values = new HashMap<>(arguments.length * 2);
+    for (Argument argument : arguments) {
+      String name = argument.getName();
+      OptionMapping option = event.getOption(name);
+      if (argument.isVarargs()) {
+        String value = option == null ? "" : option.getAsString();
+        ArgumentReader reader = new ArgumentReader(value, 0, event.getGuild());
+        List<Object> list = new ArrayList<>();
+        while (reader.hasNext()) {
+          list.add(argument.getType().parse(name, reader));
+        }
+
+        values.put(name, Collections.unmodifiableList(list));
+      } else if (option != null) {
+        values.put(name, argument.getType().parseOption(name, option, event.getGuild()));
+      } else if (!argument.isOptional()) {
+        throw new ArgumentParseException(name, "The argument " + name + " is missing.");
+      }
+    }
+
+    return new CommandArguments(values);
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.command;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Describes how long and how many results of a command are cached.
+ * <p>
+ * Results are cached by the arguments of the command and the {@link CacheScope}. Once the cache exceeds {@link
+ * #getMaxEntries()} results or {@link #getMaxWeight()} characters in total, the least recently used results are
+ * evicted.
+ * </p>
+ */
+public final class CachePolicy {
+
+  private final long ttlNanos;
+  private final CacheScope scope;
+  private final int maxEntries;
+  private final long maxWeight;
+
+  /**
+   * Creates a new cache policy.
+   *
+   * @param ttl
+   *     How long a result is cached
+   * @param unit
+   *     The {@link TimeUnit} of the time to live
+   * @param scope
+   *     Who shares the cached results
+   * @param maxEntries
+   *     The maximum number of cached results
+   * @param maxWeight
+   *     The maximum number of characters of all cached results
+   *
+   * @throws IllegalArgumentException
+   *     If the time to live or a limit is not positive or the unit or scope is <code>null</code>
+   */
+  public CachePolicy(long ttl, TimeUnit unit, CacheScope scope, int maxEntries, long maxWeight) {
+    if (ttl < 1 || unit == null || scope == null || maxEntries < 1 || maxWeight < 1) {
+      throw new IllegalArgumentException("A cache needs a positive time to live, positive limits and a scope!");
+    }
+
+    this.ttlNanos = unit.toNanos(ttl);
+    this.scope = scope;
+    this.maxEntries = maxEntries;
+    this.maxWeight = maxWeight;
+  }
+
+  /**
+   * Returns how long a result is cached.
+   *
+   * @param unit
+   *     The {@link TimeUnit} the time to live should be returned in
+   *
+   * @return The time to live
+   */
+  public long getTtl(TimeUnit unit) {
+    return unit.convert(ttlNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Returns who shares the cached results.
+   *
+   * @return The {@link CacheScope} of the cache
+   */
+  public CacheScope getScope() {
+    return scope;
+  }
+
+  /**
+   * Returns the maximum number of cached results.
+   *
+   * @return The maximum number of entries
+   */
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  /**
+   * Returns the maximum number of characters of all cached results.
+   *
+   * @return The maximum weight
+   */
+  public long getMaxWeight() {
+    return maxWeight;
+  }
+}
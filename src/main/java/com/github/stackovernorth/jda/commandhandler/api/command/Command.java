@@ -24,10 +24,25 @@
 
 package com.github.stackovernorth.jda.commandhandler.api.command;
 
+import com.github.stackovernorth.jda.commandhandler.api.argument.ParsePlan;
+import com.github.stackovernorth.jda.commandhandler.api.config.CommandOverride;
 import com.github.stackovernorth.jda.commandhandler.api.handler.CommandHandlerBuilder;
+import com.github.stackovernorth.jda.commandhandler.api.interceptor.CommandInterceptor;
+import com.github.stackovernorth.jda.commandhandler.listener.CacheableCommandListener;
 import com.github.stackovernorth.jda.commandhandler.listener.CommandListener;
+import com.github.stackovernorth.jda.commandhandler.listener.SlashCommandListener;
+import com.github.stackovernorth.jda.commandhandler.listener.TypedCommandListener;
+import com.github.stackovernorth.jda.commandhandler.util.LongHashSet;
+import com.github.stackovernorth.jda.commandhandler.util.NameIndex;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.TextChannel;
+import net.dv8tion.jda.api.entities.User;
 
 /**
  * The core command class which is used to retrieve all information set via {@link CommandHandlerBuilder} by the user.
@@ -40,10 +55,52 @@ import net.dv8tion.jda.api.Permission;
  */
 public class Command {
 
-  private CommandBuilder commandBuilder;
+  private final String commandName;
+  private final List<String> commandAliases;
+  private final String commandDescription;
+  private final boolean botReply;
+  private final ArrayList<Long> commandChannels;
+  private final ArrayList<Permission> commandPermissions;
+  private final long rawPermissions;
+  private final LongHashSet channelSet;
+  private final CommandGuard commandGuard;
+  private final ParsePlan parsePlan;
+  private final List<Command> subCommands;
+  private final NameIndex<Command> subCommandIndex;
+  private final List<CommandInterceptor> interceptors;
+  private final int maxConcurrency;
+  private final CommandPriority priority;
+  private final RateLimit rateLimit;
+  private final CachePolicy cachePolicy;
+  private final CommandListener handlerListener;
+  private final TypedCommandListener typedListener;
+  private final CacheableCommandListener cacheableListener;
+  private final SlashCommandListener slashListener;
 
   public Command(CommandBuilder commandBuilder) {
-    this.commandBuilder = commandBuilder;
+    // Everything is copied at this point, so changing the builder afterwards does not affect this command.
+    this.commandName = commandBuilder.commandName;
+    this.commandAliases = Collections.unmodifiableList(new ArrayList<>(commandBuilder.commandAliases));
+    this.commandDescription = commandBuilder.commandDescription;
+    this.botReply = commandBuilder.botReply;
+    this.commandChannels = new ArrayList<>(commandBuilder.commandChannels);
+    this.commandPermissions = new ArrayList<>(commandBuilder.commandPermissions);
+    this.rawPermissions = Permission.getRaw(commandPermissions);
+    this.channelSet = LongHashSet.of(commandChannels);
+    this.commandGuard = CommandGuard.compile(botReply, channelSet, rawPermissions);
+    this.maxConcurrency = commandBuilder.maxConcurrency;
+    this.priority = commandBuilder.priority;
+    this.rateLimit = commandBuilder.rateLimit;
+    this.cachePolicy = commandBuilder.cachePolicy;
+    this.handlerListener = commandBuilder.handlerListener;
+    this.typedListener = commandBuilder.typedListener;
+    this.cacheableListener = commandBuilder.cacheableListener;
+    this.slashListener = commandBuilder.slashListener;
+    boolean typed = typedListener != null || slashListener != null;
+    this.parsePlan = typed ? ParsePlan.compile(commandBuilder.arguments) : null;
+    this.subCommands = Collections.unmodifiableList(new ArrayList<>(commandBuilder.subCommands));
+    this.subCommandIndex = new NameIndex<>(indexSubCommands(subCommands));
+    this.interceptors = Collections.unmodifiableList(new ArrayList<>(commandBuilder.interceptors));
   }
 
   /**
@@ -52,20 +109,32 @@ public class Command {
    * @return The command name as String
    */
   public String getCommandName() {
-    return commandBuilder.commandName;
+    return commandName;
   }
 
   /**
    * Returns the alias of the command.
    * <p>
-   * Note that only one alias is possible thus it's returning a single alias, not multiple. If not set, it can be
-   * <code>null</code>.
+   * Note that this only returns the first alias. Use {@link #getCommandAliases()} to retrieve all of them. If not set,
+   * it will be an empty String.
    * </p>
    *
    * @return The alias of the command name as String
    */
   public String getCommandAlias() {
-    return commandBuilder.commandAlias;
+    return commandAliases.isEmpty() ? "" : commandAliases.get(0);
+  }
+
+  /**
+   * Returns all aliases of the command.
+   * <p>
+   * Note that this list can also be empty or contains only one element.
+   * </p>
+   *
+   * @return An unmodifiable {@link List} of all aliases
+   */
+  public List<String> getCommandAliases() {
+    return commandAliases;
   }
 
   /**
@@ -77,7 +146,7 @@ public class Command {
    * @return The description of the command
    */
   public String getCommandDescription() {
-    return commandBuilder.commandDescription;
+    return commandDescription;
   }
 
   /**
@@ -89,7 +158,7 @@ public class Command {
    * @return A boolean whether bots are allowed to use the command
    */
   public Boolean getBotAllowance() {
-    return commandBuilder.botReply;
+    return botReply;
   }
 
   /**
@@ -101,7 +170,7 @@ public class Command {
    * @return An {@link ArrayList} of allowed channels
    */
   public ArrayList<Long> getCommandChannels() {
-    return commandBuilder.commandChannels;
+    return new ArrayList<>(commandChannels);
   }
 
   /**
@@ -113,15 +182,243 @@ public class Command {
    * @return An {@link ArrayList} of needed {@link Permission}
    */
   public ArrayList<Permission> getCommandPermissions() {
-    return commandBuilder.commandPermissions;
+    return new ArrayList<>(commandPermissions);
+  }
+
+  /**
+   * Returns the permissions needed to execute the command as raw bits.
+   * <p>
+   * Note that this is <code>0</code> if no permissions are needed.
+   * </p>
+   *
+   * @return The raw bits of all needed {@link Permission}
+   */
+  public long getRawPermissions() {
+    return rawPermissions;
+  }
+
+  /**
+   * Checks whether the command may be executed by the given sender in the given channel.
+   * <p>
+   * This evaluates the bot allowance, the allowed channels and the needed permissions of the command, cheapest check
+   * first.
+   * </p>
+   *
+   * @param sender
+   *     The sender of the message, <code>null</code> for webhook messages
+   * @param channel
+   *     The channel the message was sent in
+   * @param author
+   *     The author of the message
+   *
+   * @return The {@link RejectionReason} if the command must not be executed or <code>null</code> if it may be executed
+   */
+  public RejectionReason checkAccess(Member sender, TextChannel channel, User author) {
+    return commandGuard.check(sender, channel, author);
+  }
+
+  /**
+   * Checks whether the command may be executed by the given sender in the given channel, applying the overridden
+   * settings of a guild.
+   * <p>
+   * Overridden channels and permissions replace those of the command. Unless they are overridden, this is the same as
+   * {@link #checkAccess(Member, TextChannel, User)}.
+   * </p>
+   *
+   * @param sender
+   *     The sender of the message, <code>null</code> for webhook messages
+   * @param channel
+   *     The channel the message was sent in
+   * @param author
+   *     The author of the message
+   * @param override
+   *     The settings of the command overridden within the guild
+   *
+   * @return The {@link RejectionReason} if the command must not be executed or <code>null</code> if it may be executed
+   */
+  public RejectionReason checkAccess(Member sender, TextChannel channel, User author, CommandOverride override) {
+    if (Boolean.FALSE.equals(override.getEnabled())) {
+      return RejectionReason.DISABLED;
+    }
+
+    if (!override.overridesAccess()) {
+      return commandGuard.check(sender, channel, author);
+    }
+
+    // The same checks as the compiled guard, but with the overridden values of the guild.
+    if (!botReply && author.isBot()) {
+      return RejectionReason.BOT;
+    }
+
+    LongHashSet channels = override.getChannels() != null ? override.getChannels() : channelSet;
+    if (!channels.isEmpty() && !channels.contains(channel.getIdLong())) {
+      return RejectionReason.CHANNEL;
+    }
+
+    long permissions = override.getRawPermissions() != null ? override.getRawPermissions() : rawPermissions;
+    if (permissions != 0 && (sender == null
+        || (Permission.getRaw(sender.getPermissions()) & permissions) != permissions)) {
+      return RejectionReason.PERMISSION;
+    }
+
+    return null;
+  }
+
+  /**
+   * Returns how many invocations of the command may run at the same time.
+   * <p>
+   * Note that this is defaulted to <code>0</code>, which means there is no limit.
+   * </p>
+   *
+   * @return The maximum number of concurrent invocations
+   */
+  public int getMaxConcurrency() {
+    return maxConcurrency;
+  }
+
+  /**
+   * Returns the priority of the command.
+   * <p>
+   * Note that this is defaulted to {@link CommandPriority#NORMAL}.
+   * </p>
+   *
+   * @return The {@link CommandPriority} of the command
+   */
+  public CommandPriority getPriority() {
+    return priority;
+  }
+
+  /**
+   * Returns the rate limit of the command.
+   * <p>
+   * Note that this can be <code>null</code> if neither a cooldown nor a rate limit was set.
+   * </p>
+   *
+   * @return The {@link RateLimit} of the command
+   */
+  public RateLimit getRateLimit() {
+    return rateLimit;
+  }
+
+  /**
+   * Returns the cache of the replies of the command.
+   * <p>
+   * Note that this can be <code>null</code> if no cache was set.
+   * </p>
+   *
+   * @return The {@link CachePolicy} of the command
+   */
+  public CachePolicy getCachePolicy() {
+    return cachePolicy;
   }
 
   /**
    * Returns the class which implements {@link CommandListener}.
+   * <p>
+   * Note that this is <code>null</code> if the command was built with another listener.
+   * </p>
    *
    * @return The class implementing the listener
    */
   public CommandListener getHandlerListener() {
-    return commandBuilder.handlerListener;
+    return handlerListener;
+  }
+
+  /**
+   * Returns the class which implements {@link TypedCommandListener}.
+   * <p>
+   * Note that this is <code>null</code> if the command was built with another listener.
+   * </p>
+   *
+   * @return The class implementing the listener
+   */
+  public TypedCommandListener getTypedListener() {
+    return typedListener;
+  }
+
+  /**
+   * Returns the class which implements {@link CacheableCommandListener}.
+   * <p>
+   * Note that this is <code>null</code> if the command was built with another listener.
+   * </p>
+   *
+   * @return The class implementing the listener
+   */
+  public CacheableCommandListener getCacheableListener() {
+    return cacheableListener;
+  }
+
+  /**
+   * Returns the class which implements {@link SlashCommandListener}.
+   * <p>
+   * Note that this is <code>null</code> if the command is not available as slash command.
+   * </p>
+   *
+   * @return The class implementing the listener
+   */
+  public SlashCommandListener getSlashListener() {
+    return slashListener;
+  }
+
+  /**
+   * Returns the compiled declaration of the arguments of the command.
+   * <p>
+   * Note that this is <code>null</code> if the command was built with a {@link CommandListener} and is not available
+   * as slash command.
+   * </p>
+   *
+   * @return The {@link ParsePlan} of the command
+   */
+  public ParsePlan getParsePlan() {
+    return parsePlan;
+  }
+
+  /**
+   * Returns all sub-commands of the command in the order they were added.
+   * <p>
+   * Note that this list can also be empty or contains only one element.
+   * </p>
+   *
+   * @return An unmodifiable {@link List} of all sub-commands
+   */
+  public List<Command> getSubCommands() {
+    return subCommands;
+  }
+
+  /**
+   * Returns the sub-command with the given name or alias.
+   *
+   * @param nameOrAlias
+   *     The name or one of the aliases of the sub-command
+   *
+   * @return The sub-command or <code>null</code> if the command has no such sub-command
+   */
+  public Command getSubCommand(String nameOrAlias) {
+    return nameOrAlias == null ? null : subCommandIndex.get(nameOrAlias);
+  }
+
+  /**
+   * Returns all interceptors of the command in the order they were added.
+   *
+   * @return An unmodifiable {@link List} of all interceptors, without the global ones of the handler
+   */
+  public List<CommandInterceptor> getInterceptors() {
+    return interceptors;
+  }
+
+  private static Map<String, Command> indexSubCommands(List<Command> subCommands) {
+    Map<String, Command> index = new HashMap<>();
+    for (Command subCommand : subCommands) {
+      List<String> keys = new ArrayList<>(subCommand.getCommandAliases());
+      keys.add(0, subCommand.getCommandName());
+      for (String key : keys) {
+        Command previous = index.putIfAbsent(key, subCommand);
+        if (previous != null && previous != subCommand) {
+          throw new IllegalArgumentException("The sub-command name or alias \"" + key + "\" is already used!");
+        }
+      }
+    }
+
+    return index;
   }
 }
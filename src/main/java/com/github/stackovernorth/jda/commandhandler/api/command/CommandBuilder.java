@@ -24,9 +24,18 @@
 
 package com.github.stackovernorth.jda.commandhandler.api.command;
 
+import com.github.stackovernorth.jda.commandhandler.api.argument.Argument;
+import com.github.stackovernorth.jda.commandhandler.api.argument.ArgumentType;
+import com.github.stackovernorth.jda.commandhandler.api.argument.ParsePlan;
 import com.github.stackovernorth.jda.commandhandler.api.handler.CommandHandlerBuilder;
+import com.github.stackovernorth.jda.commandhandler.api.interceptor.CommandInterceptor;
+import com.github.stackovernorth.jda.commandhandler.listener.CacheableCommandListener;
 import com.github.stackovernorth.jda.commandhandler.listener.CommandListener;
+import com.github.stackovernorth.jda.commandhandler.listener.SlashCommandListener;
+import com.github.stackovernorth.jda.commandhandler.listener.TypedCommandListener;
 import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 import net.dv8tion.jda.api.Permission;
 
 /**
@@ -48,13 +57,25 @@ import net.dv8tion.jda.api.Permission;
  */
 public class CommandBuilder {
 
+  private static final Pattern SLASH_NAME = Pattern.compile("[a-z0-9_-]{1,32}");
+
   String commandName;
-  String commandAlias = "";
+  ArrayList<String> commandAliases = new ArrayList<>();
   String commandDescription;
   Boolean botReply = false;
   ArrayList<Long> commandChannels = new ArrayList<>();
   ArrayList<Permission> commandPermissions = new ArrayList<>();
   CommandListener handlerListener;
+  TypedCommandListener typedListener;
+  SlashCommandListener slashListener;
+  CacheableCommandListener cacheableListener;
+  CachePolicy cachePolicy;
+  ArrayList<Argument> arguments = new ArrayList<>();
+  int maxConcurrency;
+  CommandPriority priority = CommandPriority.NORMAL;
+  RateLimit rateLimit;
+  ArrayList<Command> subCommands = new ArrayList<>();
+  ArrayList<CommandInterceptor> interceptors = new ArrayList<>();
 
   /**
    * Starts the building process of your new command.
@@ -82,6 +103,55 @@ public class CommandBuilder {
     this.handlerListener = handlerListener;
   }
 
+  /**
+   * Starts the building process of your new command with typed arguments.
+   * <p>
+   * Use {@link #addArgument(String, ArgumentType)} and its variants to declare the arguments of the command. They are
+   * parsed before your listener is called.
+   * </p>
+   *
+   * @param commandName
+   *     A String which will be used as your command name in combination with the prefix set in {@link
+   *     CommandHandlerBuilder}
+   * @param typedListener
+   *     A class implementing {@link TypedCommandListener} which handles the command
+   *
+   * @throws IllegalArgumentException
+   *     If {@link #commandName} or the listener is <code>null</code>
+   */
+  public CommandBuilder(String commandName, TypedCommandListener typedListener) {
+    if (commandName == null || typedListener == null) {
+      throw new IllegalArgumentException("The command name or listener must not be null!");
+    }
+
+    this.commandName = commandName;
+    this.typedListener = typedListener;
+  }
+
+  /**
+   * Starts the building process of your new command whose replies can be cached.
+   * <p>
+   * Use {@link #setCache(long, TimeUnit, CacheScope)} to cache the replies of the listener.
+   * </p>
+   *
+   * @param commandName
+   *     A String which will be used as your command name in combination with the prefix set in {@link
+   *     CommandHandlerBuilder}
+   * @param cacheableListener
+   *     A class implementing {@link CacheableCommandListener} which creates the replies of the command
+   *
+   * @throws IllegalArgumentException
+   *     If {@link #commandName} or the listener is <code>null</code>
+   */
+  public CommandBuilder(String commandName, CacheableCommandListener cacheableListener) {
+    if (commandName == null || cacheableListener == null) {
+      throw new IllegalArgumentException("The command name or listener must not be null!");
+    }
+
+    this.commandName = commandName;
+    this.cacheableListener = cacheableListener;
+  }
+
   /**
    * Sets an alias for the command name.
    * <p>
@@ -91,7 +161,8 @@ public class CommandBuilder {
    * <code>help</code>.
    * </p>
    * <p>
-   * This variable is defaulted to <code>null</code>.
+   * This variable is defaulted to <code>null</code>. Note that this replaces all aliases previously added via {@link
+   * #addAlias(String)}.
    * </p>
    *
    * @param commandAlias
@@ -100,7 +171,27 @@ public class CommandBuilder {
    * @return <code>this</code> for chaining
    */
   public CommandBuilder setAlias(String commandAlias) {
-    this.commandAlias = commandAlias;
+    commandAliases.clear();
+
+    return addAlias(commandAlias);
+  }
+
+  /**
+   * Adds another alias for the command name.
+   * <p>
+   * Unlike {@link #setAlias(String)} this keeps all previously added aliases, so a command can be triggered by any
+   * number of alternate names.
+   * </p>
+   *
+   * @param commandAlias
+   *     A String which will be used as an additional alternate name of your command
+   *
+   * @return <code>this</code> for chaining
+   */
+  public CommandBuilder addAlias(String commandAlias) {
+    if (commandAlias != null && !commandAlias.isEmpty()) {
+      commandAliases.add(commandAlias);
+    }
 
     return this;
   }
@@ -171,12 +262,329 @@ public class CommandBuilder {
     return this;
   }
 
+  /**
+   * Sets the priority of the command.
+   * <p>
+   * Commands of higher priority are started first if they wait for a thread of the executor of the handler. Once the
+   * handler is overloaded (see {@link CommandHandlerBuilder#enableLoadShedding()}), commands of lower priority are
+   * dropped first. By default the priority is {@link CommandPriority#NORMAL}.
+   * </p>
+   *
+   * @param priority
+   *     The {@link CommandPriority} of the command
+   *
+   * @return <code>this</code> for chaining
+   *
+   * @throws IllegalArgumentException
+   *     If the priority is <code>null</code>
+   */
+  public CommandBuilder setPriority(CommandPriority priority) {
+    if (priority == null) {
+      throw new IllegalArgumentException("The priority must not be null!");
+    }
+
+    this.priority = priority;
+
+    return this;
+  }
+
+  /**
+   * Limits how many invocations of the command may run at the same time.
+   * <p>
+   * Invocations exceeding the limit are dropped. This is mostly useful if the handler executes commands on its own
+   * executor (see {@link CommandHandlerBuilder#setExecutionPool(int, int)}). By default there is no limit.
+   * </p>
+   *
+   * @param maxConcurrency
+   *     The maximum number of concurrent invocations or <code>0</code> for no limit
+   *
+   * @return <code>this</code> for chaining
+   *
+   * @throws IllegalArgumentException
+   *     If the limit is negative
+   */
+  public CommandBuilder setMaxConcurrency(int maxConcurrency) {
+    if (maxConcurrency < 0) {
+      throw new IllegalArgumentException("The concurrency limit must not be negative!");
+    }
+
+    this.maxConcurrency = maxConcurrency;
+
+    return this;
+  }
+
+  /**
+   * Sets a cooldown for the command.
+   * <p>
+   * After the command was executed, it cannot be executed again within the same scope until the cooldown passed. E.g.
+   * a cooldown of 5 seconds scoped to {@link RateLimitScope#USER} allows every user to execute the command once every
+   * 5 seconds. This replaces a rate limit set via {@link #setRateLimit(int, long, TimeUnit, RateLimitScope)}.
+   * </p>
+   *
+   * @param cooldown
+   *     The length of the cooldown
+   * @param unit
+   *     The {@link TimeUnit} of the cooldown
+   * @param scope
+   *     Who shares the cooldown
+   *
+   * @return <code>this</code> for chaining
+   *
+   * @throws IllegalArgumentException
+   *     If the cooldown is not positive or the unit or scope is <code>null</code>
+   */
+  public CommandBuilder setCooldown(long cooldown, TimeUnit unit, RateLimitScope scope) {
+    return setRateLimit(1, cooldown, unit, scope);
+  }
+
+  /**
+   * Limits how often the command can be executed within a period of time.
+   * <p>
+   * Unlike a cooldown this allows bursts: E.g. 3 invocations per 10 seconds scoped to {@link RateLimitScope#CHANNEL}
+   * allows 3 invocations right away in every channel, afterwards one more every 3.3 seconds. Invocations exceeding the
+   * limit are dropped before any arguments are parsed. This replaces a cooldown set via {@link #setCooldown(long,
+   * TimeUnit, RateLimitScope)}.
+   * </p>
+   *
+   * @param invocations
+   *     The number of invocations allowed within the period
+   * @param period
+   *     The length of the period
+   * @param unit
+   *     The {@link TimeUnit} of the period
+   * @param scope
+   *     Who shares the limit
+   *
+   * @return <code>this</code> for chaining
+   *
+   * @throws IllegalArgumentException
+   *     If the invocations or the period are not positive or the unit or scope is <code>null</code>
+   */
+  public CommandBuilder setRateLimit(int invocations, long period, TimeUnit unit, RateLimitScope scope) {
+    this.rateLimit = new RateLimit(invocations, period, unit, scope);
+
+    return this;
+  }
+
+  /**
+   * Caches the replies of the command.
+   * <p>
+   * Invocations with the same arguments within the same scope receive the same reply until it expires, without calling
+   * the listener again. E.g. a cache of 1 minute scoped to {@link CacheScope#GUILD} creates the reply of a leaderboard
+   * at most once per minute and guild. Up to 1000 replies with a total of one million characters are cached.
+   * </p>
+   * <p>
+   * Note that this requires a {@link CacheableCommandListener}.
+   * </p>
+   *
+   * @param ttl
+   *     How long a reply is cached
+   * @param unit
+   *     The {@link TimeUnit} of the time to live
+   * @param scope
+   *     Who shares the cached replies
+   *
+   * @return <code>this</code> for chaining
+   *
+   * @throws IllegalArgumentException
+   *     If the time to live is not positive or the unit or scope is <code>null</code>
+   */
+  public CommandBuilder setCache(long ttl, TimeUnit unit, CacheScope scope) {
+    return setCache(ttl, unit, scope, 1000, 1_000_000);
+  }
+
+  /**
+   * Caches the replies of the command with custom limits.
+   * <p>
+   * Once more than the given number of replies or characters are cached, the least recently used replies are evicted.
+   * </p>
+   *
+   * @param ttl
+   *     How long a reply is cached
+   * @param unit
+   *     The {@link TimeUnit} of the time to live
+   * @param scope
+   *     Who shares the cached replies
+   * @param maxEntries
+   *     The maximum number of cached replies
+   * @param maxWeight
+   *     The maximum number of characters of all cached replies
+   *
+   * @return <code>this</code> for chaining
+   *
+   * @throws IllegalArgumentException
+   *     If the time to live or a limit is not positive or the unit or scope is <code>null</code>
+   */
+  public CommandBuilder setCache(long ttl, TimeUnit unit, CacheScope scope, int maxEntries, long maxWeight) {
+    this.cachePolicy = new CachePolicy(ttl, unit, scope, maxEntries, maxWeight);
+
+    return this;
+  }
+
+  /**
+   * Declares the next argument of the command.
+   * <p>
+   * Arguments are expected in the order they are declared. Note that arguments can only be used together with a
+   * {@link TypedCommandListener}.
+   * </p>
+   *
+   * @param name
+   *     The name the value can be retrieved by
+   * @param type
+   *     The {@link ArgumentType} of the value
+   *
+   * @return <code>this</code> for chaining
+   */
+  public CommandBuilder addArgument(String name, ArgumentType type) {
+    arguments.add(new Argument(name, type, false, false));
+
+    return this;
+  }
+
+  /**
+   * Declares the next argument of the command, which may be missing.
+   * <p>
+   * Optional arguments can only be followed by other optional arguments or a varargs argument.
+   * </p>
+   *
+   * @param name
+   *     The name the value can be retrieved by
+   * @param type
+   *     The {@link ArgumentType} of the value
+   *
+   * @return <code>this</code> for chaining
+   */
+  public CommandBuilder addOptionalArgument(String name, ArgumentType type) {
+    arguments.add(new Argument(name, type, true, false));
+
+    return this;
+  }
+
+  /**
+   * Declares the last argument of the command, which takes all remaining values of its type.
+   *
+   * @param name
+   *     The name the values can be retrieved by
+   * @param type
+   *     The {@link ArgumentType} of the values
+   *
+   * @return <code>this</code> for chaining
+   */
+  public CommandBuilder addVarargsArgument(String name, ArgumentType type) {
+    arguments.add(new Argument(name, type, true, true));
+
+    return this;
+  }
+
+  /**
+   * Makes the command available as slash command as well.
+   * <p>
+   * The declared arguments of the command are registered as options of the slash command and its sub-commands as
+   * sub-commands of the slash command. Note that slash commands are only registered to Discord if enabled via {@link
+   * CommandHandlerBuilder#enableSlashCommands()}.
+   * </p>
+   *
+   * @param slashListener
+   *     A class implementing {@link SlashCommandListener} which handles the slash command
+   *
+   * @return <code>this</code> for chaining
+   */
+  public CommandBuilder setSlashListener(SlashCommandListener slashListener) {
+    this.slashListener = slashListener;
+
+    return this;
+  }
+
+  /**
+   * Adds a sub-command to the command.
+   * <p>
+   * A sub-command is a complete command of its own with its own aliases, channels, permissions, limits and listener.
+   * It is triggered by its name following the name of this command, e.g. <code>p!config prefix</code>, and may have
+   * sub-commands itself. If no sub-command matches, this command is executed instead.
+   * </p>
+   * <p>
+   * Note that only the checks of the command which is finally executed apply. The channels and permissions of this
+   * command are not checked again when one of its sub-commands is executed.
+   * </p>
+   *
+   * @param subCommand
+   *     The {@link Command} which should be added as sub-command
+   *
+   * @return <code>this</code> for chaining
+   *
+   * @throws IllegalArgumentException
+   *     If the sub-command is <code>null</code>
+   */
+  public CommandBuilder addSubCommand(Command subCommand) {
+    if (subCommand == null) {
+      throw new IllegalArgumentException("The sub-command must not be null!");
+    }
+
+    subCommands.add(subCommand);
+
+    return this;
+  }
+
+  /**
+   * Adds an interceptor which is called right before the listener of the command.
+   * <p>
+   * The interceptors of a command are called after the global interceptors of the handler, in the order they were
+   * added. Like the other checks, they only apply to this command and not to its sub-commands.
+   * </p>
+   *
+   * @param interceptor
+   *     A class implementing {@link CommandInterceptor}
+   *
+   * @return <code>this</code> for chaining
+   *
+   * @throws IllegalArgumentException
+   *     If the interceptor is <code>null</code>
+   */
+  public CommandBuilder addInterceptor(CommandInterceptor interceptor) {
+    if (interceptor == null) {
+      throw new IllegalArgumentException("The interceptor must not be null!");
+    }
+
+    interceptors.add(interceptor);
+
+    return this;
+  }
+
   /**
    * Ends your building and creates a new instance of {@link Command} containing all the information about the command.
    *
    * @return A new instance of {@link Command} with the newly created command
+   *
+   * @throws IllegalStateException
+   *     If arguments were declared without using a {@link TypedCommandListener} or {@link SlashCommandListener} or a
+   *     cache was set without using a {@link CacheableCommandListener}
+   * @throws IllegalArgumentException
+   *     If the declared arguments are invalid, see {@link ParsePlan#compile(java.util.List)}, two sub-commands share a
+   *     name or alias or the name of a slash command or one of its arguments is not a valid slash command name
    */
   public Command build() {
+    if (!arguments.isEmpty() && typedListener == null && slashListener == null) {
+      throw new IllegalStateException("Arguments can only be declared for commands using a TypedCommandListener or "
+          + "SlashCommandListener!");
+    }
+
+    if (cachePolicy != null && cacheableListener == null) {
+      throw new IllegalStateException("A cache can only be set for commands using a CacheableCommandListener!");
+    }
+
+    if (slashListener != null) {
+      // Discord rejects any other names, so this fails when building instead of when registering the slash commands.
+      checkSlashName(commandName);
+      arguments.forEach(argument -> checkSlashName(argument.getName()));
+    }
+
     return new Command(this);
   }
+
+  private static void checkSlashName(String name) {
+    if (!SLASH_NAME.matcher(name).matches()) {
+      throw new IllegalArgumentException("The name \"" + name + "\" must be lowercase and 1 to 32 characters long to "
+          + "be used for slash commands!");
+    }
+  }
 }
@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.command;
+
+import com.github.stackovernorth.jda.commandhandler.util.LongHashSet;
+import java.util.ArrayList;
+import java.util.List;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.TextChannel;
+import net.dv8tion.jda.api.entities.User;
+
+/**
+ * A precompiled check deciding whether a command may be executed.
+ * <p>
+ * Guards are compiled once when a {@link Command} is built. Only checks which can actually fail are part of the
+ * compiled guard and they are chained cheapest first: the bot check, the channel lookup and finally the comparison of
+ * the raw permissions of the sender.
+ * </p>
+ * <p>
+ * The public API of JDA has no way to read the effective permissions of a member without allocating, so the
+ * permission check costs the {@link java.util.EnumSet} of {@link Member#getPermissions()}. It is only part of the
+ * guard if the command needs any permission and runs after the checks which need no allocation at all.
+ * </p>
+ */
+@FunctionalInterface
+interface CommandGuard {
+
+  CommandGuard NONE = (sender, channel, author) -> null;
+
+  /**
+   * Checks whether the command may be executed.
+   *
+   * @param sender
+   *     The sender of the message, <code>null</code> for webhook messages
+   * @param channel
+   *     The channel the message was sent in
+   * @param author
+   *     The author of the message
+   *
+   * @return The reason why the command must not be executed or <code>null</code> if it may be executed
+   */
+  RejectionReason check(Member sender, TextChannel channel, User author);
+
+  /**
+   * Compiles the rules of a command into a single guard.
+   *
+   * @param botAllowed
+   *     Whether bots may execute the command
+   * @param channels
+   *     The channels the command is allowed in, an empty set allows all channels
+   * @param permissions
+   *     The raw bits of all permissions the sender needs
+   *
+   * @return The compiled guard
+   */
+  static CommandGuard compile(boolean botAllowed, LongHashSet channels, long permissions) {
+    List<CommandGuard> guards = new ArrayList<>();
+    if (!botAllowed) {
+      guards.add((sender, channel, author) -> author.isBot() ? RejectionReason.BOT : null);
+    }
+
+    if (!channels.isEmpty()) {
+      guards.add((sender, channel, author) -> channels.contains(channel.getIdLong()) ? null : RejectionReason.CHANNEL);
+    }
+
+    if (permissions != 0) {
+      // The permissions of a member already contain all permissions if the sender is an administrator or the owner.
+      guards.add((sender, channel, author) -> sender != null
+          && (Permission.getRaw(sender.getPermissions()) & permissions) == permissions
+          ? null : RejectionReason.PERMISSION);
+    }
+
+    CommandGuard compiled = NONE;
+    for (int i = guards.size() - 1; i >= 0; i--) {
+      compiled = compiled == NONE ? guards.get(i) : chain(guards.get(i), compiled);
+    }
+
+    return compiled;
+  }
+
+  static CommandGuard chain(CommandGuard first, CommandGuard second) {
+    return (sender, channel, author) -> {
+      RejectionReason reason = first.check(sender, channel, author);
+      return reason != null ? reason : second.check(sender, channel, author);
+    };
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.command;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Describes how often a command may be executed within a period of time.
+ * <p>
+ * A rate limit works like a bucket holding up to {@link #getPermits()} tokens which is refilled continuously over
+ * {@link #getPeriod(TimeUnit)}. Every invocation takes one token. A cooldown is simply a rate limit with a single
+ * permit.
+ * </p>
+ */
+public final class RateLimit {
+
+  private final int permits;
+  private final long periodNanos;
+  private final RateLimitScope scope;
+
+  /**
+   * Creates a new rate limit.
+   *
+   * @param permits
+   *     The number of invocations allowed within the period
+   * @param period
+   *     The length of the period
+   * @param unit
+   *     The {@link TimeUnit} of the period
+   * @param scope
+   *     Who shares the limit
+   *
+   * @throws IllegalArgumentException
+   *     If the permits or the period are not positive or the unit or scope is <code>null</code>
+   */
+  public RateLimit(int permits, long period, TimeUnit unit, RateLimitScope scope) {
+    if (permits < 1 || period < 1 || unit == null || scope == null) {
+      throw new IllegalArgumentException("A rate limit needs positive permits, a positive period and a scope!");
+    }
+
+    this.permits = permits;
+    this.periodNanos = unit.toNanos(period);
+    this.scope = scope;
+  }
+
+  /**
+   * Returns the number of invocations allowed within the period.
+   *
+   * @return The number of permits
+   */
+  public int getPermits() {
+    return permits;
+  }
+
+  /**
+   * Returns the length of the period.
+   *
+   * @param unit
+   *     The {@link TimeUnit} the period should be returned in
+   *
+   * @return The length of the period
+   */
+  public long getPeriod(TimeUnit unit) {
+    return unit.convert(periodNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Returns who shares the limit.
+   *
+   * @return The {@link RateLimitScope} of the limit
+   */
+  public RateLimitScope getScope() {
+    return scope;
+  }
+}
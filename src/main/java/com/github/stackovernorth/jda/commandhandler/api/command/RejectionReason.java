@@ -0,0 +1,86 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.command;
+
+/**
+ * The reasons why a command was not executed although its name matched.
+ */
+public enum RejectionReason {
+
+  /**
+   * The message was sent by a bot but the command does not allow bots.
+   */
+  BOT,
+
+  /**
+   * The message was sent in a channel the command is not allowed in.
+   */
+  CHANNEL,
+
+  /**
+   * The sender is missing at least one of the permissions the command requires.
+   */
+  PERMISSION,
+
+  /**
+   * The rate limit or cooldown of the command was exceeded.
+   */
+  RATE_LIMITED,
+
+  /**
+   * The maximum number of concurrent invocations of the command was reached.
+   */
+  CONCURRENCY,
+
+  /**
+   * The executor of the handler could not take the command anymore.
+   */
+  EXECUTOR,
+
+  /**
+   * Too many replies are still waiting to be sent to the channel the command was used in.
+   */
+  REPLY_BACKLOG,
+
+  /**
+   * The command was disabled within the guild by its configuration.
+   */
+  DISABLED,
+
+  /**
+   * The handler was overloaded and dropped the command because of its low priority.
+   */
+  SHED,
+
+  /**
+   * An interceptor did not proceed, so the listener of the command was not called.
+   */
+  INTERCEPTED,
+
+  /**
+   * The configuration of the guild or the shared state could not be read, so the command could not be checked.
+   */
+  ERROR
+}
@@ -0,0 +1,101 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.github.stackovernorth.jda.commandhandler.api.config;
+
+import com.github.stackovernorth.jda.commandhandler.util.LongHashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The settings of a single command which are overridden within a guild.
+ * <p>
+ * Every setting which is not overridden is <code>null</code>, in which case the setting of the command applies.
+ * </p>
+ */
+public final class CommandOverride {
+
+  private final Boolean enabled;
+  private final LongHashSet channels;
+  private final Long rawPermissions;
+  private final Long cooldownMillis;
+
+  CommandOverride(Boolean enabled, LongHashSet channels, Long rawPermissions, Long cooldownMillis) {
+    this.enabled = enabled;
+    this.channels = channels;
+    this.rawPermissions = rawPermissions;
+    this.cooldownMillis = cooldownMillis;
+  }
+
+  /**
+   * Returns whether the command is enabled within the guild.
+   *
+   * @return <code>false</code> if the command is disabled, <code>null</code> if not overridden
+   */
+  public Boolean getEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Returns the channels the command is allowed in within the guild.
+   * <p>
+   * Note that an empty set allows all channels.
+   * </p>
+   *
+   * @return The ids of the allowed channels or <code>null</code> if not overridden
+   */
+  public LongHashSet getChannels() {
+    return channels;
+  }
+
+  /**
+   * Returns the permissions needed to execute the command within the guild.
+   *
+   * @return The raw bits of all needed permissions or <code>null</code> if not overridden
+   */
+  public Long getRawPermissions() {
+    return rawPermissions;
+  }
+
+  /**
+   * Returns the cooldown of the command within the guild, which replaces its rate limit.
+   *
+   * @param unit
+   *     The {@link TimeUnit} of the returned cooldown
+   *
+   * @return The cooldown, 0 if the command has no cooldown, or <code>null</code> if not overridden
+   */
+  public Long getCooldown(TimeUnit unit) {
+    return cooldownMillis == null ? null : unit.convert(cooldownMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Returns whether the channels or permissions of the command are overridden.
+   *
+   * @return <code>true</code> if the checks of the command do not apply as they were built
+   */
+  public boolean overridesAccess() {
+    return channels != null || rawPermissions != null;
+  }
+}
@@ -0,0 +1,196 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.github.stackovernorth.jda.commandhandler.api.config;
+
+import com.github.stackovernorth.jda.commandhandler.util.LongHashSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import net.dv8tion.jda.api.Permission;
+
+/**
+ * The configuration of a single guild, overriding the prefixes and the settings of commands.
+ * <p>
+ * A configuration is immutable. When its file changes, a new instance replaces it as a whole, so a message being
+ * dispatched either sees the old or the new configuration, but never a mixture of both.
+ * </p>
+ * <p>
+ * It is read from a properties file with the following keys, all of which are optional:
+ * </p>
+ * <pre>
+ * prefixes=!,?
+ * command.ping.enabled=false
+ * command.ping.channels=123456789,987654321
+ * command.ping.permissions=MESSAGE_MANAGE,KICK_MEMBERS
+ * command.ping.cooldown=5000
+ * command.config.prefix.enabled=false
+ * </pre>
+ * <p>
+ * The cooldown is given in milliseconds and sub-commands are written with a dot between the names, e.g.
+ * <code>config.prefix</code> for the sub-command <code>prefix</code> of <code>config</code>.
+ * </p>
+ */
+public final class GuildConfig {
+
+  /**
+   * The configuration of guilds which override nothing.
+   */
+  public static final GuildConfig EMPTY = new GuildConfig(null, Collections.emptyMap());
+
+  private static final String COMMAND_PREFIX = "command.";
+  private static final List<String> SETTINGS = Arrays.asList("enabled", "channels", "permissions", "cooldown");
+
+  private final List<String> prefixes;
+  private final Map<String, CommandOverride> overrides;
+
+  private GuildConfig(List<String> prefixes, Map<String, CommandOverride> overrides) {
+    this.prefixes = prefixes;
+    this.overrides = overrides;
+  }
+
+  /**
+   * Reads a configuration from the given properties.
+   *
+   * @param properties
+   *     The properties, see above for the available keys
+   *
+   * @return The configuration
+   *
+   * @throws IllegalArgumentException
+   *     If a key is unknown or a value is invalid
+   */
+  public static GuildConfig parse(Properties properties) {
+    List<String> prefixes = null;
+    Map<String, Map<String, String>> settings = new HashMap<>();
+    for (String key : properties.stringPropertyNames()) {
+      String value = properties.getProperty(key).trim();
+      if (key.equals("prefixes")) {
+        prefixes = Collections.unmodifiableList(split(value));
+        if (prefixes.isEmpty()) {
+          throw new IllegalArgumentException("At least one prefix must be provided!");
+        }
+
+        continue;
+      }
+
+      int separator = key.lastIndexOf('.');
+      if (!key.startsWith(COMMAND_PREFIX) || separator <= COMMAND_PREFIX.length()) {
+        throw new IllegalArgumentException("Unknown key \"" + key + "\"!");
+      }
+
+      String path = key.substring(COMMAND_PREFIX.length(), separator).replace('.', ' ');
+      settings.computeIfAbsent(path, p -> new HashMap<>()).put(key.substring(separator + 1), value);
+    }
+
+    Map<String, CommandOverride> overrides = new HashMap<>();
+    settings.forEach((path, values) -> overrides.put(path, parseOverride(path, values)));
+    return new GuildConfig(prefixes, overrides);
+  }
+
+  /**
+   * Returns the prefixes used in the guild instead of the global ones.
+   *
+   * @return An unmodifiable {@link List} of the prefixes or <code>null</code> if not overridden
+   */
+  public List<String> getPrefixes() {
+    return prefixes;
+  }
+
+  /**
+   * Returns the overridden settings of a command.
+   *
+   * @param path
+   *     The name of the command, followed by the names of the sub-commands separated by spaces
+   *
+   * @return The {@link CommandOverride} of the command or <code>null</code> if nothing is overridden
+   */
+  public CommandOverride getOverride(String path) {
+    return overrides.isEmpty() ? null : overrides.get(path);
+  }
+
+  private static CommandOverride parseOverride(String path, Map<String, String> values) {
+    Boolean enabled = null;
+    LongHashSet channels = null;
+    Long rawPermissions = null;
+    Long cooldownMillis = null;
+    for (Map.Entry<String, String> entry : values.entrySet()) {
+      String key = COMMAND_PREFIX + path.replace(' ', '.') + "." + entry.getKey();
+      String value = entry.getValue();
+      if (!SETTINGS.contains(entry.getKey())) {
+        throw new IllegalArgumentException("Unknown key \"" + key + "\"!");
+      }
+
+      try {
+        switch (entry.getKey()) {
+          case "enabled":
+            enabled = Boolean.parseBoolean(value);
+            break;
+          case "channels":
+            List<Long> ids = new ArrayList<>();
+            for (String id : split(value)) {
+              ids.add(Long.parseLong(id));
+            }
+
+            channels = LongHashSet.of(ids);
+            break;
+          case "permissions":
+            List<Permission> permissions = new ArrayList<>();
+            for (String permission : split(value)) {
+              permissions.add(Permission.valueOf(permission));
+            }
+
+            rawPermissions = Permission.getRaw(permissions);
+            break;
+          default:
+            // The only setting left is the cooldown, in milliseconds.
+            cooldownMillis = Long.parseLong(value);
+            if (cooldownMillis < 0) {
+              throw new IllegalArgumentException("The cooldown must not be negative!");
+            }
+        }
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Invalid value \"" + value + "\" of \"" + key + "\"!", e);
+      }
+    }
+
+    return new CommandOverride(enabled, channels, rawPermissions, cooldownMillis);
+  }
+
+  private static List<String> split(String value) {
+    List<String> values = new ArrayList<>();
+    for (String part : value.split(",")) {
+      if (!part.trim().isEmpty()) {
+        values.add(part.trim());
+      }
+    }
+
+    return values;
+  }
+}
@@ -0,0 +1,538 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.github.stackovernorth.jda.commandhandler.api.config;
+
+import com.github.stackovernorth.jda.commandhandler.util.WeightedLruCache;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stores the {@link GuildConfig} of every guild as a properties file named after the id of the guild, e.g.
+ * <code>123456789.properties</code>, within a single directory.
+ * <p>
+ * The configuration of a guild is only read when it is needed for the first time, either right away via {@link
+ * #get(long)} or in the background via {@link #preload(long)}. Only the most recently loaded guilds are kept, others
+ * are read again once they are needed. Once {@link #watch()} was called, the directory is watched for changes and the
+ * configuration of every loaded guild whose file changed is read again and replaces the previous one at once. A file
+ * which cannot be read or contains invalid values is reported to the uncaught exception handler and the previous
+ * configuration is kept, or none is used if there is no previous one.
+ * </p>
+ * <p>
+ * Prefixes are needed before a message can be matched to a command, so they are the only part of the configuration
+ * which is always kept, see {@link #getPrefixIndex()}.
+ * </p>
+ */
+public final class GuildConfigStore {
+
+  /**
+   * How many guilds keep their configuration loaded by default.
+   */
+  public static final int DEFAULT_MAX_GUILDS = 10_000;
+
+  private static final long SETTLE_MILLIS = 200;
+  private static final Pattern FILE_NAME = Pattern.compile("(\\d+)\\.properties");
+  private static final String PREFIX_INDEX = "prefixes.properties";
+
+  private final Path directory;
+  private final WeightedLruCache<Long, GuildConfig> configs;
+  private final Map<Long, CompletableFuture<GuildConfig>> loading = new ConcurrentHashMap<>();
+  private final Map<Long, List<String>> prefixes = new ConcurrentHashMap<>();
+  private final ThreadPoolExecutor loader;
+  private final List<BiConsumer<Long, GuildConfig>> listeners = new CopyOnWriteArrayList<>();
+  private WatchService watchService;
+
+  /**
+   * Creates a new store keeping the configuration of up to {@value #DEFAULT_MAX_GUILDS} guilds, creating the directory
+   * if it does not exist yet.
+   *
+   * @param directory
+   *     The directory containing the files
+   *
+   * @throws UncheckedIOException
+   *     If the directory cannot be created or read
+   */
+  public GuildConfigStore(Path directory) {
+    this(directory, DEFAULT_MAX_GUILDS);
+  }
+
+  /**
+   * Creates a new store, creating the directory if it does not exist yet.
+   *
+   * @param directory
+   *     The directory containing the files
+   * @param maxGuilds
+   *     How many guilds keep their configuration loaded
+   *
+   * @throws IllegalArgumentException
+   *     If the maximum number of guilds is not positive
+   * @throws UncheckedIOException
+   *     If the directory cannot be created or read
+   */
+  public GuildConfigStore(Path directory, int maxGuilds) {
+    if (maxGuilds < 1) {
+      throw new IllegalArgumentException("The maximum number of guilds must be positive!");
+    }
+
+    // Configurations do not expire, they are only evicted once too many guilds were loaded.
+    this.directory = directory;
+    this.configs = new WeightedLruCache<>(maxGuilds, maxGuilds, Long.MAX_VALUE, config -> 1);
+    this.loader = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+      Thread thread = new Thread(runnable, "command-config-loader");
+      thread.setDaemon(true);
+      return thread;
+    });
+    loader.allowCoreThreadTimeOut(true);
+    try {
+      Files.createDirectories(directory);
+      indexChangedFiles(readPrefixIndex());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Returns the configuration of a guild, reading it if it was not needed before.
+   *
+   * @param guildId
+   *     The id of the guild
+   *
+   * @return The {@link GuildConfig} of the guild, {@link GuildConfig#EMPTY} if there is none
+   */
+  public GuildConfig get(long guildId) {
+    GuildConfig config = configs.get(guildId);
+    if (config != null) {
+      return config;
+    }
+
+    // The cache locks itself while changing, so a configuration replaced meanwhile is never overwritten.
+    GuildConfig loaded = load(guildId);
+    synchronized (configs) {
+      config = configs.get(guildId);
+      if (config != null) {
+        return config;
+      }
+
+      config = loaded == null ? GuildConfig.EMPTY : loaded;
+      configs.put(guildId, config);
+    }
+
+    if (loaded != null) {
+      indexPrefixes(guildId, loaded.getPrefixes());
+    }
+
+    notifyListeners(guildId, config);
+    return config;
+  }
+
+  /**
+   * Returns the configuration of a guild if it is loaded, without reading it.
+   *
+   * @param guildId
+   *     The id of the guild
+   *
+   * @return The {@link GuildConfig} of the guild, <code>null</code> if it was not loaded yet
+   */
+  public GuildConfig getIfLoaded(long guildId) {
+    return configs.get(guildId);
+  }
+
+  /**
+   * Returns the prefixes of every guild whose configuration overrides them, without reading any configuration.
+   * <p>
+   * Unlike the rest of the configuration, the prefixes are always kept, since they are needed before a message can be
+   * matched to a command. They are stored in <code>prefixes.properties</code> within the directory, so only the files
+   * which changed while the bot was not running are read when the store is created.
+   * </p>
+   *
+   * @return An unmodifiable {@link Map} of the ids of the guilds and their prefixes
+   */
+  public Map<Long, List<String>> getPrefixIndex() {
+    return Collections.unmodifiableMap(new HashMap<>(prefixes));
+  }
+
+  /**
+   * Reads the configuration of a guild on a background thread, unless it is loaded already.
+   * <p>
+   * This is used once a command of the guild was matched, so reading the file never blocks the thread dispatching the
+   * events.
+   * </p>
+   *
+   * @param guildId
+   *     The id of the guild
+   *
+   * @return A {@link CompletableFuture} of the {@link GuildConfig} of the guild
+   */
+  public CompletableFuture<GuildConfig> preload(long guildId) {
+    GuildConfig config = configs.get(guildId);
+    if (config != null) {
+      return CompletableFuture.completedFuture(config);
+    }
+
+    // Every guild is read at most once at a time, no matter how many commands are waiting for it.
+    CompletableFuture<GuildConfig> future = new CompletableFuture<>();
+    CompletableFuture<GuildConfig> pending = loading.putIfAbsent(guildId, future);
+    if (pending != null) {
+      return pending;
+    }
+
+    loader.execute(() -> {
+      try {
+        future.complete(get(guildId));
+      } catch (RuntimeException e) {
+        future.completeExceptionally(e);
+      } finally {
+        loading.remove(guildId, future);
+      }
+    });
+
+    return future;
+  }
+
+  /**
+   * Changes the file of a guild and applies the change right away.
+   * <p>
+   * The file is replaced atomically, so the watcher never reads a partially written file.
+   * </p>
+   *
+   * @param guildId
+   *     The id of the guild
+   * @param changes
+   *     Changes the current properties of the guild
+   *
+   * @throws IllegalArgumentException
+   *     If the changed properties are invalid, in which case the file is not changed
+   * @throws UncheckedIOException
+   *     If the file cannot be read or written
+   */
+  public synchronized void update(long guildId, Consumer<Properties> changes) {
+    Path file = fileOf(guildId);
+    Properties properties = new Properties();
+    try {
+      if (Files.exists(file)) {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+          properties.load(reader);
+        }
+      }
+
+      changes.accept(properties);
+      GuildConfig config = GuildConfig.parse(properties);
+      write(file, properties);
+      indexPrefixes(guildId, config.getPrefixes());
+      replace(guildId, config);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Forgets the configuration of a guild, e.g. because the bot left it. It is read again once it is needed.
+   *
+   * @param guildId
+   *     The id of the guild
+   */
+  public void release(long guildId) {
+    configs.remove(guildId);
+  }
+
+  /**
+   * Adds a listener which is called whenever the configuration of a guild was loaded or replaced.
+   *
+   * @param listener
+   *     Receives the id of the guild and its new configuration
+   */
+  public void addListener(BiConsumer<Long, GuildConfig> listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Starts watching the directory for changes on a daemon thread.
+   *
+   * @throws UncheckedIOException
+   *     If the directory cannot be watched
+   */
+  public synchronized void watch() {
+    if (watchService != null) {
+      return;
+    }
+
+    try {
+      watchService = directory.getFileSystem().newWatchService();
+      directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+          StandardWatchEventKinds.ENTRY_DELETE);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    Thread watcher = new Thread(() -> watchChanges(watchService), "command-config-watcher");
+    watcher.setDaemon(true);
+    watcher.start();
+  }
+
+  /**
+   * Stops watching the directory for changes.
+   */
+  public synchronized void close() {
+    if (watchService == null) {
+      return;
+    }
+
+    try {
+      watchService.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      watchService = null;
+    }
+  }
+
+  private void watchChanges(WatchService watchService) {
+    try {
+      while (true) {
+        // Files are often written in several steps, so changes are collected until none followed for a short while.
+        // Each changed file is then read once, after it was written completely.
+        Set<Long> changed = new HashSet<>();
+        boolean overflowed = false;
+        WatchKey key = watchService.take();
+        while (key != null) {
+          overflowed |= collectChanges(key, changed);
+          key.reset();
+          key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        if (overflowed) {
+          reindex();
+        }
+
+        changed.forEach(this::reload);
+      }
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      // The store was closed.
+    }
+  }
+
+  private boolean collectChanges(WatchKey key, Set<Long> changed) {
+    boolean overflowed = false;
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+        // Some changes were lost, so every guild is read again once it is needed.
+        configs.clear();
+        overflowed = true;
+        continue;
+      }
+
+      Matcher matcher = FILE_NAME.matcher(event.context().toString());
+      if (matcher.matches()) {
+        changed.add(Long.parseLong(matcher.group(1)));
+      }
+    }
+
+    return overflowed;
+  }
+
+  private void reload(long guildId) {
+    GuildConfig config = load(guildId);
+    if (config == null) {
+      return;
+    }
+
+    // Guilds which were never needed only get their prefixes updated, the rest is not kept until it is needed.
+    boolean prefixesChanged = indexPrefixes(guildId, config.getPrefixes());
+    if (configs.get(guildId) != null) {
+      replace(guildId, config);
+    } else if (prefixesChanged) {
+      notifyListeners(guildId, config);
+    }
+  }
+
+  private void reindex() {
+    try {
+      indexChangedFiles(null);
+    } catch (IOException e) {
+      report(new IllegalStateException("Could not read the prefixes of the guilds!", e));
+    }
+  }
+
+  private FileTime readPrefixIndex() {
+    Path index = directory.resolve(PREFIX_INDEX);
+    if (!Files.exists(index)) {
+      return null;
+    }
+
+    Properties properties = new Properties();
+    try (Reader reader = Files.newBufferedReader(index, StandardCharsets.UTF_8)) {
+      FileTime indexed = Files.getLastModifiedTime(index);
+      properties.load(reader);
+      for (String guildId : properties.stringPropertyNames()) {
+        List<String> guildPrefixes = Arrays.asList(properties.getProperty(guildId).split(","));
+        prefixes.put(Long.parseLong(guildId), Collections.unmodifiableList(guildPrefixes));
+      }
+
+      return indexed;
+    } catch (IOException | NumberFormatException e) {
+      // A damaged index is simply built again from the files of all guilds.
+      prefixes.clear();
+      return null;
+    }
+  }
+
+  private synchronized void indexChangedFiles(FileTime indexed) throws IOException {
+    // Only files which changed since the index was written are read, which usually are none at all.
+    boolean changed = false;
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+      for (Path file : files) {
+        Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+        if (!matcher.matches() || indexed != null && Files.getLastModifiedTime(file).compareTo(indexed) < 0) {
+          continue;
+        }
+
+        long guildId = Long.parseLong(matcher.group(1));
+        GuildConfig config = load(guildId);
+        if (config != null && putPrefixes(guildId, config.getPrefixes())) {
+          changed = true;
+          notifyListeners(guildId, config);
+        }
+      }
+    }
+
+    for (Long guildId : prefixes.keySet()) {
+      if (!Files.exists(fileOf(guildId))) {
+        changed |= putPrefixes(guildId, null);
+        notifyListeners(guildId, GuildConfig.EMPTY);
+      }
+    }
+
+    // Without an index, every file would be read again the next time, even if none of them sets prefixes.
+    if (changed || indexed == null) {
+      writePrefixIndex();
+    }
+  }
+
+  private synchronized boolean indexPrefixes(long guildId, List<String> guildPrefixes) {
+    if (!putPrefixes(guildId, guildPrefixes)) {
+      return false;
+    }
+
+    writePrefixIndex();
+    return true;
+  }
+
+  private boolean putPrefixes(long guildId, List<String> guildPrefixes) {
+    List<String> previous = guildPrefixes == null ? prefixes.remove(guildId) : prefixes.put(guildId, guildPrefixes);
+    return !Objects.equals(previous, guildPrefixes);
+  }
+
+  private void writePrefixIndex() {
+    Properties properties = new Properties();
+    prefixes.forEach((guildId, guildPrefixes) -> properties.setProperty(guildId.toString(),
+        String.join(",", guildPrefixes)));
+    try {
+      write(directory.resolve(PREFIX_INDEX), properties);
+    } catch (IOException e) {
+      // The changed files are newer than the index then, so they are read again once the store is created.
+      report(new IllegalStateException("Could not write the prefixes of the guilds!", e));
+    }
+  }
+
+  private void write(Path file, Properties properties) throws IOException {
+    // The file is replaced atomically, so the watcher never reads a partially written file.
+    Path temporary = Files.createTempFile(directory, file.getFileName() + ".", ".tmp");
+    try {
+      try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+        properties.store(writer, null);
+      }
+
+      Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  private void replace(long guildId, GuildConfig config) {
+    configs.put(guildId, config);
+    notifyListeners(guildId, config);
+  }
+
+  private GuildConfig load(long guildId) {
+    Path file = fileOf(guildId);
+    if (!Files.exists(file)) {
+      return GuildConfig.EMPTY;
+    }
+
+    Properties properties = new Properties();
+    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      properties.load(reader);
+      return GuildConfig.parse(properties);
+    } catch (IOException | IllegalArgumentException e) {
+      report(new IllegalStateException("Could not load the configuration of guild " + guildId + "!", e));
+      return null;
+    }
+  }
+
+  private void report(Exception e) {
+    Thread thread = Thread.currentThread();
+    thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+  }
+
+  private void notifyListeners(long guildId, GuildConfig config) {
+    listeners.forEach(listener -> listener.accept(guildId, config));
+  }
+
+  private Path fileOf(long guildId) {
+    return directory.resolve(guildId + ".properties");
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.github.stackovernorth.jda.commandhandler.api.guild;
+
+/**
+ * Implement this interface to load the state of a guild, e.g. its settings or scores, from wherever it is stored.
+ *
+ * @param <S>
+ *     The type of the state
+ */
+@FunctionalInterface
+public interface GuildStateLoader<S> {
+
+  /**
+   * This method will be triggered once the state of a guild is needed but not loaded.
+   * <p>
+   * Concurrent requests for the same guild wait for a single call of this method.
+   * </p>
+   *
+   * @param guildId
+   *     The id of the guild
+   *
+   * @return The state of the guild, must not be <code>null</code>
+   */
+  S load(long guildId);
+
+  /**
+   * This method will be triggered once the state of a guild is no longer kept, because it was not used recently or the
+   * bot left the guild. Changes which were not persisted yet should be persisted here.
+   *
+   * @param guildId
+   *     The id of the guild
+   * @param state
+   *     The released state
+   */
+  default void release(long guildId, S state) {
+  }
+
+  /**
+   * Estimates the memory used by the state of a guild, in any unit as long as it is the same for all states.
+   *
+   * @param state
+   *     The state of a guild
+   *
+   * @return The weight of the state, by default 1
+   */
+  default long weigh(S state) {
+    return 1;
+  }
+}
@@ -0,0 +1,230 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.github.stackovernorth.jda.commandhandler.api.guild;
+
+import com.github.stackovernorth.jda.commandhandler.util.WeightedLruCache;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the state of the guilds which recently used commands, loading it once it is needed.
+ * <p>
+ * Bots are often part of tens of thousands of guilds, most of which are idle. Instead of keeping the state of all of
+ * them, the state of a guild is loaded when it is needed for the first time and kept in a cache limited by the number
+ * of guilds and the total weight of their states. Once a limit is exceeded, the states of the least recently used
+ * guilds are released. When the bot leaves a guild, its state is released right away.
+ * </p>
+ * <p>
+ * If set via {@link com.github.stackovernorth.jda.commandhandler.api.handler.CommandHandlerBuilder#setGuildStates(
+ * GuildStates)}, the state of a guild is loaded before any of its commands is executed, on the same thread as the
+ * listener. Thus {@link #get(long)} within a listener returns the loaded state right away.
+ * </p>
+ *
+ * @param <S>
+ *     The type of the state
+ */
+public final class GuildStates<S> {
+
+  private final GuildStateLoader<S> loader;
+  private final WeightedLruCache<Long, S> states;
+  private final Map<Long, PendingLoad<S>> loading = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder loads = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Creates a new, empty cache of guild states.
+   *
+   * @param loader
+   *     A class implementing {@link GuildStateLoader} which loads, releases and weighs the states
+   * @param maxGuilds
+   *     The maximum number of guilds whose state is kept
+   * @param maxWeight
+   *     The maximum total weight of all states, see {@link GuildStateLoader#weigh(Object)}
+   *
+   * @throws IllegalArgumentException
+   *     If the loader is <code>null</code> or a limit is not positive
+   */
+  public GuildStates(GuildStateLoader<S> loader, int maxGuilds, long maxWeight) {
+    if (loader == null) {
+      throw new IllegalArgumentException("The loader must not be null!");
+    }
+
+    this.loader = loader;
+    this.states = new WeightedLruCache<>(maxGuilds, maxWeight, Long.MAX_VALUE, loader::weigh, (guildId, state) -> {
+      evictions.increment();
+      loader.release(guildId, state);
+    });
+  }
+
+  /**
+   * Returns the state of a guild, loading it if it is not kept yet.
+   *
+   * @param guildId
+   *     The id of the guild
+   *
+   * @return The state of the guild
+   *
+   * @throws IllegalStateException
+   *     If the loader returned <code>null</code>
+   */
+  public S get(long guildId) {
+    S state = states.get(guildId);
+    if (state != null) {
+      hits.increment();
+      return state;
+    }
+
+    // Concurrent requests for the same guild wait for the first one instead of loading the state again.
+    PendingLoad<S> load = new PendingLoad<>();
+    PendingLoad<S> running = loading.putIfAbsent(guildId, load);
+    if (running != null) {
+      return await(running);
+    }
+
+    try {
+      // Another request may have finished loading right before this one registered its load.
+      state = states.get(guildId);
+      if (state == null) {
+        loads.increment();
+        state = loader.load(guildId);
+        if (state == null) {
+          throw new IllegalStateException("The state of guild " + guildId + " must not be null!");
+        }
+
+        states.put(guildId, state);
+
+        // A guild released while its state was loading must not keep it. Whoever removes the state releases it, so
+        // it is released exactly once, no matter whether release(long) ran before or after it was put.
+        if (load.released && states.remove(guildId) != null) {
+          loader.release(guildId, state);
+        }
+      }
+
+      load.complete(state);
+      return state;
+    } catch (RuntimeException e) {
+      load.completeExceptionally(e);
+      throw e;
+    } finally {
+      loading.remove(guildId, load);
+    }
+  }
+
+  /**
+   * Returns the state of a guild without loading it.
+   *
+   * @param guildId
+   *     The id of the guild
+   *
+   * @return The state of the guild or <code>null</code> if it is not kept
+   */
+  public S getIfLoaded(long guildId) {
+    return states.get(guildId);
+  }
+
+  /**
+   * Releases the state of a guild, e.g. because the bot left it.
+   * <p>
+   * If the state is being loaded right now, it is released once it was loaded instead of being kept.
+   * </p>
+   *
+   * @param guildId
+   *     The id of the guild
+   */
+  public void release(long guildId) {
+    PendingLoad<S> pending = loading.get(guildId);
+    if (pending != null) {
+      pending.released = true;
+    }
+
+    S state = states.remove(guildId);
+    if (state != null) {
+      loader.release(guildId, state);
+    }
+  }
+
+  /**
+   * Returns the number of guilds whose state is kept.
+   *
+   * @return The number of guilds
+   */
+  public int size() {
+    return states.size();
+  }
+
+  /**
+   * Returns the total weight of all kept states.
+   *
+   * @return The total weight
+   */
+  public long getWeight() {
+    return states.getWeight();
+  }
+
+  /**
+   * Returns how often a state was requested and already kept.
+   *
+   * @return The number of hits
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * Returns how often a state was loaded.
+   *
+   * @return The number of loads
+   */
+  public long getLoads() {
+    return loads.sum();
+  }
+
+  /**
+   * Returns how often a state was released because a limit was exceeded.
+   *
+   * @return The number of evictions
+   */
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  private static <S> S await(CompletableFuture<S> load) {
+    try {
+      return load.join();
+    } catch (CompletionException e) {
+      throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+    }
+  }
+
+  private static final class PendingLoad<S> extends CompletableFuture<S> {
+
+    volatile boolean released;
+  }
+}
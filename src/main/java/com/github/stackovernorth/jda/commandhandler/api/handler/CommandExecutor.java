@@ -0,0 +1,217 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.handler;
+
+import com.github.stackovernorth.jda.commandhandler.api.command.CommandPriority;
+import com.github.stackovernorth.jda.commandhandler.api.command.RejectionReason;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs matched commands either directly on the event thread of JDA or hands them off to an {@link ExecutorService}.
+ * <p>
+ * The number of commands waiting for or running on the executor can be bounded. Once the bound is reached or the
+ * executor refuses a command, the configured {@link RejectionPolicy} applies. Additionally the concurrency limit of
+ * each command is enforced here.
+ * </p>
+ * <p>
+ * Commands handed off to the executor are ordered by their {@link CommandPriority}, so a pool created by the handler
+ * starts commands of higher priority first. If an {@link OverloadController} is set, it measures how long commands
+ * wait for a thread and decides which priorities are shed.
+ * </p>
+ */
+final class CommandExecutor {
+
+  private final ExecutorService executorService;
+  private final Semaphore pending;
+  private final RejectionPolicy rejectionPolicy;
+  private final boolean ownsExecutor;
+  private final OverloadController overloadController;
+  private final AtomicLong sequence = new AtomicLong();
+
+  /**
+   * Creates a new executor.
+   *
+   * @param executorService
+   *     The executor the commands are handed off to or <code>null</code> to run them on the calling thread
+   * @param maxPending
+   *     The maximum number of commands waiting for or running on the executor, <code>0</code> for no limit
+   * @param rejectionPolicy
+   *     What to do with commands which cannot be handed off
+   * @param ownsExecutor
+   *     Whether the executor service should be shut down together with this executor
+   * @param overloadController
+   *     The controller shedding commands of low priority or <code>null</code> to never shed commands
+   */
+  CommandExecutor(ExecutorService executorService, int maxPending, RejectionPolicy rejectionPolicy,
+      boolean ownsExecutor, OverloadController overloadController) {
+    this.executorService = executorService;
+    this.pending = maxPending > 0 ? new Semaphore(maxPending) : null;
+    this.rejectionPolicy = rejectionPolicy;
+    this.ownsExecutor = ownsExecutor;
+    this.overloadController = overloadController;
+  }
+
+  /**
+   * Decides whether the command may be executed at all, given the current load of the executor.
+   *
+   * @param command
+   *     The command which is invoked
+   *
+   * @return <code>true</code> if the command may be executed, <code>false</code> if it is shed
+   */
+  boolean admit(RegisteredCommand command) {
+    return overloadController == null || overloadController.admit(command.command.getPriority());
+  }
+
+  /**
+   * Executes an invocation of the given command.
+   *
+   * @param command
+   *     The command which is invoked
+   * @param invocation
+   *     The actual invocation of the listener of the command
+   *
+   * @return The reason why the invocation was dropped or <code>null</code> if it was run or handed off
+   */
+  RejectionReason execute(RegisteredCommand command, Runnable invocation) {
+    if (!command.tryAcquire()) {
+      return RejectionReason.CONCURRENCY;
+    }
+
+    if (executorService == null) {
+      try {
+        invocation.run();
+      } finally {
+        command.release();
+      }
+
+      return null;
+    }
+
+    if (pending != null && !pending.tryAcquire()) {
+      return reject(command, invocation);
+    }
+
+    try {
+      executorService.execute(new Task(command, invocation, sequence.getAndIncrement()));
+    } catch (RejectedExecutionException e) {
+      if (pending != null) {
+        pending.release();
+      }
+
+      return reject(command, invocation);
+    }
+
+    return null;
+  }
+
+  /**
+   * Shuts down the executor service if it was created by the handler.
+   */
+  void shutdown() {
+    if (ownsExecutor && executorService != null) {
+      executorService.shutdown();
+    }
+  }
+
+  /**
+   * Returns how many commands were shed so far.
+   *
+   * @return A {@link Map} of the number of shed commands by priority, empty if commands are never shed
+   */
+  Map<CommandPriority, Long> getShed() {
+    return overloadController == null ? Collections.emptyMap() : overloadController.getShed();
+  }
+
+  private RejectionReason reject(RegisteredCommand command, Runnable invocation) {
+    if (rejectionPolicy != RejectionPolicy.CALLER_RUNS) {
+      command.release();
+      return RejectionReason.EXECUTOR;
+    }
+
+    try {
+      invocation.run();
+    } finally {
+      command.release();
+    }
+
+    return null;
+  }
+
+  /**
+   * A command handed off to the executor, ordered by its priority and then by the order in which it was handed off.
+   */
+  private final class Task implements Runnable, Comparable<Task> {
+
+    private final RegisteredCommand command;
+    private final Runnable invocation;
+    private final int priority;
+    private final long sequence;
+    private final long handedOffAt;
+
+    private Task(RegisteredCommand command, Runnable invocation, long sequence) {
+      this.command = command;
+      this.invocation = invocation;
+      this.priority = command.command.getPriority().ordinal();
+      this.sequence = sequence;
+      this.handedOffAt = overloadController == null ? 0 : System.nanoTime();
+    }
+
+    @Override
+    public void run() {
+      if (overloadController != null) {
+        long now = System.nanoTime();
+        overloadController.recordWait(now - handedOffAt, now);
+      }
+
+      try {
+        invocation.run();
+      } catch (RuntimeException | Error e) {
+        // Report the failure without killing the worker thread.
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+      } finally {
+        command.release();
+        if (pending != null) {
+          pending.release();
+        }
+      }
+    }
+
+    @Override
+    public int compareTo(Task other) {
+      if (priority != other.priority) {
+        return other.priority - priority;
+      }
+
+      return Long.compare(sequence, other.sequence);
+    }
+  }
+}
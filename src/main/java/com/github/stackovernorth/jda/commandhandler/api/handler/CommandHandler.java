@@ -25,16 +25,84 @@
 package com.github.stackovernorth.jda.commandhandler.api.handler;
 
 import com.github.stackovernorth.jda.commandhandler.api.command.Command;
+import com.github.stackovernorth.jda.commandhandler.api.command.CommandBuilder;
+import com.github.stackovernorth.jda.commandhandler.api.command.CommandPriority;
+import com.github.stackovernorth.jda.commandhandler.api.config.GuildConfigStore;
+import com.github.stackovernorth.jda.commandhandler.api.metrics.DispatchMetrics;
+import com.github.stackovernorth.jda.commandhandler.api.metrics.MetricsExporter;
+import com.github.stackovernorth.jda.commandhandler.api.metrics.MetricsSnapshot;
+import com.github.stackovernorth.jda.commandhandler.api.state.StateBackend;
 import com.github.stackovernorth.jda.commandhandler.listener.CommandListener;
+import com.github.stackovernorth.jda.commandhandler.listener.SuggestionListener;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.sharding.ShardManager;
 
 public class CommandHandler {
 
   private CommandHandlerBuilder commandHandlerBuilder;
+  private final CommandExecutor commandExecutor;
+  private final DispatchMetrics dispatchMetrics;
+  private final ScheduledExecutorService metricsScheduler;
+  private final ReplyQueue replyQueue;
+  private final CommandHandlerListener commandHandlerListener;
+  private final Set<Long> configuredPrefixGuilds = ConcurrentHashMap.newKeySet();
 
   CommandHandler(CommandHandlerBuilder commandHandlerBuilder) {
     this.commandHandlerBuilder = commandHandlerBuilder;
-    commandHandlerBuilder.jdaObject
-        .addEventListener(new CommandHandlerListener(commandHandlerBuilder));
+    this.commandExecutor = new CommandExecutor(commandHandlerBuilder.executorService, commandHandlerBuilder.maxPending,
+        commandHandlerBuilder.rejectionPolicy, commandHandlerBuilder.ownsExecutor, createOverloadController());
+
+    if (commandHandlerBuilder.metricsEnabled) {
+      this.dispatchMetrics = new DispatchMetrics();
+      commandHandlerBuilder.commandRegistry.enableMetrics();
+    } else {
+      this.dispatchMetrics = null;
+    }
+
+    this.metricsScheduler = commandHandlerBuilder.metricsExporters.isEmpty() ? null : scheduleExports();
+    this.replyQueue = new ReplyQueue(commandHandlerBuilder.maxPendingReplies);
+    String helpName = commandHandlerBuilder.helpName;
+    if (helpName != null) {
+      HelpCommand helpCommand = new HelpCommand(helpName, commandHandlerBuilder.helpCommandsPerPage,
+          commandHandlerBuilder.commandRegistry, commandHandlerBuilder.prefixMatcher, replyQueue);
+      addCommand(new CommandBuilder(helpName, helpCommand).setDescription("Lists the commands you can use").build());
+    }
+
+    GuildConfigStore configStore = commandHandlerBuilder.configStore;
+    if (configStore != null) {
+      // Prefixes are needed before any message is matched, so only they are applied before the guilds use commands.
+      configStore.addListener((guildId, guildConfig) -> applyPrefixes(guildId, guildConfig.getPrefixes()));
+      configStore.getPrefixIndex().forEach(this::applyPrefixes);
+      configStore.watch();
+    }
+
+    this.commandHandlerListener = new CommandHandlerListener(commandHandlerBuilder, commandExecutor, dispatchMetrics,
+        replyQueue, createSuggester());
+
+    // All shards share the same listener, thus the same registry and prefixes. Each message only reads the current
+    // snapshot of the registry, so nothing is locked while dispatching.
+    if (commandHandlerBuilder.shardManager != null) {
+      commandHandlerBuilder.shardManager.addEventListener(commandHandlerListener);
+    } else {
+      commandHandlerBuilder.jdaObjects.forEach(jda -> jda.addEventListener(commandHandlerListener));
+    }
+
+    if (commandHandlerBuilder.slashCommandsEnabled) {
+      syncSlashCommands().exceptionally(error -> {
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, error);
+        return null;
+      });
+    }
   }
 
   /**
@@ -45,8 +113,314 @@ public class CommandHandler {
    *
    * @param commandClass
    *     A class implementing {@link CommandListener} which handles the command
+   *
+   * @throws IllegalArgumentException
+   *     If the name or one of the aliases of the command is already taken by another command
    */
   public void addCommand(Command commandClass) {
-    this.commandHandlerBuilder.commandList.add(commandClass);
+    this.commandHandlerBuilder.commandRegistry.register(commandClass);
+  }
+
+  /**
+   * Removes a previously added command.
+   * <p>
+   * Once removed, neither the name nor any alias of the command will trigger it anymore.
+   * </p>
+   *
+   * @param commandClass
+   *     The command which should be removed
+   *
+   * @return <code>true</code> if the command was added before, otherwise <code>false</code>
+   */
+  public boolean removeCommand(Command commandClass) {
+    return this.commandHandlerBuilder.commandRegistry.unregister(commandClass);
+  }
+
+  /**
+   * Removes the command which is registered under the given name or alias.
+   *
+   * @param nameOrAlias
+   *     The name or one of the aliases of the command (without the prefix)
+   *
+   * @return The removed command or <code>null</code> if there was no such command
+   */
+  public Command removeCommand(String nameOrAlias) {
+    return this.commandHandlerBuilder.commandRegistry.unregister(nameOrAlias);
+  }
+
+  /**
+   * Sets custom prefixes for a single guild.
+   * <p>
+   * The custom prefixes replace the prefixes set via {@link CommandHandlerBuilder#setPrefix(String)} within this
+   * guild. Mentioning the bot still works if enabled.
+   * </p>
+   *
+   * @param guildId
+   *     The id of the guild
+   * @param prefixes
+   *     One or more prefixes which should be used in this guild
+   *
+   * @throws IllegalArgumentException
+   *     If no prefix or an empty prefix is provided
+   */
+  public void setGuildPrefix(long guildId, String... prefixes) {
+    this.commandHandlerBuilder.prefixMatcher.setGuildPrefixes(guildId, prefixes);
+  }
+
+  /**
+   * Removes the custom prefixes of a guild, so the general prefixes apply again.
+   *
+   * @param guildId
+   *     The id of the guild
+   */
+  public void resetGuildPrefix(long guildId) {
+    this.commandHandlerBuilder.prefixMatcher.resetGuildPrefixes(guildId);
+  }
+
+  /**
+   * Returns all prefixes which can be used within a guild (excluding the mention of the bot).
+   *
+   * @param guildId
+   *     The id of the guild
+   *
+   * @return A {@link List} of prefixes
+   */
+  public List<String> getPrefixes(long guildId) {
+    return this.commandHandlerBuilder.prefixMatcher.getPrefixes(guildId);
+  }
+
+  /**
+   * Defines whether all messages sent in a guild are ignored.
+   *
+   * @param guildId
+   *     The id of the guild
+   * @param ignored
+   *     Either <code>true</code> to ignore the guild or <code>false</code> to handle its messages again
+   */
+  public void setGuildIgnored(long guildId, boolean ignored) {
+    this.commandHandlerBuilder.messageFilter.setGuildIgnored(guildId, ignored);
+  }
+
+  /**
+   * Defines whether all messages sent in a channel are ignored.
+   *
+   * @param channelId
+   *     The id of the channel
+   * @param ignored
+   *     Either <code>true</code> to ignore the channel or <code>false</code> to handle its messages again
+   */
+  public void setChannelIgnored(long channelId, boolean ignored) {
+    this.commandHandlerBuilder.messageFilter.setChannelIgnored(channelId, ignored);
+  }
+
+  /**
+   * Defines whether all messages sent by a user are ignored.
+   *
+   * @param userId
+   *     The id of the user
+   * @param ignored
+   *     Either <code>true</code> to ignore the user or <code>false</code> to handle their messages again
+   */
+  public void setUserIgnored(long userId, boolean ignored) {
+    this.commandHandlerBuilder.messageFilter.setUserIgnored(userId, ignored);
+  }
+
+  /**
+   * Returns how many messages were dropped before looking for a command, by the reason why they were dropped.
+   * <p>
+   * Unlike the metrics of the commands, these are always counted.
+   * </p>
+   *
+   * @return A {@link Map} of the number of dropped messages by {@link FilterReason}
+   */
+  public Map<FilterReason, Long> getFilteredMessages() {
+    return this.commandHandlerBuilder.messageFilter.getFiltered();
+  }
+
+  /**
+   * Stops handling commands.
+   * <p>
+   * This removes the listener from your {@link JDA} objects or {@link ShardManager} and shuts down the executor of the
+   * handler if it was created by {@link CommandHandlerBuilder}. Commands which are already running will still
+   * complete.
+   * </p>
+   */
+  public void shutdown() {
+    if (commandHandlerBuilder.shardManager != null) {
+      commandHandlerBuilder.shardManager.removeEventListener(commandHandlerListener);
+    } else {
+      commandHandlerBuilder.jdaObjects.forEach(jda -> jda.removeEventListener(commandHandlerListener));
+    }
+
+    commandExecutor.shutdown();
+    if (metricsScheduler != null) {
+      metricsScheduler.shutdown();
+    }
+
+    if (commandHandlerBuilder.configStore != null) {
+      commandHandlerBuilder.configStore.close();
+    }
+
+    if (commandHandlerBuilder.sharedState != null) {
+      commandHandlerBuilder.sharedState.close();
+    }
+  }
+
+  /**
+   * Returns how many commands were dropped because the handler was overloaded, by their priority.
+   * <p>
+   * Note that this is empty unless load shedding was enabled via {@link CommandHandlerBuilder#enableLoadShedding()}.
+   * </p>
+   *
+   * @return A {@link Map} of the number of shed commands by {@link CommandPriority}
+   */
+  public Map<CommandPriority, Long> getShedCommands() {
+    return commandExecutor.getShed();
+  }
+
+  /**
+   * Returns the backend sharing state with the other processes of the bot.
+   * <p>
+   * Listeners can use it to keep their own counters, e.g. <code>getStateBackend().execute(new
+   * StateBatch().increment("uses:" + userId))</code>.
+   * </p>
+   *
+   * @return The {@link StateBackend} or <code>null</code> if none was set via {@link
+   *     CommandHandlerBuilder#setStateBackend(StateBackend)}
+   */
+  public StateBackend getStateBackend() {
+    return commandHandlerBuilder.sharedState == null ? null : commandHandlerBuilder.sharedState.backend;
+  }
+
+  /**
+   * Returns the store of the configuration of every guild.
+   * <p>
+   * Use it to change the configuration of a guild from within your bot, e.g. <code>getConfigStore().update(guildId,
+   * properties -&gt; properties.setProperty("command.ping.enabled", "false"))</code>.
+   * </p>
+   *
+   * @return The {@link GuildConfigStore} or <code>null</code> if no configuration directory was set
+   */
+  public GuildConfigStore getConfigStore() {
+    return commandHandlerBuilder.configStore;
+  }
+
+  /**
+   * Returns the queue which sends replies with at most one request per channel at a time.
+   * <p>
+   * Use it within your listeners instead of sending messages directly, e.g. <code>replyQueue.reply(channel,
+   * "Pong!")</code>, to avoid running into rate limits during bursts.
+   * </p>
+   *
+   * @return The {@link ReplyQueue} of the handler
+   */
+  public ReplyQueue getReplyQueue() {
+    return replyQueue;
+  }
+
+  /**
+   * Synchronizes the slash commands registered to Discord with the commands of this handler.
+   * <p>
+   * All commands with a {@link com.github.stackovernorth.jda.commandhandler.listener.SlashCommandListener} are
+   * registered as global slash commands. Only new or changed slash commands are uploaded, and slash commands which are
+   * no longer registered are deleted. Note that slash commands are global, so this is done once for all shards.
+   * </p>
+   *
+   * @return A {@link CompletableFuture} completed with the number of slash commands created, updated or deleted
+   */
+  public CompletableFuture<Integer> syncSlashCommands() {
+    List<JDA> shards = commandHandlerBuilder.shardManager != null ? commandHandlerBuilder.shardManager.getShards()
+        : commandHandlerBuilder.jdaObjects;
+    if (shards.isEmpty()) {
+      CompletableFuture<Integer> failed = new CompletableFuture<>();
+      failed.completeExceptionally(new IllegalStateException("No shard has been started yet!"));
+      return failed;
+    }
+
+    return SlashCommandSync.sync(shards.get(0), commandHandlerBuilder.commandRegistry);
+  }
+
+  /**
+   * Returns the current metrics of all commands.
+   * <p>
+   * Note that metrics need to be enabled via {@link CommandHandlerBuilder#enableMetrics()}, otherwise the snapshot is
+   * always empty.
+   * </p>
+   *
+   * @return A new {@link MetricsSnapshot}
+   */
+  public MetricsSnapshot getMetrics() {
+    if (dispatchMetrics == null) {
+      return new MetricsSnapshot(System.currentTimeMillis(), 0, 0, Collections.emptyMap());
+    }
+
+    return new MetricsSnapshot(System.currentTimeMillis(), dispatchMetrics.getMessages(),
+        dispatchMetrics.getUnknownCommands(), commandHandlerBuilder.commandRegistry.snapshotMetrics());
+  }
+
+  private OverloadController createOverloadController() {
+    if (!commandHandlerBuilder.loadSheddingEnabled) {
+      return null;
+    }
+
+    return new OverloadController(commandHandlerBuilder.sheddingTargetMillis,
+        commandHandlerBuilder.sheddingIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  private CommandSuggester createSuggester() {
+    if (!commandHandlerBuilder.suggestionsEnabled) {
+      return null;
+    }
+
+    SuggestionListener suggestionListener = commandHandlerBuilder.suggestionListener;
+    if (suggestionListener == null) {
+      suggestionListener = (sender, channel, prefix, unknownName, suggestion) -> replyQueue.reply(channel,
+          "Unknown command `" + unknownName + "`, did you mean `" + prefix + suggestion.getCommandName() + "`?");
+    }
+
+    return new CommandSuggester(suggestionListener, commandHandlerBuilder.suggestionMaxDistance,
+        commandHandlerBuilder.suggestionLookupsPerMinute);
+  }
+
+  private void applyPrefixes(long guildId, List<String> prefixes) {
+    // Guilds whose prefixes were set by their configuration get the global prefixes back once it no longer sets any.
+    if (prefixes != null) {
+      configuredPrefixGuilds.add(guildId);
+      commandHandlerBuilder.prefixMatcher.setGuildPrefixes(guildId, prefixes.toArray(new String[0]));
+    } else if (configuredPrefixGuilds.remove(guildId)) {
+      commandHandlerBuilder.prefixMatcher.resetGuildPrefixes(guildId);
+    }
+  }
+
+  private ScheduledExecutorService scheduleExports() {
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "CommandHandler-Metrics");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    long interval = commandHandlerBuilder.exportIntervalMillis;
+    scheduler.scheduleAtFixedRate(() -> {
+      MetricsSnapshot snapshot = getMetrics();
+      for (MetricsExporter exporter : commandHandlerBuilder.metricsExporters) {
+        try {
+          exporter.export(snapshot);
+        } catch (RuntimeException e) {
+          // A failing exporter must neither stop the others nor cancel further exports.
+          Thread thread = Thread.currentThread();
+          thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+      }
+    }, interval, interval, TimeUnit.MILLISECONDS);
+    return scheduler;
+  }
+
+  /**
+   * Returns the registry holding all commands of this handler.
+   *
+   * @return The {@link CommandRegistry} of this handler
+   */
+  public CommandRegistry getCommandRegistry() {
+    return this.commandHandlerBuilder.commandRegistry;
   }
 }
@@ -24,10 +24,35 @@
 
 package com.github.stackovernorth.jda.commandhandler.api.handler;
 
+import com.github.stackovernorth.jda.commandhandler.api.annotation.CommandIndex;
 import com.github.stackovernorth.jda.commandhandler.api.command.Command;
+import com.github.stackovernorth.jda.commandhandler.api.command.CommandPriority;
+import com.github.stackovernorth.jda.commandhandler.api.config.GuildConfig;
+import com.github.stackovernorth.jda.commandhandler.api.config.GuildConfigStore;
+import com.github.stackovernorth.jda.commandhandler.api.guild.GuildStates;
+import com.github.stackovernorth.jda.commandhandler.api.interceptor.CommandInterceptor;
+import com.github.stackovernorth.jda.commandhandler.api.metrics.MetricsExporter;
+import com.github.stackovernorth.jda.commandhandler.api.state.RemoteStateBackend;
+import com.github.stackovernorth.jda.commandhandler.api.state.StateBackend;
 import com.github.stackovernorth.jda.commandhandler.listener.CommandListener;
+import com.github.stackovernorth.jda.commandhandler.listener.SuggestionListener;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.sharding.ShardManager;
 
 /**
  * This class is used to initialize the command handler.
@@ -35,12 +60,41 @@ import net.dv8tion.jda.api.JDA;
  * This class only needs to be used once to construct a new instance of the command handler. In this class you can
  * configure the prefix and add custom commands.
  * </p>
+ * <p>
+ * A single handler can serve all shards of a bot, either via a {@link ShardManager} or a collection of {@link JDA}
+ * objects. All shards share the same commands and configuration, so adding or removing a command takes effect on
+ * every shard at once.
+ * </p>
  */
 public class CommandHandlerBuilder {
 
-  protected ArrayList<Command> commandList = new ArrayList<>();
-  JDA jdaObject;
-  String prefix;
+  final CommandRegistry commandRegistry = new CommandRegistry();
+  final List<JDA> jdaObjects;
+  final ShardManager shardManager;
+  final PrefixMatcher prefixMatcher = new PrefixMatcher();
+  final MessageFilter messageFilter = new MessageFilter();
+  ExecutorService executorService;
+  boolean ownsExecutor;
+  int maxPending;
+  RejectionPolicy rejectionPolicy = RejectionPolicy.DISCARD;
+  boolean metricsEnabled;
+  final List<MetricsExporter> metricsExporters = new ArrayList<>();
+  long exportIntervalMillis;
+  boolean slashCommandsEnabled;
+  boolean suggestionsEnabled;
+  SuggestionListener suggestionListener;
+  int suggestionMaxDistance = CommandSuggester.DEFAULT_MAX_DISTANCE;
+  int suggestionLookupsPerMinute = CommandSuggester.DEFAULT_LOOKUPS_PER_MINUTE;
+  String helpName;
+  int helpCommandsPerPage = HelpCommand.DEFAULT_COMMANDS_PER_PAGE;
+  GuildConfigStore configStore;
+  GuildStates<?> guildStates;
+  boolean loadSheddingEnabled;
+  MessageDeduplicator messageDeduplicator;
+  SharedState sharedState;
+  long sheddingTargetMillis = OverloadController.DEFAULT_TARGET_MILLIS;
+  long sheddingIntervalMillis = OverloadController.DEFAULT_INTERVAL_MILLIS;
+  int maxPendingReplies = 20;
 
   /**
    * Starts the building process of the command handler.
@@ -56,7 +110,48 @@ public class CommandHandlerBuilder {
       throw new IllegalArgumentException("Your JDA object must not be null");
     }
 
-    this.jdaObject = jdaObject;
+    this.jdaObjects = Collections.singletonList(jdaObject);
+    this.shardManager = null;
+  }
+
+  /**
+   * Starts the building process of a command handler serving all shards of a {@link ShardManager}.
+   * <p>
+   * The handler is registered to the shard manager itself, so shards which are started or restarted later are served
+   * as well.
+   * </p>
+   *
+   * @param shardManager
+   *     Your {@link ShardManager} which is mandatory for the handler to work
+   *
+   * @throws IllegalArgumentException
+   *     If your provided shard manager is null
+   */
+  public CommandHandlerBuilder(ShardManager shardManager) {
+    if (shardManager == null) {
+      throw new IllegalArgumentException("Your ShardManager must not be null");
+    }
+
+    this.jdaObjects = Collections.emptyList();
+    this.shardManager = shardManager;
+  }
+
+  /**
+   * Starts the building process of a command handler serving several {@link JDA} objects, e.g. all shards of a bot.
+   *
+   * @param jdaObjects
+   *     Your {@link JDA} objects of which at least one is mandatory for the handler to work
+   *
+   * @throws IllegalArgumentException
+   *     If no JDA object is provided or one of them is null
+   */
+  public CommandHandlerBuilder(Collection<JDA> jdaObjects) {
+    if (jdaObjects == null || jdaObjects.isEmpty() || jdaObjects.contains(null)) {
+      throw new IllegalArgumentException("Your JDA objects must neither be empty nor contain null");
+    }
+
+    this.jdaObjects = Collections.unmodifiableList(new ArrayList<>(jdaObjects));
+    this.shardManager = null;
   }
 
   /**
@@ -67,13 +162,148 @@ public class CommandHandlerBuilder {
    * in order to execute the command's class.
    * </p>
    *
+   * <p>
+   * Note that this replaces all prefixes previously added via {@link #addPrefix(String)}.
+   * </p>
+   *
    * @param prefix
    *     A String which will be used as general prefix for the commands
    *
    * @return <code>this</code> for chaining
+   *
+   * @throws IllegalArgumentException
+   *     If the prefix is <code>null</code> or empty
    */
   public CommandHandlerBuilder setPrefix(String prefix) {
-    this.prefix = prefix;
+    prefixMatcher.clearGlobalPrefixes();
+    prefixMatcher.addGlobalPrefix(prefix);
+
+    return this;
+  }
+
+  /**
+   * Adds another prefix which can be used in combination with the command (name).
+   * <p>
+   * If multiple prefixes match the start of a message, the longest one is used. E.g. having the prefixes
+   * <code>!</code> and <code>!!</code>, the message <code>!!help</code> will execute <code>help</code>.
+   * </p>
+   *
+   * @param prefix
+   *     A String which will be used as additional general prefix for the commands
+   *
+   * @return <code>this</code> for chaining
+   *
+   * @throws IllegalArgumentException
+   *     If the prefix is <code>null</code> or empty
+   */
+  public CommandHandlerBuilder addPrefix(String prefix) {
+    prefixMatcher.addGlobalPrefix(prefix);
+
+    return this;
+  }
+
+  /**
+   * Defines whether mentioning the bot can be used as prefix.
+   * <p>
+   * If enabled, <code>@YourBot help</code> will execute <code>help</code> in every guild, regardless of the prefixes
+   * set for the guild. By default this is disabled.
+   * </p>
+   *
+   * @param mentionPrefix
+   *     Either <code>true</code> so that the mention of the bot can be used as prefix or <code>false</code> if not
+   *
+   * @return <code>this</code> for chaining
+   */
+  public CommandHandlerBuilder allowMentionPrefix(boolean mentionPrefix) {
+    prefixMatcher.setMentionPrefix(mentionPrefix);
+
+    return this;
+  }
+
+  /**
+   * Ignores all messages sent in a guild.
+   * <p>
+   * Messages of ignored guilds, channels or users are dropped before their content is looked at. Use {@link
+   * CommandHandler#setGuildIgnored(long, boolean)} to change this later on.
+   * </p>
+   *
+   * @param guildId
+   *     The id of the guild
+   *
+   * @return <code>this</code> for chaining
+   */
+  public CommandHandlerBuilder ignoreGuild(long guildId) {
+    messageFilter.setGuildIgnored(guildId, true);
+
+    return this;
+  }
+
+  /**
+   * Ignores all messages sent in a channel.
+   *
+   * @param channelId
+   *     The id of the channel
+   *
+   * @return <code>this</code> for chaining
+   */
+  public CommandHandlerBuilder ignoreChannel(long channelId) {
+    messageFilter.setChannelIgnored(channelId, true);
+
+    return this;
+  }
+
+  /**
+   * Ignores all messages sent by a user.
+   *
+   * @param userId
+   *     The id of the user
+   *
+   * @return <code>this</code> for chaining
+   */
+  public CommandHandlerBuilder ignoreUser(long userId) {
+    messageFilter.setUserIgnored(userId, true);
+
+    return this;
+  }
+
+  /**
+   * Reads the configuration of every guild from a directory and applies changes to it while the bot is running.
+   * <p>
+   * Every guild can have a properties file named after its id, e.g. <code>123456789.properties</code>, which overrides
+   * its prefixes and enables, disables or changes the channels, permissions and cooldowns of single commands. See
+   * {@link GuildConfig} for the format. A file is read in the background once the guild becomes available, and read
+   * again whenever it changes. The configurations of the {@value GuildConfigStore#DEFAULT_MAX_GUILDS} most recently
+   * loaded guilds are kept.
+   * </p>
+   *
+   * @param directory
+   *     The directory containing the files, which is created if it does not exist yet
+   *
+   * @return <code>this</code> for chaining
+   *
+   * @throws java.io.UncheckedIOException
+   *     If the directory cannot be created
+   */
+  public CommandHandlerBuilder setConfigDirectory(Path directory) {
+    this.configStore = new GuildConfigStore(directory);
+
+    return this;
+  }
+
+  /**
+   * Loads the state of a guild before any of its commands is executed and releases it once the bot leaves the guild.
+   * <p>
+   * Only the states of guilds which recently used commands are kept, see {@link GuildStates}. Listeners retrieve the
+   * state of their guild via {@link GuildStates#get(long)}, which is already loaded at that point.
+   * </p>
+   *
+   * @param guildStates
+   *     The states of all guilds
+   *
+   * @return <code>this</code> for chaining
+   */
+  public CommandHandlerBuilder setGuildStates(GuildStates<?> guildStates) {
+    this.guildStates = guildStates;
 
     return this;
   }
@@ -85,9 +315,528 @@ public class CommandHandlerBuilder {
    *     The listener class which handles the output of the command and implements {@link CommandListener}
    *
    * @return <code>this</code> for chaining
+   *
+   * @throws IllegalArgumentException
+   *     If the name or one of the aliases of the command is already taken by another command
    */
   public CommandHandlerBuilder addCommand(Command commandClass) {
-    commandList.add(commandClass);
+    commandRegistry.register(commandClass);
+
+    return this;
+  }
+
+  /**
+   * Returns all commands added so far.
+   * <p>
+   * This replaces the former <code>commandList</code> field, which subclasses could change directly. Changing the
+   * returned list does not add or remove any command.
+   * </p>
+   *
+   * @return A copy of all commands added so far
+   *
+   * @deprecated The commands are kept in a {@link CommandRegistry}, use {@link #addCommand(Command)} to add commands
+   *     and {@link CommandHandler#getCommandRegistry()} to read them
+   */
+  @Deprecated
+  protected ArrayList<Command> getCommandList() {
+    return new ArrayList<>(commandRegistry.getCommands());
+  }
+
+  /**
+   * Adds all commands of a generated {@link CommandIndex}.
+   * <p>
+   * The index is generated when compiling for all classes annotated with {@link
+   * com.github.stackovernorth.jda.commandhandler.api.annotation.RegisterCommand}, e.g. <code>addCommandIndex(new
+   * GeneratedCommandIndex())</code>.
+   * </p>
+   *
+   * @param commandIndex
+   *     The index containing the commands
+   *
+   * @return <code>this</code> for chaining
+   *
+   * @throws IllegalArgumentException
+   *     If the index is <code>null</code> or the name or one of the aliases of a command is already taken
+   */
+  public CommandHandlerBuilder addCommandIndex(CommandIndex commandIndex) {
+    if (commandIndex == null) {
+      throw new IllegalArgumentException("The command index must not be null!");
+    }
+
+    commandIndex.getCommands().forEach(commandRegistry::register);
+
+    return this;
+  }
+
+  /**
+   * Adds the commands of all generated indexes found on the classpath.
+   * <p>
+   * Every generated {@link CommandIndex} registers itself as service, so it can be found via {@link ServiceLoader}
+   * without scanning the classpath. Use {@link #addCommandIndex(CommandIndex)} to avoid the service lookup entirely.
+   * </p>
+   *
+   * @return <code>this</code> for chaining
+   *
+   * @throws IllegalArgumentException
+   *     If the name or one of the aliases of a command is already taken
+   */
+  public CommandHandlerBuilder loadCommandIndexes() {
+    for (CommandIndex commandIndex : ServiceLoader.load(CommandIndex.class)) {
+      addCommandIndex(commandIndex);
+    }
+
+    return this;
+  }
+
+  /**
+   * Executes commands on a dedicated pool of threads instead of the event thread of JDA.
+   * <p>
+   * By default commands are executed directly on the thread which received the message, so a slow command delays all
+   * other events of JDA. Using a pool, the event thread only checks the message and hands the command off.
+   * </p>
+   * <p>
+   * Once all threads are busy and the queue is full, further commands are handled according to the {@link
+   * RejectionPolicy} set via {@link #setRejectionPolicy(RejectionPolicy)}. Waiting commands are started by their
+   * {@link CommandPriority}, highest first.
+   * </p>
+   *
+   * @param threads
+   *     The number of threads executing commands
+   * @param queueSize
+   *     The maximum number of commands waiting for a free thread
+   *
+   * @return <code>this</code> for chaining
+   *
+   * @throws IllegalArgumentException
+   *     If there is not at least one thread or the queue size is negative
+   */
+  public CommandHandlerBuilder setExecutionPool(int threads, int queueSize) {
+    if (threads < 1 || queueSize < 0) {
+      throw new IllegalArgumentException("The pool needs at least one thread and a non-negative queue size!");
+    }
+
+    AtomicInteger threadCount = new AtomicInteger();
+    ThreadFactory threadFactory = runnable -> {
+      Thread thread = new Thread(runnable, "CommandHandler-Worker-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+
+    // A queue size of 0 means commands are only accepted while a thread is idle. Otherwise the queue orders the
+    // commands by their priority and is bounded by limiting the number of pending commands instead.
+    ExecutorService pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        queueSize == 0 ? new SynchronousQueue<>() : new PriorityBlockingQueue<>(),
+        threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    return setExecutor(pool, queueSize == 0 ? 0 : threads + queueSize, true);
+  }
+
+  /**
+   * Executes every command on its own virtual thread.
+   * <p>
+   * Virtual threads are cheap enough to block on slow calls like database lookups without tying up a pool. Note that
+   * this requires Java 21 or newer.
+   * </p>
+   *
+   * @param maxPending
+   *     The maximum number of commands running at the same time or <code>0</code> for no limit
+   *
+   * @return <code>this</code> for chaining
+   *
+   * @throws IllegalStateException
+   *     If virtual threads are not supported by the running Java version
+   */
+  public CommandHandlerBuilder useVirtualThreads(int maxPending) {
+    ExecutorService virtualThreads;
+    try {
+      // Looked up reflectively, so the library can still be used on older Java versions.
+      virtualThreads = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+      throw new IllegalStateException("Virtual threads require Java 21 or newer!", e);
+    }
+
+    return setExecutor(virtualThreads, maxPending, true);
+  }
+
+  /**
+   * Executes commands on your own {@link ExecutorService}.
+   * <p>
+   * Note that the executor will not be shut down by {@link CommandHandler#shutdown()}.
+   * </p>
+   *
+   * @param executorService
+   *     The executor the commands are handed off to
+   * @param maxPending
+   *     The maximum number of commands waiting for or running on the executor or <code>0</code> for no limit
+   *
+   * @return <code>this</code> for chaining
+   *
+   * @throws IllegalArgumentException
+   *     If the executor is <code>null</code>
+   */
+  public CommandHandlerBuilder setExecutor(ExecutorService executorService, int maxPending) {
+    if (executorService == null) {
+      throw new IllegalArgumentException("The executor must not be null!");
+    }
+
+    return setExecutor(executorService, maxPending, false);
+  }
+
+  /**
+   * Defines what happens to commands the executor cannot take anymore.
+   * <p>
+   * This only has an effect if commands are not executed on the event thread of JDA. By default those commands are
+   * dropped.
+   * </p>
+   *
+   * @param rejectionPolicy
+   *     The {@link RejectionPolicy} to apply
+   *
+   * @return <code>this</code> for chaining
+   */
+  public CommandHandlerBuilder setRejectionPolicy(RejectionPolicy rejectionPolicy) {
+    this.rejectionPolicy = rejectionPolicy == null ? RejectionPolicy.DISCARD : rejectionPolicy;
+
+    return this;
+  }
+
+  /**
+   * Limits how many replies may wait to be sent to a single channel via the {@link ReplyQueue} of the handler.
+   * <p>
+   * Once a channel reached the limit, further replies to it are dropped and commands used in it are not executed until
+   * the backlog was sent. By default up to 20 replies may wait per channel.
+   * </p>
+   *
+   * @param maxPendingReplies
+   *     The maximum number of replies waiting per channel
+   *
+   * @return <code>this</code> for chaining
+   *
+   * @throws IllegalArgumentException
+   *     If the limit is not positive
+   */
+  public CommandHandlerBuilder setReplyBacklog(int maxPendingReplies) {
+    if (maxPendingReplies < 1) {
+      throw new IllegalArgumentException("The reply backlog must be positive!");
+    }
+
+    this.maxPendingReplies = maxPendingReplies;
+
+    return this;
+  }
+
+  /**
+   * Adds an interceptor which is called right before the listener of every command.
+   * <p>
+   * Interceptors can run code before and after a command, e.g. for logging or auditing, or stop it from being executed,
+   * e.g. for feature flags. Global interceptors are called in the order they were added, followed by the interceptors
+   * of the command. They are composed into a single chain per command when it is registered or an interceptor is
+   * added, so dispatching a message neither iterates over them nor creates any link of the chain.
+   * </p>
+   *
+   * @param interceptor
+   *     A class implementing {@link CommandInterceptor}
+   *
+   * @return <code>this</code> for chaining
+   *
+   * @throws IllegalArgumentException
+   *     If the interceptor is <code>null</code>
+   */
+  public CommandHandlerBuilder addInterceptor(CommandInterceptor interceptor) {
+    if (interceptor == null) {
+      throw new IllegalArgumentException("The interceptor must not be null!");
+    }
+
+    commandRegistry.addInterceptor(interceptor);
+
+    return this;
+  }
+
+  /**
+   * Shares the rate limits of commands and the deduplication of messages with all processes using the same backend.
+   * <p>
+   * Without a shared state, every process of a bot running its shards in several JVMs keeps its own limits, so users
+   * could avoid a limit by using a command in a guild of another shard. With it, the rate limit of an invocation and
+   * the deduplication of its message are checked in a single round trip, or none at all if the backend remembers that
+   * the limit was already reached. Rate limits are counted in fixed windows of their period.
+   * </p>
+   * <p>
+   * Waiting for the backend never blocks the event thread, commands are handed to the executor once it answered, so a
+   * shared state requires an executor. If the backend fails or does not answer within 500 milliseconds, the limits of
+   * the current process are used instead, and the backend is only asked again every few seconds until it answers.
+   * </p>
+   * <p>
+   * Listeners can keep further state, e.g. usage counters, in the backend via {@link CommandHandler#getStateBackend()}.
+   * The backend is not closed when the handler is shut down.
+   * </p>
+   *
+   * @param backend
+   *     The backend keeping the shared state, e.g. a {@link RemoteStateBackend}
+   *
+   * @return <code>this</code> for chaining
+   */
+  public CommandHandlerBuilder setStateBackend(StateBackend backend) {
+    return setStateBackend(backend, SharedState.DEFAULT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Shares the rate limits of commands and the deduplication of messages with all processes using the same backend,
+   * with a custom timeout.
+   *
+   * @param backend
+   *     The backend keeping the shared state, e.g. a {@link RemoteStateBackend}
+   * @param timeout
+   *     How long to wait for the backend before the limits of the current process are used instead
+   * @param unit
+   *     The {@link TimeUnit} of the timeout
+   *
+   * @return <code>this</code> for chaining
+   *
+   * @throws IllegalArgumentException
+   *     If the backend is <code>null</code> or the timeout is not positive
+   */
+  public CommandHandlerBuilder setStateBackend(StateBackend backend, long timeout, TimeUnit unit) {
+    if (backend == null || timeout < 1) {
+      throw new IllegalArgumentException("The backend must not be null and the timeout must be positive!");
+    }
+
+    if (this.sharedState != null) {
+      this.sharedState.close();
+    }
+
+    this.sharedState = new SharedState(backend, timeout, unit);
+
+    return this;
+  }
+
+  /**
+   * Executes commands again once their message was edited.
+   * <p>
+   * This lets users fix a typo by editing their message instead of sending it again. A message executes at most one
+   * command per distinct content, so edits which do not change the content and events which JDA replays after
+   * resuming a session are ignored. Only messages sent within the last 5 minutes are executed again, and at most
+   * 10,000 of them are remembered.
+   * </p>
+   *
+   * @return <code>this</code> for chaining
+   */
+  public CommandHandlerBuilder enableEditDispatch() {
+    return enableEditDispatch(MessageDeduplicator.DEFAULT_WINDOW_MINUTES, TimeUnit.MINUTES,
+        MessageDeduplicator.DEFAULT_MAX_MESSAGES);
+  }
+
+  /**
+   * Executes commands again once their message was edited, with a custom window.
+   *
+   * @param window
+   *     How long after sending a message editing it executes its command again
+   * @param unit
+   *     The {@link TimeUnit} of the window
+   * @param maxMessages
+   *     The maximum number of messages remembered
+   *
+   * @return <code>this</code> for chaining
+   *
+   * @throws IllegalArgumentException
+   *     If the window or the number of messages is not positive
+   */
+  public CommandHandlerBuilder enableEditDispatch(long window, TimeUnit unit, int maxMessages) {
+    if (window < 1 || maxMessages < 1) {
+      throw new IllegalArgumentException("The window and the number of messages must be positive!");
+    }
+
+    this.messageDeduplicator = new MessageDeduplicator(window, unit, maxMessages);
+
+    return this;
+  }
+
+  /**
+   * Drops commands of low priority once commands wait too long for a thread of the executor.
+   * <p>
+   * If even the shortest wait within 100 milliseconds exceeds 5 milliseconds, the executor cannot keep up anymore.
+   * Commands of the lowest priority are dropped until it can, and if that is not enough, commands of the next higher
+   * priority as well. Commands with {@link CommandPriority#CRITICAL} are never dropped. Use {@link
+   * CommandHandler#getShedCommands()} to see how many commands were dropped.
+   * </p>
+   * <p>
+   * Note that this requires an executor, e.g. set via {@link #setExecutionPool(int, int)}.
+   * </p>
+   *
+   * @return <code>this</code> for chaining
+   */
+  public CommandHandlerBuilder enableLoadShedding() {
+    this.loadSheddingEnabled = true;
+
+    return this;
+  }
+
+  /**
+   * Drops commands of low priority once commands wait too long for a thread of the executor, with a custom target.
+   *
+   * @param target
+   *     The wait which is acceptable
+   * @param interval
+   *     The time within which at least one command must have waited less than the target
+   * @param unit
+   *     The {@link TimeUnit} of the target and interval
+   *
+   * @return <code>this</code> for chaining
+   *
+   * @throws IllegalArgumentException
+   *     If the target or interval is not positive
+   */
+  public CommandHandlerBuilder enableLoadShedding(long target, long interval, TimeUnit unit) {
+    if (target < 1 || interval < 1) {
+      throw new IllegalArgumentException("The target and interval must be positive!");
+    }
+
+    this.sheddingTargetMillis = Math.max(unit.toMillis(target), 1);
+    this.sheddingIntervalMillis = Math.max(unit.toMillis(interval), 1);
+
+    return enableLoadShedding();
+  }
+
+  /**
+   * Enables recording metrics of all commands.
+   * <p>
+   * Once enabled, the handler counts how often each command was invoked or rejected (and why) and records how long it
+   * took to dispatch and execute it. The metrics can be retrieved via {@link CommandHandler#getMetrics()}. By default
+   * metrics are disabled and nothing is recorded at all.
+   * </p>
+   *
+   * @return <code>this</code> for chaining
+   */
+  public CommandHandlerBuilder enableMetrics() {
+    this.metricsEnabled = true;
+
+    return this;
+  }
+
+  /**
+   * Periodically publishes the metrics of all commands, which also enables recording metrics.
+   * <p>
+   * Note that all exporters share the same interval, so the interval set last is used.
+   * </p>
+   *
+   * @param metricsExporter
+   *     A class implementing {@link MetricsExporter} which publishes the metrics
+   * @param interval
+   *     The time between two exports
+   * @param unit
+   *     The {@link TimeUnit} of the interval
+   *
+   * @return <code>this</code> for chaining
+   *
+   * @throws IllegalArgumentException
+   *     If the exporter is <code>null</code> or the interval is not positive
+   */
+  public CommandHandlerBuilder addMetricsExporter(MetricsExporter metricsExporter, long interval, TimeUnit unit) {
+    if (metricsExporter == null || interval < 1) {
+      throw new IllegalArgumentException("The exporter must not be null and the interval must be positive!");
+    }
+
+    metricsExporters.add(metricsExporter);
+    this.exportIntervalMillis = unit.toMillis(interval);
+
+    return enableMetrics();
+  }
+
+  /**
+   * Registers all commands with a {@link com.github.stackovernorth.jda.commandhandler.listener.SlashCommandListener}
+   * as slash commands when the handler is built.
+   * <p>
+   * Only slash commands which are new or changed are uploaded to Discord, and slash commands which are no longer
+   * registered are deleted. Slash commands are handled either way, this only controls whether they are synchronized
+   * automatically. Use {@link CommandHandler#syncSlashCommands()} to synchronize them again after adding or removing
+   * commands.
+   * </p>
+   *
+   * @return <code>this</code> for chaining
+   */
+  public CommandHandlerBuilder enableSlashCommands() {
+    this.slashCommandsEnabled = true;
+
+    return this;
+  }
+
+  /**
+   * Replies with the closest command if someone used a prefix followed by an unknown name.
+   * <p>
+   * A command is suggested if its name or one of its aliases is at most 2 edits away from the unknown name. To keep a
+   * flood of unknown names from wasting CPU time, at most 120 unknown names per minute are looked up.
+   * </p>
+   *
+   * @return <code>this</code> for chaining
+   */
+  public CommandHandlerBuilder enableSuggestions() {
+    this.suggestionsEnabled = true;
+
+    return this;
+  }
+
+  /**
+   * Passes the closest command to your own listener if someone used a prefix followed by an unknown name.
+   *
+   * @param suggestionListener
+   *     A class implementing {@link SuggestionListener} which handles the suggestion
+   * @param maxDistance
+   *     The maximum number of insertions, deletions and substitutions between the unknown name and the name or an alias
+   *     of the suggested command
+   * @param lookupsPerMinute
+   *     The maximum number of unknown names looked up per minute, across all guilds
+   *
+   * @return <code>this</code> for chaining
+   *
+   * @throws IllegalArgumentException
+   *     If the listener is <code>null</code> or the distance or number of lookups is not positive
+   */
+  public CommandHandlerBuilder enableSuggestions(SuggestionListener suggestionListener, int maxDistance,
+      int lookupsPerMinute) {
+    if (suggestionListener == null || maxDistance < 1 || lookupsPerMinute < 1) {
+      throw new IllegalArgumentException("The listener must not be null and the limits must be positive!");
+    }
+
+    this.suggestionListener = suggestionListener;
+    this.suggestionMaxDistance = maxDistance;
+    this.suggestionLookupsPerMinute = lookupsPerMinute;
+
+    return enableSuggestions();
+  }
+
+  /**
+   * Adds a <code>help</code> command listing the commands the sender can use in the current channel.
+   * <p>
+   * The list shows the name, aliases and description of 10 commands per page, e.g. <code>!help 2</code> shows the
+   * second page and <code>!help ping</code> the details of a single command. Pages are rendered once and shared by all
+   * members with the same relevant permissions, and only pages which change are rendered again once commands are
+   * added or removed.
+   * </p>
+   *
+   * @return <code>this</code> for chaining
+   */
+  public CommandHandlerBuilder enableHelp() {
+    return enableHelp(HelpCommand.DEFAULT_NAME, HelpCommand.DEFAULT_COMMANDS_PER_PAGE);
+  }
+
+  /**
+   * Adds a help command with a custom name listing the commands the sender can use in the current channel.
+   *
+   * @param name
+   *     The name of the help command
+   * @param commandsPerPage
+   *     The maximum number of commands listed per page
+   *
+   * @return <code>this</code> for chaining
+   *
+   * @throws IllegalArgumentException
+   *     If the name is empty or the number of commands per page is not positive
+   */
+  public CommandHandlerBuilder enableHelp(String name, int commandsPerPage) {
+    if (name == null || name.isEmpty() || commandsPerPage < 1) {
+      throw new IllegalArgumentException("The name must not be empty and the commands per page must be positive!");
+    }
+
+    this.helpName = name;
+    this.helpCommandsPerPage = commandsPerPage;
 
     return this;
   }
@@ -96,8 +845,33 @@ public class CommandHandlerBuilder {
    * Ends the building process and creates a new instance of {@link CommandHandler} with all your set information.
    *
    * @return A new instance of the command handler
+   *
+   * @throws IllegalStateException
+   *     If load shedding or a shared state is enabled without an executor
+   * @throws IllegalArgumentException
+   *     If the help command is enabled and its name is already taken by another command
    */
   public CommandHandler build() {
+    if (loadSheddingEnabled && executorService == null) {
+      throw new IllegalStateException("Load shedding requires an executor!");
+    }
+
+    if (sharedState != null && executorService == null) {
+      throw new IllegalStateException("A shared state requires an executor!");
+    }
+
     return new CommandHandler(this);
   }
+
+  private CommandHandlerBuilder setExecutor(ExecutorService executorService, int maxPending, boolean ownsExecutor) {
+    if (this.ownsExecutor) {
+      this.executorService.shutdown();
+    }
+
+    this.executorService = executorService;
+    this.maxPending = Math.max(maxPending, 0);
+    this.ownsExecutor = ownsExecutor;
+
+    return this;
+  }
 }
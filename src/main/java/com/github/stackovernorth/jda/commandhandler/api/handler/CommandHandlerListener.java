@@ -24,15 +24,35 @@
 
 package com.github.stackovernorth.jda.commandhandler.api.handler;
 
+import com.github.stackovernorth.jda.commandhandler.api.argument.ArgumentParseException;
+import com.github.stackovernorth.jda.commandhandler.api.argument.CommandArguments;
+import com.github.stackovernorth.jda.commandhandler.api.argument.ParsePlan;
 import com.github.stackovernorth.jda.commandhandler.api.command.Command;
-import java.util.ArrayList;
-import java.util.Arrays;
+import com.github.stackovernorth.jda.commandhandler.api.command.RejectionReason;
+import com.github.stackovernorth.jda.commandhandler.api.config.CommandOverride;
+import com.github.stackovernorth.jda.commandhandler.api.config.GuildConfig;
+import com.github.stackovernorth.jda.commandhandler.api.config.GuildConfigStore;
+import com.github.stackovernorth.jda.commandhandler.api.guild.GuildStates;
+import com.github.stackovernorth.jda.commandhandler.api.interceptor.CommandInvocation;
+import com.github.stackovernorth.jda.commandhandler.api.interceptor.InterceptorChain;
+import com.github.stackovernorth.jda.commandhandler.api.metrics.CommandMetrics;
+import com.github.stackovernorth.jda.commandhandler.api.metrics.DispatchMetrics;
+import com.github.stackovernorth.jda.commandhandler.listener.CacheableCommandListener;
+import com.github.stackovernorth.jda.commandhandler.listener.CommandListener;
+import com.github.stackovernorth.jda.commandhandler.listener.SlashCommandListener;
+import com.github.stackovernorth.jda.commandhandler.listener.TypedCommandListener;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import javax.annotation.Nonnull;
-import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.TextChannel;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.events.interaction.SlashCommandEvent;
+import net.dv8tion.jda.api.events.message.guild.GenericGuildMessageEvent;
 import net.dv8tion.jda.api.events.message.guild.GuildMessageReceivedEvent;
+import net.dv8tion.jda.api.events.message.guild.GuildMessageUpdateEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 
 /**
@@ -40,28 +60,220 @@ import net.dv8tion.jda.api.hooks.ListenerAdapter;
  */
 class CommandHandlerListener extends ListenerAdapter {
 
+  // Rejected message commands are only recorded, nothing is sent to the channel.
+  private static final Consumer<RejectionReason> IGNORE_REJECTION = reason -> {
+  };
+
   private final CommandHandlerBuilder commandHandlerBuilder;
+  private final CommandExecutor commandExecutor;
+  private final DispatchMetrics dispatchMetrics;
+  private final ReplyQueue replyQueue;
+  private final CommandSuggester commandSuggester;
 
-  CommandHandlerListener(CommandHandlerBuilder commandHandlerBuilder) {
+  CommandHandlerListener(CommandHandlerBuilder commandHandlerBuilder, CommandExecutor commandExecutor,
+      DispatchMetrics dispatchMetrics, ReplyQueue replyQueue, CommandSuggester commandSuggester) {
     this.commandHandlerBuilder = commandHandlerBuilder;
+    this.commandExecutor = commandExecutor;
+    this.dispatchMetrics = dispatchMetrics;
+    this.replyQueue = replyQueue;
+    this.commandSuggester = commandSuggester;
   }
 
   @Override
   public void onGuildMessageReceived(@Nonnull GuildMessageReceivedEvent event) {
-    String[] args = event.getMessage().getContentRaw().split("\\s+");
-    String commandPrefix = commandHandlerBuilder.prefix;
-    if (!args[0].startsWith(commandPrefix)) {
-      // If the messages does not start with the set prefix, simply do nothing.
+    dispatch(event, event.getMessage());
+  }
+
+  @Override
+  public void onGuildMessageUpdate(@Nonnull GuildMessageUpdateEvent event) {
+    // Edited messages are dispatched like new ones, unless editing is disabled or the message is too old.
+    MessageDeduplicator deduplicator = commandHandlerBuilder.messageDeduplicator;
+    if (deduplicator != null && deduplicator.isRecent(event.getMessageIdLong())) {
+      dispatch(event, event.getMessage());
+    }
+  }
+
+  /**
+   * Looks for a command in a new or edited message and handles it if one was found.
+   *
+   * @param event
+   *     The event of the message
+   * @param message
+   *     The message which was sent or edited
+   */
+  private void dispatch(GenericGuildMessageEvent event, Message message) {
+    // Without metrics, the time is never taken.
+    long receivedAt = 0;
+    if (dispatchMetrics != null) {
+      receivedAt = System.nanoTime();
+      dispatchMetrics.recordMessage();
+    }
+
+    // Messages which cannot trigger any command are dropped by their ids first, before their content is looked at.
+    MessageFilter messageFilter = commandHandlerBuilder.messageFilter;
+    CommandRegistry commandRegistry = commandHandlerBuilder.commandRegistry;
+    long guildId = event.getGuild().getIdLong();
+    if (messageFilter.filter(guildId, event.getChannel().getIdLong(), message.getAuthor(),
+        commandRegistry.allowsBots()) != null) {
+      return;
+    }
+
+    PrefixMatcher prefixMatcher = commandHandlerBuilder.prefixMatcher;
+    if (prefixMatcher.needsSelfUserId()) {
+      prefixMatcher.setSelfUserId(event.getJDA().getSelfUser().getIdLong());
+    }
+
+    String content = message.getContentRaw();
+    if (!prefixMatcher.mayMatch(content)) {
+      messageFilter.record(FilterReason.FIRST_CHARACTER);
+      return;
+    }
+
+    int nameStart = prefixMatcher.match(guildId, content);
+    if (nameStart < 0) {
+      // If the messages does not start with any prefix, simply do nothing.
+      messageFilter.record(FilterReason.PREFIX);
       return;
     }
 
-    // If the message does start with the set prefix, we need to check whether the command was registered.
+    // If the message does start with a prefix, we need to check whether the command was registered.
+    // The name is looked up directly from the content, so nothing is copied until a command actually matches.
+    int nameEnd = MessageTokenizer.tokenEnd(content, nameStart);
+    RegisteredCommand command = commandRegistry.lookup(content, nameStart, nameEnd);
+    if (command == null) {
+      if (dispatchMetrics != null) {
+        dispatchMetrics.recordUnknownCommand();
+      }
+
+      if (commandSuggester != null) {
+        // Only commands the sender could use are suggested. The configuration is only used if it is loaded already.
+        GuildConfigStore configStore = commandHandlerBuilder.configStore;
+        GuildConfig guildConfig = configStore == null ? null : configStore.getIfLoaded(guildId);
+        Member sender = message.getMember();
+        TextChannel channel = event.getChannel();
+        commandSuggester.suggest(commandRegistry, sender, channel, content, nameStart, nameEnd,
+            registered -> checkAccess(registered, sender, channel, message.getAuthor(), guildConfig) == null);
+      }
+
+      return;
+    }
+
+    // Sub-commands are resolved by walking the following tokens once, with a single lookup per level of the tree. The
+    // deepest matching command is executed and its arguments start right after its name.
+    int argumentsStart = nameEnd;
+    while (true) {
+      int subStart = MessageTokenizer.skipWhitespace(content, argumentsStart);
+      int subEnd = MessageTokenizer.tokenEnd(content, subStart);
+      RegisteredCommand subCommand = command.subCommand(content, subStart, subEnd);
+      if (subCommand == null) {
+        break;
+      }
+
+      command = subCommand;
+      argumentsStart = subEnd;
+    }
+
+    // A message triggers at most one command per content, so replayed events and edits which did not change the
+    // content do not execute the command again.
+    MessageDeduplicator deduplicator = commandHandlerBuilder.messageDeduplicator;
+    if (deduplicator != null && !deduplicator.tryDispatch(message.getIdLong(), content)) {
+      messageFilter.record(FilterReason.DUPLICATE);
+      return;
+    }
+
+    // Other processes sharing their state may have dispatched the message as well, which is checked along with the
+    // rate limit.
+    String dedupKey = deduplicator != null && commandHandlerBuilder.sharedState != null
+        ? SharedState.dedupKey(message.getIdLong(), content) : null;
+
     // If the command was registered, the command will be handled and checked in the handleCommand() method.
-    String command = args[0].replace(commandPrefix, "");
-    commandHandlerBuilder.commandList.forEach(c -> {
-      if (c.getCommandName().equals(command) || c.getCommandAlias().equals(command)) {
-        handleCommand(c, event.getMember(), event.getChannel(), event.getMessage(), args);
+    RegisteredCommand registered = command;
+    int start = argumentsStart;
+    long received = receivedAt;
+    withGuildConfig(registered, guildId, guildConfig -> handleCommand(registered, message.getMember(),
+        event.getChannel(), message, content, start, guildConfig, dedupKey, received), IGNORE_REJECTION);
+  }
+
+  @Override
+  public void onSlashCommand(@Nonnull SlashCommandEvent event) {
+    if (!event.isFromGuild()) {
+      return;
+    }
+
+    long receivedAt = dispatchMetrics == null ? 0 : System.nanoTime();
+
+    // Slash commands are routed by the id Discord assigned to them and the names of the sub-commands, which Discord
+    // already provides separately. Nothing needs to be parsed from a text.
+    RegisteredCommand command = commandHandlerBuilder.commandRegistry.lookupSlash(event.getCommandIdLong(),
+        event.getName());
+    command = slashSubCommand(slashSubCommand(command, event.getSubcommandGroup()), event.getSubcommandName());
+    if (command == null || command.command.getSlashListener() == null) {
+      if (dispatchMetrics != null) {
+        dispatchMetrics.recordUnknownCommand();
       }
+
+      // Discord shows an error to the user unless every interaction is acknowledged within 3 seconds.
+      acknowledge(event, null);
+      return;
+    }
+
+    RegisteredCommand registered = command;
+    Consumer<RejectionReason> rejected = reason -> acknowledge(event, reason);
+    withGuildConfig(registered, event.getGuild().getIdLong(), guildConfig -> admit(registered, event.getMember(),
+        event.getTextChannel(), event.getUser(), guildConfig, null, () -> {
+          Runnable call = withGuildState(slashCall(registered.command, event), event.getGuild().getIdLong());
+          execute(registered, intercepted(registered, call, event.getMember(), event.getTextChannel(),
+              event.getUser(), null, event, rejected), receivedAt, rejected);
+        }, rejected), rejected);
+  }
+
+  @Override
+  public void onGuildLeave(@Nonnull GuildLeaveEvent event) {
+    long guildId = event.getGuild().getIdLong();
+    commandHandlerBuilder.commandRegistry.releaseGuild(guildId);
+    if (commandHandlerBuilder.guildStates != null) {
+      commandHandlerBuilder.guildStates.release(guildId);
+    }
+
+    if (commandHandlerBuilder.configStore != null) {
+      commandHandlerBuilder.configStore.release(guildId);
+    }
+  }
+
+  /**
+   * Passes the configuration of a guild to an action once a command of the guild matched.
+   * <p>
+   * A configuration which is not loaded yet, e.g. because it was evicted, is read in the background and the action is
+   * run on that thread, so the event thread never reads a file. If it cannot be read, the command is rejected.
+   * </p>
+   *
+   * @param registered
+   *     The command which matched
+   * @param guildId
+   *     The id of the guild
+   * @param action
+   *     Receives the configuration of the guild, <code>null</code> if the handler has no configuration store
+   * @param rejected
+   *     Called if the configuration could not be read
+   */
+  private void withGuildConfig(RegisteredCommand registered, long guildId, Consumer<GuildConfig> action,
+      Consumer<RejectionReason> rejected) {
+    GuildConfigStore configStore = commandHandlerBuilder.configStore;
+    GuildConfig guildConfig = configStore == null ? null : configStore.getIfLoaded(guildId);
+    if (configStore == null || guildConfig != null) {
+      action.accept(guildConfig);
+      return;
+    }
+
+    CompletableFuture<GuildConfig> loading = configStore.preload(guildId);
+    loading.exceptionally(error -> {
+      reject(registered, RejectionReason.ERROR, rejected);
+      return null;
+    });
+    loading.thenAccept(action).exceptionally(error -> {
+      Thread thread = Thread.currentThread();
+      thread.getUncaughtExceptionHandler().uncaughtException(thread, error);
+      return null;
     });
   }
 
@@ -72,36 +284,394 @@ class CommandHandlerListener extends ListenerAdapter {
    * if anything does not match the configuration.
    * </p>
    *
-   * @param command
-   *     The command which is will be executed
+   * @param registered
+   *     The command which will be executed
    * @param sender
    *     The sender of the text message
    * @param channel
    *     The channel the text message was sent from
    * @param message
    *     The message as object
-   * @param args
-   *     An array of the message split at each whitespace
+   * @param content
+   *     The raw content of the message
+   * @param argumentsStart
+   *     The index in the content at which the arguments start
+   * @param guildConfig
+   *     The configuration of the guild, <code>null</code> if the handler has no configuration store
+   * @param dedupKey
+   *     The key of the message within the shared state, <code>null</code> if it is not deduplicated across processes
+   * @param receivedAt
+   *     The value of {@link System#nanoTime()} when the message was received, only set if metrics are enabled
+   */
+  private void handleCommand(RegisteredCommand registered, Member sender, TextChannel channel, Message message,
+      String content, int argumentsStart, GuildConfig guildConfig, String dedupKey, long receivedAt) {
+    admit(registered, sender, channel, message.getAuthor(), guildConfig, dedupKey, () -> {
+      // Once we checked everything, the can redirect the command to the corresponding class.
+      // The arguments are only split now, after all checks passed, and possibly on another thread.
+      Runnable call = withGuildState(listenerCall(registered, sender, channel, message, content, argumentsStart),
+          channel.getGuild().getIdLong());
+      execute(registered, intercepted(registered, call, sender, channel, message.getAuthor(), message, null,
+          IGNORE_REJECTION), receivedAt, IGNORE_REJECTION);
+    }, IGNORE_REJECTION);
+  }
+
+  /**
+   * Checks whether a command may be executed, regardless of whether it was triggered by a message or slash command.
+   * <p>
+   * Without a shared state, this happens right away. With one, the checks of this process happen right away, while the
+   * command is only admitted once the shared state answered, which happens on the thread of the backend. Only the
+   * hand-off to the executor happens on that thread, so it is never blocked by a listener.
+   * </p>
+   *
+   * @param registered
+   *     The command which will be executed
+   * @param sender
+   *     The sender of the command
+   * @param channel
+   *     The channel the command was used in
+   * @param author
+   *     The user who used the command
+   * @param guildConfig
+   *     The configuration of the guild, <code>null</code> if the handler has no configuration store
+   * @param dedupKey
+   *     The key of the message within the shared state, <code>null</code> if it is not deduplicated across processes
+   * @param admitted
+   *     Called once all checks and limits of the command passed
+   * @param rejected
+   *     Called with the reason if the command was rejected
    */
-  private void handleCommand(Command command, Member sender, TextChannel channel, Message message, String[] args) {
-    // If set hat bot's should not be allowed to use the command, do nothing.
-    if (!command.getBotAllowance() && message.getAuthor().isBot()) {
+  private void admit(RegisteredCommand registered, Member sender, TextChannel channel, User author,
+      GuildConfig guildConfig, String dedupKey, Runnable admitted, Consumer<RejectionReason> rejected) {
+    // The bot allowance, the allowed channels and the permissions of the sender were compiled into a single guard when
+    // the command was built. If any of them does not pass, do nothing. Settings overridden by the configuration of
+    // the guild replace those of the command.
+    CommandOverride override = guildConfig == null ? null : guildConfig.getOverride(registered.path);
+    RejectionReason reason = checkAccess(registered, sender, channel, author, guildConfig);
+    if (reason != null) {
+      reject(registered, reason, rejected);
       return;
     }
 
-    // Afterwards we need to check whether the message was sent from an allowed channel and whether the sender has the
-    // permissions to actually execute the command.
-    ArrayList<Long> allowedChannels = command.getCommandChannels();
-    if (!allowedChannels.isEmpty() && !allowedChannels.contains(channel.getIdLong())) {
+    // Commands in a channel which cannot take any more replies are dropped, so the backlog does not grow any further.
+    // This is checked before the rate limit, so a dropped command does not use up the limit.
+    if (replyQueue.isCongested(channel)) {
+      reject(registered, RejectionReason.REPLY_BACKLOG, rejected);
       return;
     }
 
-    ArrayList<Permission> neededPermissions = command.getCommandPermissions();
-    if (!neededPermissions.isEmpty() && !sender.getPermissions().containsAll(neededPermissions)) {
+    // Under overload, commands of low priority are dropped before they use up their rate limit.
+    if (!commandExecutor.admit(registered)) {
+      reject(registered, RejectionReason.SHED, rejected);
       return;
     }
 
-    // Once we checked everything, the can redirect the command to the corresponding class.
-    command.getHandlerListener().onCommand(sender, channel, message, Arrays.copyOfRange(args, 1, args.length));
+    // With a shared state, the limits of all processes are checked in a single round trip. The limits of this process
+    // are only used if the shared state is unavailable.
+    SharedState sharedState = commandHandlerBuilder.sharedState;
+    if (sharedState == null) {
+      limit(registered, author, channel, override, SharedState.Outcome.UNAVAILABLE, admitted, rejected);
+      return;
+    }
+
+    long dedupWindowMillis = dedupKey == null ? 0 : commandHandlerBuilder.messageDeduplicator.windowMillis;
+    CompletableFuture<SharedState.Outcome> checking = sharedState.check(registered, author, channel, override, dedupKey,
+        dedupWindowMillis);
+    checking.exceptionally(error -> {
+      reject(registered, RejectionReason.ERROR, rejected);
+      return null;
+    });
+    checking.thenAccept(outcome -> limit(registered, author, channel, override, outcome, admitted, rejected))
+        .exceptionally(error -> {
+          Thread thread = Thread.currentThread();
+          thread.getUncaughtExceptionHandler().uncaughtException(thread, error);
+          return null;
+        });
+  }
+
+  /**
+   * Applies the outcome of the shared state, or the rate limit of this process if it is unavailable.
+   *
+   * @param registered
+   *     The command which will be executed
+   * @param author
+   *     The user who used the command
+   * @param channel
+   *     The channel the command was used in
+   * @param override
+   *     The settings of the command overridden within the guild, may be <code>null</code>
+   * @param outcome
+   *     The outcome of checking the shared state
+   * @param admitted
+   *     Called if the command is neither a duplicate nor rate limited
+   * @param rejected
+   *     Called if the command is rate limited
+   */
+  private void limit(RegisteredCommand registered, User author, TextChannel channel, CommandOverride override,
+      SharedState.Outcome outcome, Runnable admitted, Consumer<RejectionReason> rejected) {
+    if (outcome == SharedState.Outcome.DUPLICATE) {
+      commandHandlerBuilder.messageFilter.record(FilterReason.DUPLICATE);
+      return;
+    }
+
+    // Rate limited invocations are dropped before any arguments are split or the listener is called.
+    if (outcome == SharedState.Outcome.RATE_LIMITED
+        || outcome == SharedState.Outcome.UNAVAILABLE && !registered.tryRateLimit(author, channel, override)) {
+      reject(registered, RejectionReason.RATE_LIMITED, rejected);
+      return;
+    }
+
+    admitted.run();
+  }
+
+  private static RejectionReason checkAccess(RegisteredCommand registered, Member sender, TextChannel channel,
+      User author, GuildConfig guildConfig) {
+    CommandOverride override = guildConfig == null ? null : guildConfig.getOverride(registered.path);
+    return override == null ? registered.command.checkAccess(sender, channel, author)
+        : registered.command.checkAccess(sender, channel, author, override);
+  }
+
+  private static void reject(RegisteredCommand registered, RejectionReason reason,
+      Consumer<RejectionReason> rejected) {
+    registered.recordRejection(reason);
+    rejected.accept(reason);
+  }
+
+  /**
+   * Hands the call of a listener to the executor, recording its latency if metrics are enabled.
+   *
+   * @param registered
+   *     The command which will be executed
+   * @param call
+   *     The call of the listener
+   * @param receivedAt
+   *     The value of {@link System#nanoTime()} when the command was received, only set if metrics are enabled
+   * @param rejected
+   *     Called with the reason if the executor did not take the command
+   */
+  private void execute(RegisteredCommand registered, Runnable call, long receivedAt,
+      Consumer<RejectionReason> rejected) {
+    CommandMetrics metrics = registered.metrics;
+    Runnable invocation;
+    if (metrics == null) {
+      invocation = call;
+    } else {
+      invocation = () -> {
+        long start = System.nanoTime();
+        metrics.recordInvocation(start - receivedAt);
+        boolean failed = true;
+        try {
+          call.run();
+          failed = false;
+        } finally {
+          metrics.recordExecution(System.nanoTime() - start, failed);
+        }
+      };
+    }
+
+    RejectionReason reason = commandExecutor.execute(registered, invocation);
+    if (reason != null) {
+      reject(registered, reason, rejected);
+    }
+  }
+
+  /**
+   * Loads the state of the guild right before the call of a listener, if the handler keeps guild states.
+   * <p>
+   * This happens on the thread of the listener, so loading the state of a guild does not block dispatching.
+   * </p>
+   *
+   * @param call
+   *     The call of the listener
+   * @param guildId
+   *     The id of the guild the command was used in
+   *
+   * @return The call loading the state first or the plain call if there are no guild states
+   */
+  private Runnable withGuildState(Runnable call, long guildId) {
+    GuildStates<?> guildStates = commandHandlerBuilder.guildStates;
+    if (guildStates == null) {
+      return call;
+    }
+
+    return () -> {
+      guildStates.get(guildId);
+      call.run();
+    };
+  }
+
+  /**
+   * Passes the call of a listener through the interceptors of the command, if there are any.
+   *
+   * @param registered
+   *     The command which will be executed
+   * @param call
+   *     The call of the listener
+   * @param sender
+   *     The sender of the command
+   * @param channel
+   *     The channel the command was used in
+   * @param author
+   *     The user who used the command
+   * @param message
+   *     The message which triggered the command, <code>null</code> for slash commands
+   * @param slashEvent
+   *     The event of the slash command, <code>null</code> for messages
+   * @param rejected
+   *     Called if an interceptor does not proceed
+   *
+   * @return The call of the interceptor chain or the plain call if there are no interceptors
+   */
+  private static Runnable intercepted(RegisteredCommand registered, Runnable call, Member sender, TextChannel channel,
+      User author, Message message, SlashCommandEvent slashEvent, Consumer<RejectionReason> rejected) {
+    InterceptorChain chain = registered.interceptors;
+    if (chain == null) {
+      return call;
+    }
+
+    // Interceptors proceed on the thread they are called on, so the flag is read on the thread which set it.
+    boolean[] proceeded = new boolean[1];
+    CommandInvocation invocation = new CommandInvocation(registered.command, sender, channel, author, message,
+        slashEvent, () -> {
+          proceeded[0] = true;
+          call.run();
+        });
+    return () -> {
+      try {
+        chain.proceed(invocation);
+      } finally {
+        if (!proceeded[0]) {
+          reject(registered, RejectionReason.INTERCEPTED, rejected);
+        }
+      }
+    };
+  }
+
+  /**
+   * Creates the actual call of the listener of a command.
+   * <p>
+   * Typed commands parse their arguments directly from the content, all others receive it split at each whitespace.
+   * Either way, this only happens once the call is run.
+   * </p>
+   *
+   * @param registered
+   *     The command which will be executed
+   * @param sender
+   *     The sender of the text message
+   * @param channel
+   *     The channel the text message was sent from
+   * @param message
+   *     The message as object
+   * @param content
+   *     The raw content of the message
+   * @param argumentsStart
+   *     The index in the content at which the arguments start
+   *
+   * @return The call of the listener
+   */
+  private static Runnable listenerCall(RegisteredCommand registered, Member sender, TextChannel channel,
+      Message message, String content, int argumentsStart) {
+    Command command = registered.command;
+    CacheableCommandListener cacheableListener = command.getCacheableListener();
+    if (cacheableListener != null) {
+      ResultCache resultCache = registered.resultCache;
+      return () -> {
+        String[] args = MessageTokenizer.arguments(content, argumentsStart);
+        if (resultCache == null) {
+          ResultCache.send(channel, cacheableListener.onCommand(sender, channel, message, args));
+        } else {
+          resultCache.respond(cacheableListener, sender, channel, message, args);
+        }
+      };
+    }
+
+    TypedCommandListener typedListener = command.getTypedListener();
+    if (typedListener == null) {
+      CommandListener listener = command.getHandlerListener();
+      return () -> listener.onCommand(sender, channel, message, MessageTokenizer.arguments(content, argumentsStart));
+    }
+
+    ParsePlan parsePlan = command.getParsePlan();
+    return () -> {
+      CommandArguments arguments;
+      try {
+        arguments = parsePlan.parse(content, argumentsStart, channel.getGuild());
+      } catch (ArgumentParseException e) {
+        typedListener.onParseError(sender, channel, message, e);
+        return;
+      }
+
+      typedListener.onCommand(sender, channel, message, arguments);
+    };
+  }
+
+  /**
+   * Creates the actual call of the listener of a slash command, which parses the options once it is run.
+   *
+   * @param command
+   *     The command which will be executed
+   * @param event
+   *     The event of the slash command
+   *
+   * @return The call of the listener
+   */
+  private static Runnable slashCall(Command command, SlashCommandEvent event) {
+    SlashCommandListener listener = command.getSlashListener();
+    ParsePlan parsePlan = command.getParsePlan();
+    return () -> {
+      CommandArguments arguments;
+      try {
+        arguments = parsePlan.parse(event);
+      } catch (ArgumentParseException e) {
+        listener.onParseError(event, e);
+        return;
+      }
+
+      listener.onSlashCommand(event, arguments);
+    };
+  }
+
+  /**
+   * Tells the user why their slash command was not executed. Only the user can see the reply.
+   *
+   * @param event
+   *     The event of the slash command
+   * @param reason
+   *     The reason the command was rejected, <code>null</code> if there is no such command
+   */
+  private static void acknowledge(SlashCommandEvent event, RejectionReason reason) {
+    event.reply(rejectionMessage(reason)).setEphemeral(true).queue();
+  }
+
+  private static String rejectionMessage(RejectionReason reason) {
+    if (reason == null) {
+      return "This command is not available.";
+    }
+
+    switch (reason) {
+      case BOT:
+        return "Bots cannot use this command.";
+      case CHANNEL:
+        return "This command cannot be used in this channel.";
+      case PERMISSION:
+        return "You are missing the permissions to use this command.";
+      case RATE_LIMITED:
+        return "You are using this command too often, please try again later.";
+      case DISABLED:
+        return "This command is disabled in this server.";
+      case INTERCEPTED:
+        return "This command cannot be used right now.";
+      case ERROR:
+        return "Something went wrong, please try again later.";
+      default:
+        return "The bot is busy right now, please try again later.";
+    }
+  }
+
+  private static RegisteredCommand slashSubCommand(RegisteredCommand command, String name) {
+    if (command == null || name == null) {
+      return command;
+    }
+
+    return command.subCommand(name, 0, name.length());
   }
 }
@@ -0,0 +1,387 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.handler;
+
+import com.github.stackovernorth.jda.commandhandler.api.command.Command;
+import com.github.stackovernorth.jda.commandhandler.api.interceptor.CommandInterceptor;
+import com.github.stackovernorth.jda.commandhandler.api.metrics.CommandMetrics;
+import com.github.stackovernorth.jda.commandhandler.api.metrics.CommandMetricsSnapshot;
+import com.github.stackovernorth.jda.commandhandler.util.BkTree;
+import com.github.stackovernorth.jda.commandhandler.util.NameIndex;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Holds every command registered to a {@link CommandHandler} and indexes them by their name and aliases.
+ * <p>
+ * Lookups are done against an immutable snapshot which is replaced as a whole whenever a command is added or removed.
+ * Thus looking up a command never blocks and always sees a consistent state, even if commands are added while messages
+ * are being dispatched. A handler serving several shards uses a single registry for all of them, so every shard sees
+ * a change at the same time.
+ * </p>
+ * <p>
+ * Note that names and aliases are unique across all registered commands. Registering a command whose name or alias is
+ * already taken will fail.
+ * </p>
+ */
+public class CommandRegistry {
+
+  private final Object writeLock = new Object();
+  private boolean metricsEnabled;
+  private List<CommandInterceptor> globalInterceptors = Collections.emptyList();
+  private Map<String, Long> slashCommandIds = Collections.emptyMap();
+  private volatile Snapshot snapshot = new Snapshot(Collections.emptyMap(), Collections.emptyList(), slashCommandIds,
+      BkTree.empty());
+
+  /**
+   * Registers a new command using its name and all of its aliases.
+   *
+   * @param command
+   *     The command which should be registered
+   *
+   * @throws IllegalArgumentException
+   *     If the command is <code>null</code> or its name or one of its aliases is already registered
+   */
+  public void register(Command command) {
+    if (command == null) {
+      throw new IllegalArgumentException("The command must not be null!");
+    }
+
+    synchronized (writeLock) {
+      Snapshot current = snapshot;
+      List<String> keys = keysOf(command);
+      for (String key : keys) {
+        if (current.index.containsKey(key)) {
+          throw new IllegalArgumentException("The command name or alias \"" + key + "\" is already registered!");
+        }
+      }
+
+      RegisteredCommand registered = new RegisteredCommand(command, command.getCommandName());
+      if (metricsEnabled) {
+        registered.forEachInTree(node -> node.metrics = new CommandMetrics(node.command));
+      }
+
+      List<CommandInterceptor> interceptors = globalInterceptors;
+      registered.forEachInTree(node -> node.compileInterceptors(interceptors));
+
+      Map<String, RegisteredCommand> index = new HashMap<>(current.index);
+      keys.forEach(key -> index.put(key, registered));
+      List<RegisteredCommand> commands = new ArrayList<>(current.registered);
+      commands.add(registered);
+      BkTree<RegisteredCommand> suggestions = current.suggestions;
+      for (String key : keys) {
+        suggestions = suggestions.with(key, registered);
+      }
+
+      snapshot = new Snapshot(index, commands, slashCommandIds, suggestions);
+    }
+  }
+
+  /**
+   * Removes a previously registered command including all of its aliases.
+   *
+   * @param command
+   *     The command which should be removed
+   *
+   * @return <code>true</code> if the command was registered, otherwise <code>false</code>
+   */
+  public boolean unregister(Command command) {
+    synchronized (writeLock) {
+      Snapshot current = snapshot;
+      if (!current.commands.contains(command)) {
+        return false;
+      }
+
+      Map<String, RegisteredCommand> index = new HashMap<>(current.index);
+      index.values().removeIf(registered -> registered.command == command);
+      List<RegisteredCommand> commands = new ArrayList<>(current.registered);
+      commands.removeIf(registered -> registered.command == command);
+
+      // Names cannot be removed from a BK-tree, so it is built again from the remaining commands.
+      BkTree<RegisteredCommand> suggestions = BkTree.empty();
+      for (RegisteredCommand registered : commands) {
+        for (String key : keysOf(registered.command)) {
+          suggestions = suggestions.with(key, registered);
+        }
+      }
+
+      snapshot = new Snapshot(index, commands, slashCommandIds, suggestions);
+      return true;
+    }
+  }
+
+  /**
+   * Removes the command which is registered under the given name or alias.
+   *
+   * @param nameOrAlias
+   *     The name or one of the aliases of the command
+   *
+   * @return The removed command or <code>null</code> if no command was registered under the given name
+   */
+  public Command unregister(String nameOrAlias) {
+    synchronized (writeLock) {
+      RegisteredCommand registered = snapshot.index.get(nameOrAlias);
+      if (registered == null) {
+        return null;
+      }
+
+      unregister(registered.command);
+      return registered.command;
+    }
+  }
+
+  /**
+   * Returns the command registered under the given name or alias.
+   *
+   * @param nameOrAlias
+   *     The name or one of the aliases of the command (without the prefix)
+   *
+   * @return The corresponding command or <code>null</code> if none is registered
+   */
+  public Command getCommand(String nameOrAlias) {
+    RegisteredCommand registered = nameOrAlias == null ? null : snapshot.lookup(nameOrAlias, 0, nameOrAlias.length());
+    return registered == null ? null : registered.command;
+  }
+
+  /**
+   * Returns the command registered under the name found in the given region of a String.
+   * <p>
+   * This is used while dispatching so the command name does not need to be copied out of the message content.
+   * </p>
+   *
+   * @param content
+   *     The String containing the name, e.g. the raw content of a message
+   * @param start
+   *     The index of the first character of the name (inclusive)
+   * @param end
+   *     The index after the last character of the name (exclusive)
+   *
+   * @return The corresponding registered command or <code>null</code> if none is registered
+   */
+  RegisteredCommand lookup(String content, int start, int end) {
+    return snapshot.lookup(content, start, end);
+  }
+
+  /**
+   * Returns the command whose name or alias is closest to the name found in the given region of a String.
+   *
+   * @param content
+   *     The String containing the name, e.g. the raw content of a message
+   * @param start
+   *     The index of the first character of the name (inclusive)
+   * @param end
+   *     The index after the last character of the name (exclusive)
+   * @param maxDistance
+   *     The maximum edit distance between the name and the name or alias of the command
+   * @param maxVisits
+   *     The maximum number of names and aliases compared
+   * @param visible
+   *     Tests whether a command may be suggested
+   *
+   * @return The closest visible command or <code>null</code> if none is close enough
+   */
+  RegisteredCommand suggest(String content, int start, int end, int maxDistance, int maxVisits,
+      Predicate<RegisteredCommand> visible) {
+    return snapshot.suggestions.nearest(content, start, end, maxDistance, maxVisits, visible);
+  }
+
+  /**
+   * Returns whether at least one registered command or sub-command allows bots to execute it.
+   * <p>
+   * If none does, messages of bots can be dropped without looking at their content.
+   * </p>
+   *
+   * @return <code>true</code> if bots may execute any command
+   */
+  boolean allowsBots() {
+    return snapshot.botsAllowed;
+  }
+
+  /**
+   * Returns the command registered as the slash command with the given id.
+   * <p>
+   * If the id is unknown, e.g. because the slash commands were not synchronized by this handler, the command is looked
+   * up by its name instead.
+   * </p>
+   *
+   * @param commandId
+   *     The id of the slash command assigned by Discord
+   * @param name
+   *     The name of the slash command
+   *
+   * @return The corresponding registered command or <code>null</code> if none is registered
+   */
+  RegisteredCommand lookupSlash(long commandId, String name) {
+    Snapshot current = snapshot;
+    RegisteredCommand registered = current.slashIndex.get(commandId);
+    return registered != null ? registered : current.lookup(name, 0, name.length());
+  }
+
+  /**
+   * Replaces the ids Discord assigned to the slash commands.
+   *
+   * @param slashCommandIds
+   *     The ids of the slash commands by command name
+   */
+  void setSlashCommandIds(Map<String, Long> slashCommandIds) {
+    synchronized (writeLock) {
+      this.slashCommandIds = new HashMap<>(slashCommandIds);
+      snapshot = new Snapshot(snapshot.index, snapshot.registered, this.slashCommandIds, snapshot.suggestions);
+    }
+  }
+
+  /**
+   * Returns all registered commands in the order they were registered.
+   *
+   * @return An unmodifiable {@link List} of all commands
+   */
+  public List<Command> getCommands() {
+    return snapshot.commands;
+  }
+
+  /**
+   * Forgets the state every registered command keeps for a guild, e.g. because the bot left it.
+   *
+   * @param guildId
+   *     The id of the guild
+   */
+  void releaseGuild(long guildId) {
+    snapshot.registered.forEach(registered -> registered.forEachInTree(node -> node.releaseGuild(guildId)));
+  }
+
+  /**
+   * Starts recording metrics for every command which is or will be registered.
+   */
+  void enableMetrics() {
+    synchronized (writeLock) {
+      metricsEnabled = true;
+      snapshot.registered.forEach(registered -> registered.forEachInTree(node -> {
+        node.metrics = new CommandMetrics(node.command);
+      }));
+    }
+  }
+
+  /**
+   * Adds an interceptor which is called for every command which is or will be registered.
+   *
+   * @param interceptor
+   *     The interceptor, called after all interceptors added before
+   */
+  void addInterceptor(CommandInterceptor interceptor) {
+    synchronized (writeLock) {
+      List<CommandInterceptor> interceptors = new ArrayList<>(globalInterceptors);
+      interceptors.add(interceptor);
+      globalInterceptors = Collections.unmodifiableList(interceptors);
+      snapshot.registered.forEach(registered -> registered.forEachInTree(node -> {
+        node.compileInterceptors(interceptors);
+      }));
+    }
+  }
+
+  /**
+   * Returns the metrics of every registered command, if enabled.
+   * <p>
+   * Sub-commands are listed separately by their full path, e.g. <code>config prefix</code>.
+   * </p>
+   *
+   * @return A {@link Map} of all command metrics by command name
+   */
+  Map<String, CommandMetricsSnapshot> snapshotMetrics() {
+    Map<String, CommandMetricsSnapshot> metrics = new LinkedHashMap<>();
+    for (RegisteredCommand registered : snapshot.registered) {
+      registered.forEachInTree(node -> {
+        CommandMetrics commandMetrics = node.metrics;
+        if (commandMetrics != null) {
+          metrics.put(node.path, commandMetrics.snapshot());
+        }
+      });
+    }
+
+    return metrics;
+  }
+
+  private static List<String> keysOf(Command command) {
+    List<String> keys = new ArrayList<>();
+    keys.add(command.getCommandName());
+    for (String alias : command.getCommandAliases()) {
+      if (alias != null && !alias.isEmpty() && !keys.contains(alias)) {
+        keys.add(alias);
+      }
+    }
+
+    return keys;
+  }
+
+  /**
+   * An immutable state of the registry.
+   * <p>
+   * Besides the map used while registering, every snapshot holds a {@link NameIndex} of all names and aliases, so a
+   * name can be looked up directly from a region of the message content without creating a new String. Slash
+   * commands are additionally indexed by the id Discord assigned to them. A {@link BkTree} of all names and aliases is
+   * extended with every registered command and used to suggest commands for misspelled names.
+   * </p>
+   */
+  private static final class Snapshot {
+
+    private final Map<String, RegisteredCommand> index;
+    private final List<RegisteredCommand> registered;
+    private final List<Command> commands;
+    private final NameIndex<RegisteredCommand> names;
+    private final Map<Long, RegisteredCommand> slashIndex;
+    private final boolean botsAllowed;
+    private final BkTree<RegisteredCommand> suggestions;
+
+    private Snapshot(Map<String, RegisteredCommand> index, List<RegisteredCommand> registered,
+        Map<String, Long> slashCommandIds, BkTree<RegisteredCommand> suggestions) {
+      this.index = index;
+      this.registered = registered;
+      List<Command> commands = new ArrayList<>(registered.size());
+      registered.forEach(r -> commands.add(r.command));
+      this.commands = Collections.unmodifiableList(commands);
+      this.names = new NameIndex<>(index);
+      this.slashIndex = new HashMap<>();
+      for (RegisteredCommand command : registered) {
+        Long commandId = slashCommandIds.get(command.command.getCommandName());
+        if (commandId != null) {
+          slashIndex.put(commandId, command);
+        }
+      }
+
+      boolean[] bots = new boolean[1];
+      registered.forEach(command -> command.forEachInTree(node -> bots[0] |= node.command.getBotAllowance()));
+      this.botsAllowed = bots[0];
+      this.suggestions = suggestions;
+    }
+
+    private RegisteredCommand lookup(String content, int start, int end) {
+      return names.get(content, start, end);
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.github.stackovernorth.jda.commandhandler.api.handler;
+
+import com.github.stackovernorth.jda.commandhandler.api.command.RateLimit;
+import com.github.stackovernorth.jda.commandhandler.api.command.RateLimitScope;
+import com.github.stackovernorth.jda.commandhandler.listener.SuggestionListener;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.TextChannel;
+
+/**
+ * Suggests the closest command if a prefix is followed by an unknown name.
+ * <p>
+ * The names and aliases of all commands are kept in a {@link com.github.stackovernorth.jda.commandhandler.util.BkTree}
+ * by the {@link CommandRegistry}, so a lookup only compares the unknown name to a few of them and never to more than
+ * {@link #MAX_VISITS}. Lookups are additionally rate limited across the whole handler, thus a flood of unknown names
+ * costs at most a fixed amount of work per minute. Unknown names above the limit or longer than any command name could
+ * be are simply ignored.
+ * </p>
+ */
+final class CommandSuggester {
+
+  static final int DEFAULT_MAX_DISTANCE = 2;
+  static final int DEFAULT_LOOKUPS_PER_MINUTE = 120;
+  static final int MAX_VISITS = 64;
+  private static final int MAX_NAME_LENGTH = 64;
+
+  private final SuggestionListener suggestionListener;
+  private final int maxDistance;
+  private final RateLimiter rateLimiter;
+
+  CommandSuggester(SuggestionListener suggestionListener, int maxDistance, int lookupsPerMinute) {
+    this.suggestionListener = suggestionListener;
+    this.maxDistance = maxDistance;
+    this.rateLimiter = new RateLimiter(new RateLimit(lookupsPerMinute, 1, TimeUnit.MINUTES, RateLimitScope.GLOBAL), 1);
+  }
+
+  /**
+   * Looks for a command close to an unknown name and passes it to the listener, if found.
+   *
+   * @param commandRegistry
+   *     The registry of all commands
+   * @param sender
+   *     The sender of the message
+   * @param channel
+   *     The channel the message was sent from
+   * @param content
+   *     The raw content of the message
+   * @param nameStart
+   *     The index of the first character of the unknown name, right after the prefix
+   * @param nameEnd
+   *     The index after the last character of the unknown name
+   * @param visible
+   *     Tests whether the sender may see a command, so commands they cannot use are never suggested
+   */
+  void suggest(CommandRegistry commandRegistry, Member sender, TextChannel channel, String content, int nameStart,
+      int nameEnd, Predicate<RegisteredCommand> visible) {
+    int length = nameEnd - nameStart;
+    if (length == 0 || length > MAX_NAME_LENGTH || !rateLimiter.tryAcquire(0)) {
+      return;
+    }
+
+    RegisteredCommand suggestion = commandRegistry.suggest(content, nameStart, nameEnd, maxDistance, MAX_VISITS,
+        visible);
+    if (suggestion != null) {
+      suggestionListener.onUnknownCommand(sender, channel, content.substring(0, nameStart),
+          content.substring(nameStart, nameEnd), suggestion.command);
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.handler;
+
+/**
+ * The reasons why a message was dropped without executing a command, mostly before looking for a command at all.
+ */
+public enum FilterReason {
+
+  /**
+   * The message was sent in an ignored guild.
+   */
+  IGNORED_GUILD,
+
+  /**
+   * The message was sent in an ignored channel.
+   */
+  IGNORED_CHANNEL,
+
+  /**
+   * The message was sent by an ignored user.
+   */
+  IGNORED_USER,
+
+  /**
+   * The message was sent by a bot but no command allows bots.
+   */
+  BOT,
+
+  /**
+   * The message does not start with the first character of any prefix.
+   */
+  FIRST_CHARACTER,
+
+  /**
+   * The message does not start with any prefix of its guild.
+   */
+  PREFIX,
+
+  /**
+   * The message already triggered a command with the same content, e.g. because JDA replayed it after resuming or it
+   * was edited without changing its content.
+   */
+  DUPLICATE
+}
@@ -0,0 +1,355 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.github.stackovernorth.jda.commandhandler.api.handler;
+
+import com.github.stackovernorth.jda.commandhandler.api.command.Command;
+import com.github.stackovernorth.jda.commandhandler.listener.CommandListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.TextChannel;
+
+/**
+ * The built-in help command, listing the commands the sender can use in the current channel.
+ * <p>
+ * The pages are rendered once per view, i.e. per combination of the permissions which any command needs and the
+ * channel if any command is restricted to it, so members with the same relevant permissions share the same pages. Once
+ * commands are added or removed, only the views which can see them are updated, starting with the first page which
+ * changed. Only if the added or removed commands change which permissions or channels matter at all, every view is
+ * rendered again. Settings overridden by the configuration of a guild are not taken into account.
+ * </p>
+ */
+final class HelpCommand implements CommandListener {
+
+  static final String DEFAULT_NAME = "help";
+  static final int DEFAULT_COMMANDS_PER_PAGE = 10;
+  private static final int MAX_PAGE_LENGTH = 1800;
+  private static final int MAX_VIEWS = 1024;
+
+  private final String name;
+  private final int commandsPerPage;
+  private final CommandRegistry commandRegistry;
+  private final PrefixMatcher prefixMatcher;
+  private final ReplyQueue replyQueue;
+
+  // The state below is guarded by this instance. The commands are the list of the registry the views were rendered
+  // for, which is replaced by the registry whenever commands are added or removed.
+  private List<Command> commands = Collections.emptyList();
+  private long relevantPermissions;
+  private Set<Long> restrictedChannels = Collections.emptySet();
+  private final Map<Command, String> lines = new IdentityHashMap<>();
+  private final Map<ViewKey, Pages> views = new HashMap<>();
+
+  HelpCommand(String name, int commandsPerPage, CommandRegistry commandRegistry, PrefixMatcher prefixMatcher,
+      ReplyQueue replyQueue) {
+    this.name = name;
+    this.commandsPerPage = commandsPerPage;
+    this.commandRegistry = commandRegistry;
+    this.prefixMatcher = prefixMatcher;
+    this.replyQueue = replyQueue;
+  }
+
+  @Override
+  public void onCommand(Member sender, TextChannel channel, Message message, String[] args) {
+    long permissions = sender == null ? 0 : Permission.getRaw(sender.getPermissions());
+    List<String> prefixes = prefixMatcher.getPrefixes(channel.getGuild().getIdLong());
+    String prefix = prefixes.isEmpty() ? "" : prefixes.get(0);
+    if (args.length > 0 && !isPageNumber(args[0])) {
+      replyQueue.reply(channel, describe(args, permissions, channel.getIdLong(), prefix));
+      return;
+    }
+
+    int page = args.length == 0 ? 1 : Integer.parseInt(args[0]);
+    replyQueue.reply(channel, render(page, permissions, channel.getIdLong(), prefix));
+  }
+
+  private String render(int page, long permissions, long channelId, String prefix) {
+    String body;
+    int pageCount;
+    synchronized (this) {
+      Pages pages = pagesOf(permissions, channelId);
+      pageCount = pages.pages.size();
+      if (pageCount == 0) {
+        return "There are no commands you can use here.";
+      }
+
+      page = Math.min(Math.max(page, 1), pageCount);
+      body = pages.pages.get(page - 1);
+    }
+
+    // Only the cheap header and footer depend on the guild, the rendered body is shared by all guilds.
+    return "**Commands** (page " + page + "/" + pageCount + ")\n" + body + "\nUse `" + prefix + name
+        + " <page>` or `" + prefix + name + " <command>` for more.";
+  }
+
+  private String describe(String[] args, long permissions, long channelId, String prefix) {
+    Command command = commandRegistry.getCommand(args[0]);
+    String path = args[0];
+    for (int i = 1; command != null && i < args.length; i++) {
+      Command subCommand = command.getSubCommand(args[i]);
+      if (subCommand == null) {
+        break;
+      }
+
+      command = subCommand;
+      path += " " + args[i];
+    }
+
+    if (command == null || !isVisible(command, permissions, channelId)) {
+      return "Unknown command `" + args[0] + "`.";
+    }
+
+    StringBuilder description = new StringBuilder("`").append(prefix).append(path).append('`');
+    if (command.getCommandDescription() != null) {
+      description.append(" - ").append(command.getCommandDescription());
+    }
+
+    List<String> aliases = command.getCommandAliases();
+    if (!aliases.isEmpty()) {
+      description.append("\nAliases: ").append(String.join(", ", aliases));
+    }
+
+    if (!command.getCommandPermissions().isEmpty()) {
+      description.append("\nPermissions: ").append(command.getCommandPermissions().stream().map(Enum::name)
+          .collect(Collectors.joining(", ")));
+    }
+
+    if (!command.getSubCommands().isEmpty()) {
+      description.append("\nSub-commands: ").append(command.getSubCommands().stream()
+          .map(subCommand -> "`" + subCommand.getCommandName() + "`").collect(Collectors.joining(", ")));
+    }
+
+    return description.toString();
+  }
+
+  private Pages pagesOf(long permissions, long channelId) {
+    refresh();
+    ViewKey key = new ViewKey(permissions & relevantPermissions,
+        restrictedChannels.contains(channelId) ? channelId : 0);
+    Pages pages = views.get(key);
+    if (pages == null) {
+      if (views.size() >= MAX_VIEWS) {
+        views.clear();
+      }
+
+      pages = new Pages();
+      pages.update(visibleCommands(key));
+      views.put(key, pages);
+    }
+
+    return pages;
+  }
+
+  /**
+   * Updates the rendered views if commands were added or removed since they were rendered.
+   */
+  private void refresh() {
+    List<Command> current = commandRegistry.getCommands();
+    if (current == commands) {
+      return;
+    }
+
+    long relevant = 0;
+    Set<Long> restricted = new HashSet<>();
+    for (Command command : current) {
+      relevant |= command.getRawPermissions();
+      restricted.addAll(command.getCommandChannels());
+    }
+
+    Set<Command> before = identitySet(commands);
+    Set<Command> after = identitySet(current);
+    lines.keySet().retainAll(after);
+    if (relevant != relevantPermissions || !restricted.equals(restrictedChannels)) {
+      // Different permissions or channels matter now, so the views themselves changed.
+      views.clear();
+    } else {
+      List<Command> changed = new ArrayList<>();
+      current.stream().filter(command -> !before.contains(command)).forEach(changed::add);
+      commands.stream().filter(command -> !after.contains(command)).forEach(changed::add);
+      views.forEach((key, pages) -> {
+        if (changed.stream().anyMatch(command -> isVisible(command, key.permissions, key.channelId))) {
+          pages.update(visibleCommands(key));
+        }
+      });
+    }
+
+    commands = current;
+    relevantPermissions = relevant;
+    restrictedChannels = restricted;
+  }
+
+  private List<Command> visibleCommands(ViewKey key) {
+    List<Command> visible = new ArrayList<>();
+    for (Command command : commandRegistry.getCommands()) {
+      if (isVisible(command, key.permissions, key.channelId)) {
+        visible.add(command);
+      }
+    }
+
+    visible.sort(Comparator.comparing(Command::getCommandName));
+    return visible;
+  }
+
+  private static boolean isVisible(Command command, long permissions, long channelId) {
+    long needed = command.getRawPermissions();
+    List<Long> channels = command.getCommandChannels();
+    return (permissions & needed) == needed && (channels.isEmpty() || channels.contains(channelId));
+  }
+
+  private String lineOf(Command command) {
+    return lines.computeIfAbsent(command, key -> {
+      StringBuilder line = new StringBuilder("`").append(key.getCommandName()).append('`');
+      if (!key.getCommandAliases().isEmpty()) {
+        line.append(" (").append(String.join(", ", key.getCommandAliases())).append(')');
+      }
+
+      if (key.getCommandDescription() != null) {
+        line.append(" - ").append(key.getCommandDescription());
+      }
+
+      return line.toString();
+    });
+  }
+
+  private static boolean isPageNumber(String arg) {
+    if (arg.isEmpty() || arg.length() > 9) {
+      return false;
+    }
+
+    for (int i = 0; i < arg.length(); i++) {
+      if (!Character.isDigit(arg.charAt(i))) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private static Set<Command> identitySet(List<Command> commands) {
+    Set<Command> set = Collections.newSetFromMap(new IdentityHashMap<>());
+    set.addAll(commands);
+    return set;
+  }
+
+  /**
+   * The rendered pages of a single view.
+   */
+  private final class Pages {
+
+    private List<Command> visible = Collections.emptyList();
+    private final List<String> pages = new ArrayList<>();
+    private int[] pageStarts = new int[0];
+
+    /**
+     * Renders the pages for the given commands again, starting with the first page which changed. Pages are filled
+     * one after another, so the pages before the first changed command stay the same.
+     *
+     * @param updated
+     *     The commands visible in the view, sorted by name
+     */
+    private void update(List<Command> updated) {
+      int changedIndex = 0;
+      int common = Math.min(visible.size(), updated.size());
+      while (changedIndex < common && visible.get(changedIndex) == updated.get(changedIndex)) {
+        changedIndex++;
+      }
+
+      if (changedIndex == visible.size() && changedIndex == updated.size() && !pages.isEmpty()) {
+        return;
+      }
+
+      int page = 0;
+      while (page + 1 < pages.size() && pageStarts[page + 1] <= changedIndex) {
+        page++;
+      }
+
+      int start = page < pages.size() ? pageStarts[page] : 0;
+      pages.subList(page, pages.size()).clear();
+      int[] starts = Arrays.copyOf(pageStarts, Math.max(pageStarts.length, updated.size()));
+      while (start < updated.size()) {
+        StringBuilder body = new StringBuilder();
+        int end = start;
+        while (end < updated.size() && end - start < commandsPerPage) {
+          String line = lineOf(updated.get(end));
+          if (end > start && body.length() + 1 + line.length() > MAX_PAGE_LENGTH) {
+            break;
+          }
+
+          if (end > start) {
+            body.append('\n');
+          }
+
+          body.append(line);
+          end++;
+        }
+
+        starts[pages.size()] = start;
+        pages.add(body.toString());
+        start = end;
+      }
+
+      this.pageStarts = starts;
+      this.visible = updated;
+    }
+  }
+
+  private static final class ViewKey {
+
+    private final long permissions;
+    private final long channelId;
+
+    private ViewKey(long permissions, long channelId) {
+      this.permissions = permissions;
+      this.channelId = channelId;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof ViewKey)) {
+        return false;
+      }
+
+      ViewKey key = (ViewKey) other;
+      return permissions == key.permissions && channelId == key.channelId;
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(permissions) * 31 + Long.hashCode(channelId);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.github.stackovernorth.jda.commandhandler.api.handler;
+
+import com.github.stackovernorth.jda.commandhandler.util.WeightedLruCache;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers which contents of recent messages already triggered a command, so every message triggers at most one
+ * command per distinct content.
+ * <p>
+ * This allows executing a command again once its message was edited, while events which JDA replays after resuming a
+ * session and edits which do not change the content, e.g. when an embed is added to the message, are ignored. Only the
+ * hashes of the contents are kept, in a cache bounded by the number of messages. Messages older than the window are
+ * neither remembered nor executed again when edited.
+ * </p>
+ */
+final class MessageDeduplicator {
+
+  static final long DEFAULT_WINDOW_MINUTES = 5;
+  static final int DEFAULT_MAX_MESSAGES = 10_000;
+  private static final int MAX_CONTENTS = 8;
+  private static final long DISCORD_EPOCH = 1420070400000L;
+
+  final long windowMillis;
+  private final WeightedLruCache<Long, int[]> dispatched;
+
+  MessageDeduplicator(long window, TimeUnit unit, int maxMessages) {
+    this.windowMillis = unit.toMillis(window);
+    this.dispatched = new WeightedLruCache<>(maxMessages, maxMessages, unit.toNanos(window), hashes -> 1);
+  }
+
+  /**
+   * Returns whether a message is recent enough to execute a command again once it was edited.
+   *
+   * @param messageId
+   *     The id of the message
+   *
+   * @return <code>true</code> if the message was sent within the window
+   */
+  boolean isRecent(long messageId) {
+    // The creation time is part of every id, so the message itself is not needed.
+    long createdAt = (messageId >>> 22) + DISCORD_EPOCH;
+    return System.currentTimeMillis() - createdAt <= windowMillis;
+  }
+
+  /**
+   * Records that a message triggers a command with the given content, unless it already did.
+   *
+   * @param messageId
+   *     The id of the message
+   * @param content
+   *     The raw content of the message
+   *
+   * @return <code>true</code> if the command should be executed, <code>false</code> if the message already triggered a
+   *     command with the same content
+   */
+  synchronized boolean tryDispatch(long messageId, String content) {
+    int hash = content.hashCode();
+    int[] hashes = dispatched.get(messageId);
+    if (hashes == null) {
+      dispatched.put(messageId, new int[] {hash});
+      return true;
+    }
+
+    for (int previous : hashes) {
+      if (previous == hash) {
+        return false;
+      }
+    }
+
+    // A message edited over and over only remembers its latest contents.
+    int[] updated = hashes.length < MAX_CONTENTS ? Arrays.copyOf(hashes, hashes.length + 1)
+        : Arrays.copyOfRange(hashes, 1, hashes.length + 1);
+    updated[updated.length - 1] = hash;
+    dispatched.put(messageId, updated);
+    return true;
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.handler;
+
+import com.github.stackovernorth.jda.commandhandler.util.LongHashSet;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import net.dv8tion.jda.api.entities.User;
+
+/**
+ * Drops messages which cannot trigger any command before their content is looked at.
+ * <p>
+ * Ignored guilds, channels and users are kept in immutable {@link LongHashSet}s which are replaced as a whole when
+ * changed, so checking a message only reads primitive ids and never locks. Every dropped message is counted by its
+ * {@link FilterReason}.
+ * </p>
+ */
+final class MessageFilter {
+
+  private final LongAdder[] filtered = new LongAdder[FilterReason.values().length];
+  private volatile LongHashSet ignoredGuilds = LongHashSet.of();
+  private volatile LongHashSet ignoredChannels = LongHashSet.of();
+  private volatile LongHashSet ignoredUsers = LongHashSet.of();
+
+  MessageFilter() {
+    for (int i = 0; i < filtered.length; i++) {
+      filtered[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Checks whether a message can trigger any command, cheapest check first.
+   *
+   * @param guildId
+   *     The id of the guild the message was sent in
+   * @param channelId
+   *     The id of the channel the message was sent in
+   * @param author
+   *     The author of the message
+   * @param botsAllowed
+   *     Whether at least one command allows bots
+   *
+   * @return The {@link FilterReason} if the message should be dropped or <code>null</code> if it should be handled
+   */
+  FilterReason filter(long guildId, long channelId, User author, boolean botsAllowed) {
+    FilterReason reason = null;
+    if (!ignoredGuilds.isEmpty() && ignoredGuilds.contains(guildId)) {
+      reason = FilterReason.IGNORED_GUILD;
+    } else if (!ignoredChannels.isEmpty() && ignoredChannels.contains(channelId)) {
+      reason = FilterReason.IGNORED_CHANNEL;
+    } else if (!botsAllowed && author.isBot()) {
+      reason = FilterReason.BOT;
+    } else if (!ignoredUsers.isEmpty() && ignoredUsers.contains(author.getIdLong())) {
+      reason = FilterReason.IGNORED_USER;
+    }
+
+    if (reason != null) {
+      record(reason);
+    }
+
+    return reason;
+  }
+
+  /**
+   * Counts a dropped message.
+   *
+   * @param reason
+   *     The reason why the message was dropped
+   */
+  void record(FilterReason reason) {
+    filtered[reason.ordinal()].increment();
+  }
+
+  /**
+   * Returns how many messages were dropped so far.
+   *
+   * @return A {@link Map} of the number of dropped messages by reason
+   */
+  Map<FilterReason, Long> getFiltered() {
+    Map<FilterReason, Long> counts = new EnumMap<>(FilterReason.class);
+    for (FilterReason reason : FilterReason.values()) {
+      counts.put(reason, filtered[reason.ordinal()].sum());
+    }
+
+    return counts;
+  }
+
+  synchronized void setGuildIgnored(long guildId, boolean ignored) {
+    ignoredGuilds = ignored ? ignoredGuilds.with(guildId) : ignoredGuilds.without(guildId);
+  }
+
+  synchronized void setChannelIgnored(long channelId, boolean ignored) {
+    ignoredChannels = ignored ? ignoredChannels.with(channelId) : ignoredChannels.without(channelId);
+  }
+
+  synchronized void setUserIgnored(long userId, boolean ignored) {
+    ignoredUsers = ignored ? ignoredUsers.with(userId) : ignoredUsers.without(userId);
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.handler;
+
+/**
+ * A small hand-written tokenizer which works directly on the raw content of a message.
+ * <p>
+ * Unlike splitting the content using a regular expression, this neither compiles a pattern nor allocates anything
+ * until the arguments of a command are actually requested. Whitespace is defined the same way as <code>\s</code> in a
+ * regular expression, so the arguments are identical to splitting the content at <code>\s+</code>.
+ * </p>
+ */
+final class MessageTokenizer {
+
+  private static final String[] NO_ARGUMENTS = new String[0];
+
+  private MessageTokenizer() {
+  }
+
+  /**
+   * Checks whether the given character is considered whitespace.
+   *
+   * @param c
+   *     The character to check
+   *
+   * @return <code>true</code> if the character separates two tokens
+   */
+  static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000B';
+  }
+
+  /**
+   * Returns the end of the token starting at the given index.
+   *
+   * @param content
+   *     The raw content of the message
+   * @param start
+   *     The index the token starts at
+   *
+   * @return The index of the first whitespace after the token or the length of the content
+   */
+  static int tokenEnd(String content, int start) {
+    int end = start;
+    int length = content.length();
+    while (end < length && !isWhitespace(content.charAt(end))) {
+      end++;
+    }
+
+    return end;
+  }
+
+  /**
+   * Splits the content starting at the given index into its tokens.
+   *
+   * @param content
+   *     The raw content of the message
+   * @param start
+   *     The index at which the arguments start, usually right after the command name
+   *
+   * @return An array of all tokens, which is empty if there are none
+   */
+  static String[] arguments(String content, int start) {
+    int length = content.length();
+    int count = 0;
+    for (int i = skipWhitespace(content, start); i < length; i = skipWhitespace(content, tokenEnd(content, i))) {
+      count++;
+    }
+
+    if (count == 0) {
+      return NO_ARGUMENTS;
+    }
+
+    String[] arguments = new String[count];
+    int index = 0;
+    for (int i = skipWhitespace(content, start); i < length; ) {
+      int end = tokenEnd(content, i);
+      arguments[index++] = content.substring(i, end);
+      i = skipWhitespace(content, end);
+    }
+
+    return arguments;
+  }
+
+  /**
+   * Returns the start of the next token at or after the given index.
+   *
+   * @param content
+   *     The raw content of the message
+   * @param start
+   *     The index to start searching at
+   *
+   * @return The index of the first character which is not whitespace or the length of the content
+   */
+  static int skipWhitespace(String content, int start) {
+    int index = start;
+    int length = content.length();
+    while (index < length && isWhitespace(content.charAt(index))) {
+      index++;
+    }
+
+    return index;
+  }
+}
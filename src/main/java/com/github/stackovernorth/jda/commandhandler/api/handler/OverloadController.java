@@ -0,0 +1,140 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.github.stackovernorth.jda.commandhandler.api.handler;
+
+import com.github.stackovernorth.jda.commandhandler.api.command.CommandPriority;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Detects when commands wait too long for the executor and drops commands of low priority until they no longer do.
+ * <p>
+ * Like CoDel, this looks at the time commands spent waiting for a thread of the executor. A short queue caused by a
+ * burst drains quickly, so at least one command per interval gets a thread right away. Only if even the shortest wait
+ * within a whole interval exceeds the target, the queue is not draining anymore. Each such interval sheds one more
+ * priority, starting with {@link CommandPriority#LOW}, and each interval whose shortest wait is below the target sheds
+ * one priority less. Commands with {@link CommandPriority#CRITICAL} are never shed.
+ * </p>
+ */
+final class OverloadController {
+
+  static final long DEFAULT_TARGET_MILLIS = 5;
+  static final long DEFAULT_INTERVAL_MILLIS = 100;
+  private static final CommandPriority[] PRIORITIES = CommandPriority.values();
+  private static final int MAX_SHED_LEVEL = CommandPriority.CRITICAL.ordinal();
+
+  private final long targetNanos;
+  private final long intervalNanos;
+  private final LongAdder[] shed = new LongAdder[PRIORITIES.length];
+
+  // Commands with a priority below this level are shed, read without locking while dispatching.
+  private volatile int shedLevel;
+  private volatile long lastSampleAt = System.nanoTime();
+  private long intervalStart = System.nanoTime();
+  private long minWait = Long.MAX_VALUE;
+
+  OverloadController(long target, long interval, TimeUnit unit) {
+    this.targetNanos = unit.toNanos(target);
+    this.intervalNanos = unit.toNanos(interval);
+    for (int i = 0; i < shed.length; i++) {
+      shed[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Decides whether a command of the given priority may be handed off to the executor.
+   *
+   * @param priority
+   *     The priority of the command
+   *
+   * @return <code>true</code> if the command may be executed, <code>false</code> if it is shed
+   */
+  boolean admit(CommandPriority priority) {
+    int level = shedLevel;
+    if (level == 0 || priority.ordinal() >= level) {
+      return true;
+    }
+
+    // If everything below the level was shed, no command waits anymore and no waiting time is measured. Every whole
+    // interval without any measurement counts as an interval in which the queue drained.
+    long now = System.nanoTime();
+    if (now - lastSampleAt >= intervalNanos) {
+      synchronized (this) {
+        long idleIntervals = (now - lastSampleAt) / intervalNanos;
+        if (idleIntervals > 0) {
+          shedLevel = (int) Math.max(shedLevel - idleIntervals, 0);
+          lastSampleAt = now;
+        }
+      }
+
+      return admit(priority);
+    }
+
+    shed[priority.ordinal()].increment();
+    return false;
+  }
+
+  /**
+   * Records how long a command waited for a thread of the executor.
+   *
+   * @param waitNanos
+   *     The time between handing off the command and starting it
+   * @param now
+   *     The value of {@link System#nanoTime()} when the command was started
+   */
+  synchronized void recordWait(long waitNanos, long now) {
+    lastSampleAt = now;
+    minWait = Math.min(minWait, waitNanos);
+    if (now - intervalStart < intervalNanos) {
+      return;
+    }
+
+    if (minWait > targetNanos) {
+      shedLevel = Math.min(shedLevel + 1, MAX_SHED_LEVEL);
+    } else if (shedLevel > 0) {
+      shedLevel--;
+    }
+
+    intervalStart = now;
+    minWait = Long.MAX_VALUE;
+  }
+
+  /**
+   * Returns how many commands were shed so far.
+   *
+   * @return A {@link Map} of the number of shed commands by priority
+   */
+  Map<CommandPriority, Long> getShed() {
+    Map<CommandPriority, Long> counts = new EnumMap<>(CommandPriority.class);
+    for (CommandPriority priority : PRIORITIES) {
+      counts.put(priority, shed[priority.ordinal()].sum());
+    }
+
+    return counts;
+  }
+}
@@ -0,0 +1,244 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.handler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves which prefix a message starts with, taking global, mention and guild specific prefixes into account.
+ * <p>
+ * Every guild with custom prefixes gets its own {@link PrefixTrie}, all other guilds share the global one. The mention
+ * of the bot is part of every trie if enabled. Thus resolving a prefix is a single lookup of the guild followed by a
+ * single walk through one trie.
+ * </p>
+ * <p>
+ * Note that custom prefixes of a guild replace the global prefixes for this guild.
+ * </p>
+ * <p>
+ * Additionally, the first character of every prefix of any guild is kept in a bitmap. Most messages are plain chat
+ * which does not start with any of these characters, so they can be dropped by a single bit test.
+ * </p>
+ */
+final class PrefixMatcher {
+
+  private final Set<String> globalPrefixes = new LinkedHashSet<>();
+  private final Map<Long, Set<String>> guildPrefixes = new HashMap<>();
+  private final Map<Long, PrefixTrie> guildTries = new ConcurrentHashMap<>();
+  private volatile PrefixTrie globalTrie = PrefixTrie.EMPTY;
+  private volatile boolean mentionPrefix;
+  private volatile long selfUserId;
+  private final Map<Character, Integer> firstCharacterCounts = new HashMap<>();
+  private volatile long[] firstCharacters = new long[(Character.MAX_VALUE + 1) / Long.SIZE];
+
+  /**
+   * Adds a prefix which is used in every guild without custom prefixes.
+   *
+   * @param prefix
+   *     The prefix to add
+   *
+   * @throws IllegalArgumentException
+   *     If the prefix is <code>null</code> or empty
+   */
+  synchronized void addGlobalPrefix(String prefix) {
+    if (globalPrefixes.add(requireValid(prefix))) {
+      countFirstCharacter(prefix, 1);
+    }
+
+    globalTrie = new PrefixTrie(withMention(globalPrefixes));
+  }
+
+  /**
+   * Removes all global prefixes.
+   */
+  synchronized void clearGlobalPrefixes() {
+    globalPrefixes.forEach(prefix -> countFirstCharacter(prefix, -1));
+    globalPrefixes.clear();
+    globalTrie = new PrefixTrie(withMention(globalPrefixes));
+  }
+
+  /**
+   * Defines whether mentioning the bot can be used as prefix.
+   *
+   * @param mentionPrefix
+   *     Whether the mention of the bot followed by a space is a valid prefix
+   */
+  void setMentionPrefix(boolean mentionPrefix) {
+    this.mentionPrefix = mentionPrefix;
+  }
+
+  /**
+   * Returns whether the mention prefix is enabled but the id of the bot is not known yet.
+   *
+   * @return <code>true</code> if {@link #setSelfUserId(long)} still needs to be called
+   */
+  boolean needsSelfUserId() {
+    return mentionPrefix && selfUserId == 0;
+  }
+
+  /**
+   * Sets the id of the bot which is needed to build the mention prefixes and rebuilds all tries.
+   *
+   * @param selfUserId
+   *     The id of the bot user
+   */
+  synchronized void setSelfUserId(long selfUserId) {
+    if (this.selfUserId == selfUserId) {
+      return;
+    }
+
+    this.selfUserId = selfUserId;
+    globalTrie = new PrefixTrie(withMention(globalPrefixes));
+    guildPrefixes.forEach((guildId, custom) -> guildTries.put(guildId, new PrefixTrie(withMention(custom))));
+  }
+
+  /**
+   * Replaces the prefixes of a single guild.
+   *
+   * @param guildId
+   *     The id of the guild
+   * @param prefixes
+   *     The prefixes which should be used in this guild instead of the global ones
+   *
+   * @throws IllegalArgumentException
+   *     If no prefix or an empty prefix is provided
+   */
+  synchronized void setGuildPrefixes(long guildId, String... prefixes) {
+    if (prefixes == null || prefixes.length == 0) {
+      throw new IllegalArgumentException("At least one prefix must be provided!");
+    }
+
+    Set<String> custom = new LinkedHashSet<>();
+    for (String prefix : prefixes) {
+      custom.add(requireValid(prefix));
+    }
+
+    custom.forEach(prefix -> countFirstCharacter(prefix, 1));
+    Set<String> previous = guildPrefixes.put(guildId, custom);
+    if (previous != null) {
+      previous.forEach(prefix -> countFirstCharacter(prefix, -1));
+    }
+
+    guildTries.put(guildId, new PrefixTrie(withMention(custom)));
+  }
+
+  /**
+   * Removes the custom prefixes of a guild, so the global ones apply again.
+   *
+   * @param guildId
+   *     The id of the guild
+   */
+  synchronized void resetGuildPrefixes(long guildId) {
+    Set<String> previous = guildPrefixes.remove(guildId);
+    if (previous != null) {
+      previous.forEach(prefix -> countFirstCharacter(prefix, -1));
+    }
+
+    guildTries.remove(guildId);
+  }
+
+  /**
+   * Returns the prefixes which can be used in a guild, excluding the mention of the bot.
+   *
+   * @param guildId
+   *     The id of the guild
+   *
+   * @return A {@link List} of all usable prefixes
+   */
+  synchronized List<String> getPrefixes(long guildId) {
+    return new ArrayList<>(guildPrefixes.getOrDefault(guildId, globalPrefixes));
+  }
+
+  /**
+   * Checks whether the content may start with a prefix of any guild, only looking at its first character.
+   *
+   * @param content
+   *     The raw content of the message
+   *
+   * @return <code>false</code> if the content cannot start with any prefix
+   */
+  boolean mayMatch(String content) {
+    if (content.isEmpty()) {
+      return false;
+    }
+
+    char first = content.charAt(0);
+    return (mentionPrefix && first == '<') || (firstCharacters[first >>> 6] & (1L << first)) != 0;
+  }
+
+  /**
+   * Finds the longest prefix the content starts with.
+   *
+   * @param guildId
+   *     The id of the guild the message was sent in
+   * @param content
+   *     The raw content of the message
+   *
+   * @return The length of the matched prefix or <code>-1</code> if there is none
+   */
+  int match(long guildId, String content) {
+    PrefixTrie trie = guildTries.isEmpty() ? null : guildTries.get(guildId);
+    return (trie == null ? globalTrie : trie).match(content);
+  }
+
+  private List<String> withMention(Set<String> prefixes) {
+    List<String> all = new ArrayList<>(prefixes);
+    if (mentionPrefix && selfUserId != 0) {
+      all.add("<@" + selfUserId + "> ");
+      all.add("<@!" + selfUserId + "> ");
+    }
+
+    return all;
+  }
+
+  // Only called while holding the lock. The bitmap is copied whenever a bit changes, which only happens if the first
+  // prefix starting with a character is added or the last one is removed.
+  private void countFirstCharacter(String prefix, int delta) {
+    char first = prefix.charAt(0);
+    int count = firstCharacterCounts.merge(first, delta, Integer::sum);
+    if (count == 0) {
+      firstCharacterCounts.remove(first);
+    }
+
+    if (count == 0 || (count == 1 && delta == 1)) {
+      long[] bitmap = firstCharacters.clone();
+      bitmap[first >>> 6] ^= 1L << first;
+      firstCharacters = bitmap;
+    }
+  }
+
+  private static String requireValid(String prefix) {
+    if (prefix == null || prefix.isEmpty()) {
+      throw new IllegalArgumentException("The prefix must neither be null nor empty!");
+    }
+
+    return prefix;
+  }
+}
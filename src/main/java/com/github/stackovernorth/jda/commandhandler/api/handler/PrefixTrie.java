@@ -0,0 +1,124 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.handler;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An immutable trie of prefixes which finds the longest prefix a message starts with.
+ * <p>
+ * Matching walks the trie once along the start of the message, so it only takes as long as the matched prefix, no
+ * matter how many prefixes the trie contains. Every node stores its children in a sorted array, thus rejecting a
+ * message is a single binary search on the first character and does not allocate anything.
+ * </p>
+ */
+final class PrefixTrie {
+
+  static final PrefixTrie EMPTY = new PrefixTrie(Collections.emptyList());
+
+  private final Node root;
+
+  PrefixTrie(Collection<String> prefixes) {
+    NodeBuilder rootBuilder = new NodeBuilder();
+    for (String prefix : prefixes) {
+      NodeBuilder node = rootBuilder;
+      for (int i = 0; i < prefix.length(); i++) {
+        node = node.children.computeIfAbsent(prefix.charAt(i), c -> new NodeBuilder());
+      }
+
+      node.terminal = true;
+    }
+
+    this.root = rootBuilder.build();
+  }
+
+  /**
+   * Finds the longest prefix the given content starts with.
+   *
+   * @param content
+   *     The raw content of a message
+   *
+   * @return The length of the longest matching prefix or <code>-1</code> if the content starts with none of them
+   */
+  int match(String content) {
+    Node node = root;
+    int longest = -1;
+    int length = content.length();
+    for (int i = 0; ; i++) {
+      if (node.terminal) {
+        longest = i;
+      }
+
+      if (i == length) {
+        return longest;
+      }
+
+      node = node.child(content.charAt(i));
+      if (node == null) {
+        return longest;
+      }
+    }
+  }
+
+  private static final class Node {
+
+    private final char[] keys;
+    private final Node[] children;
+    private final boolean terminal;
+
+    private Node(char[] keys, Node[] children, boolean terminal) {
+      this.keys = keys;
+      this.children = children;
+      this.terminal = terminal;
+    }
+
+    private Node child(char c) {
+      int index = Arrays.binarySearch(keys, c);
+      return index < 0 ? null : children[index];
+    }
+  }
+
+  private static final class NodeBuilder {
+
+    private final Map<Character, NodeBuilder> children = new TreeMap<>();
+    private boolean terminal;
+
+    private Node build() {
+      char[] keys = new char[children.size()];
+      Node[] nodes = new Node[children.size()];
+      int index = 0;
+      for (Map.Entry<Character, NodeBuilder> entry : children.entrySet()) {
+        keys[index] = entry.getKey();
+        nodes[index++] = entry.getValue().build();
+      }
+
+      return new Node(keys, nodes, terminal);
+    }
+  }
+}
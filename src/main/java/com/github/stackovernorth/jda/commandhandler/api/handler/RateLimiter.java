@@ -0,0 +1,100 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.handler;
+
+import com.github.stackovernorth.jda.commandhandler.api.command.RateLimit;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Enforces the {@link RateLimit} of a single command.
+ * <p>
+ * Every bucket is a single timestamp, the theoretical arrival time of the next invocation (also known as the generic
+ * cell rate algorithm). Taking a token is one compare-and-set of this timestamp, so no locks are needed. A bucket whose
+ * timestamp lies in the past is full again and can be dropped, which is how idle buckets expire. Once the number of
+ * buckets reaches its bound, expired buckets are removed and, if that is not enough, some of the remaining ones.
+ * </p>
+ */
+final class RateLimiter {
+
+  static final int DEFAULT_MAX_BUCKETS = 100_000;
+
+  private final long emissionInterval;
+  private final long burstTolerance;
+  private final int maxBuckets;
+  private final Map<Long, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+  RateLimiter(RateLimit rateLimit, int maxBuckets) {
+    this.emissionInterval = Math.max(rateLimit.getPeriod(TimeUnit.NANOSECONDS) / rateLimit.getPermits(), 1);
+    this.burstTolerance = emissionInterval * (rateLimit.getPermits() - 1);
+    this.maxBuckets = maxBuckets;
+  }
+
+  /**
+   * Tries to take a token from the bucket of the given key.
+   *
+   * @param key
+   *     The id of the user, channel or guild, depending on the scope of the limit
+   *
+   * @return <code>true</code> if the invocation is allowed, <code>false</code> if it is rate limited
+   */
+  boolean tryAcquire(long key) {
+    long now = System.nanoTime();
+    AtomicLong bucket = buckets.get(key);
+    if (bucket == null) {
+      if (buckets.size() >= maxBuckets) {
+        evict(now);
+      }
+
+      bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+
+    while (true) {
+      long arrival = bucket.get();
+      long base = arrival - now < 0 ? now : arrival;
+      if (base - burstTolerance - now > 0) {
+        return false;
+      }
+
+      if (bucket.compareAndSet(arrival, base + emissionInterval)) {
+        return true;
+      }
+    }
+  }
+
+  private void evict(long now) {
+    buckets.entrySet().removeIf(entry -> entry.getValue().get() - now <= 0);
+
+    // If most buckets are still in use, drop some anyway to keep the memory bounded.
+    Iterator<Long> keys = buckets.keySet().iterator();
+    while (buckets.size() > maxBuckets * 3 / 4 && keys.hasNext()) {
+      keys.next();
+      keys.remove();
+    }
+  }
+}
@@ -0,0 +1,313 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.handler;
+
+import com.github.stackovernorth.jda.commandhandler.api.command.Command;
+import com.github.stackovernorth.jda.commandhandler.api.command.RateLimit;
+import com.github.stackovernorth.jda.commandhandler.api.command.RateLimitScope;
+import com.github.stackovernorth.jda.commandhandler.api.command.RejectionReason;
+import com.github.stackovernorth.jda.commandhandler.api.config.CommandOverride;
+import com.github.stackovernorth.jda.commandhandler.api.interceptor.CommandInterceptor;
+import com.github.stackovernorth.jda.commandhandler.api.interceptor.InterceptorChain;
+import com.github.stackovernorth.jda.commandhandler.api.metrics.CommandMetrics;
+import com.github.stackovernorth.jda.commandhandler.util.NameIndex;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import net.dv8tion.jda.api.entities.TextChannel;
+import net.dv8tion.jda.api.entities.User;
+
+/**
+ * A command as it is registered to a {@link CommandRegistry}, holding the runtime state the handler needs for it.
+ * <p>
+ * An instance is created once when the command is registered and is looked up instead of the plain {@link Command}
+ * while dispatching, so all per-command state is reachable without another lookup.
+ * </p>
+ * <p>
+ * Sub-commands are registered along with their parent, each with its own state. Every level of the tree indexes its
+ * children by name and alias, so routing a message through the tree costs one lookup per level.
+ * </p>
+ */
+final class RegisteredCommand {
+
+  final Command command;
+  final String path;
+  private final List<RegisteredCommand> children;
+  private final NameIndex<RegisteredCommand> childIndex;
+  private final int maxConcurrency;
+  private final AtomicInteger running = new AtomicInteger();
+  private final RateLimitScope rateLimitScope;
+  private final RateLimiter rateLimiter;
+  private final Map<Long, GuildCooldown> guildCooldowns = new ConcurrentHashMap<>();
+  final ResultCache resultCache;
+
+  // The global interceptors followed by those of the command composed into a chain, null if there are none. Replaced
+  // whenever a global interceptor is added, which may happen while messages are dispatched.
+  volatile InterceptorChain interceptors;
+
+  // Set once when metrics are enabled, which may happen while messages are dispatched.
+  volatile CommandMetrics metrics;
+
+  RegisteredCommand(Command command, String path) {
+    this.command = command;
+    this.path = path;
+    this.maxConcurrency = command.getMaxConcurrency();
+
+    RateLimit rateLimit = command.getRateLimit();
+    this.rateLimitScope = rateLimit == null ? null : rateLimit.getScope();
+    this.rateLimiter = rateLimit == null ? null : new RateLimiter(rateLimit, RateLimiter.DEFAULT_MAX_BUCKETS);
+    this.resultCache = command.getCachePolicy() == null ? null : new ResultCache(command.getCachePolicy());
+
+    List<RegisteredCommand> children = new ArrayList<>();
+    Map<String, RegisteredCommand> childIndex = new HashMap<>();
+    for (Command subCommand : command.getSubCommands()) {
+      RegisteredCommand child = new RegisteredCommand(subCommand, path + " " + subCommand.getCommandName());
+      children.add(child);
+      childIndex.put(subCommand.getCommandName(), child);
+      subCommand.getCommandAliases().forEach(alias -> childIndex.putIfAbsent(alias, child));
+    }
+
+    this.children = Collections.unmodifiableList(children);
+    this.childIndex = children.isEmpty() ? null : new NameIndex<>(childIndex);
+  }
+
+  /**
+   * Returns the sub-command registered under the name found in the given region of a String.
+   *
+   * @param content
+   *     The String containing the name, e.g. the raw content of a message
+   * @param start
+   *     The index of the first character of the name (inclusive)
+   * @param end
+   *     The index after the last character of the name (exclusive)
+   *
+   * @return The corresponding sub-command or <code>null</code> if the command has no such sub-command
+   */
+  RegisteredCommand subCommand(String content, int start, int end) {
+    return childIndex == null || start == end ? null : childIndex.get(content, start, end);
+  }
+
+  /**
+   * Performs the given action for this command and all of its sub-commands, parents first.
+   *
+   * @param action
+   *     The action to perform
+   */
+  void forEachInTree(Consumer<RegisteredCommand> action) {
+    action.accept(this);
+    children.forEach(child -> child.forEachInTree(action));
+  }
+
+  /**
+   * Composes the given global interceptors and the interceptors of the command into the chain used while dispatching.
+   *
+   * @param globalInterceptors
+   *     The interceptors of the handler, which are called first
+   */
+  void compileInterceptors(List<CommandInterceptor> globalInterceptors) {
+    List<CommandInterceptor> interceptors = new ArrayList<>(globalInterceptors);
+    interceptors.addAll(command.getInterceptors());
+    this.interceptors = interceptors.isEmpty() ? null : InterceptorChain.compose(interceptors);
+  }
+
+  /**
+   * Checks the rate limit of the command and takes a token if the invocation is allowed.
+   *
+   * @param author
+   *     The author of the message
+   * @param channel
+   *     The channel the message was sent in
+   *
+   * @return <code>true</code> if the invocation is allowed, <code>false</code> if it is rate limited
+   */
+  boolean tryRateLimit(User author, TextChannel channel) {
+    return rateLimiter == null || rateLimiter.tryAcquire(scopeId(rateLimitScope, author, channel));
+  }
+
+  /**
+   * Checks the rate limit of the command, or the cooldown configured for the guild instead, and takes a token if the
+   * invocation is allowed.
+   * <p>
+   * A configured cooldown uses the scope of the rate limit of the command, or is per user if the command has none.
+   * Every guild gets its own limiter, which is replaced once the configured cooldown changes.
+   * </p>
+   *
+   * @param author
+   *     The author of the message
+   * @param channel
+   *     The channel the message was sent in
+   * @param override
+   *     The settings of the command overridden within the guild, may be <code>null</code>
+   *
+   * @return <code>true</code> if the invocation is allowed, <code>false</code> if it is rate limited
+   */
+  boolean tryRateLimit(User author, TextChannel channel, CommandOverride override) {
+    Long cooldown = override == null ? null : override.getCooldown(TimeUnit.MILLISECONDS);
+    if (cooldown == null) {
+      return tryRateLimit(author, channel);
+    }
+
+    if (cooldown == 0) {
+      return true;
+    }
+
+    GuildCooldown guildCooldown = guildCooldown(channel.getGuild().getIdLong(), cooldown);
+    return guildCooldown.rateLimiter.tryAcquire(scopeId(guildCooldown.rateLimit.getScope(), author, channel));
+  }
+
+  /**
+   * Returns the rate limit which applies to the command within a guild.
+   *
+   * @param guildId
+   *     The id of the guild
+   * @param override
+   *     The settings of the command overridden within the guild, may be <code>null</code>
+   *
+   * @return The cooldown configured for the guild, the rate limit of the command if none is configured or
+   *     <code>null</code> if the command is not limited
+   */
+  RateLimit rateLimit(long guildId, CommandOverride override) {
+    Long cooldown = override == null ? null : override.getCooldown(TimeUnit.MILLISECONDS);
+    if (cooldown == null) {
+      return command.getRateLimit();
+    }
+
+    return cooldown == 0 ? null : guildCooldown(guildId, cooldown).rateLimit;
+  }
+
+  /**
+   * Forgets the cooldown configured for a guild, e.g. because the bot left it.
+   *
+   * @param guildId
+   *     The id of the guild
+   */
+  void releaseGuild(long guildId) {
+    guildCooldowns.remove(guildId);
+  }
+
+  private GuildCooldown guildCooldown(long guildId, long cooldown) {
+    GuildCooldown guildCooldown = guildCooldowns.get(guildId);
+    if (guildCooldown != null && guildCooldown.millis == cooldown) {
+      return guildCooldown;
+    }
+
+    // Concurrent invocations must end up with the same limiter, otherwise each of them could pass its own.
+    return guildCooldowns.compute(guildId, (id, current) -> {
+      if (current != null && current.millis == cooldown) {
+        return current;
+      }
+
+      RateLimitScope scope = rateLimitScope == null ? RateLimitScope.USER : rateLimitScope;
+      return new GuildCooldown(cooldown, new RateLimit(1, cooldown, TimeUnit.MILLISECONDS, scope));
+    });
+  }
+
+  /**
+   * Tries to reserve a slot for one more concurrent invocation of the command.
+   *
+   * @return <code>true</code> if the invocation may run, <code>false</code> if the concurrency limit is reached
+   */
+  boolean tryAcquire() {
+    if (maxConcurrency <= 0) {
+      return true;
+    }
+
+    int current;
+    do {
+      current = running.get();
+      if (current >= maxConcurrency) {
+        return false;
+      }
+    } while (!running.compareAndSet(current, current + 1));
+
+    return true;
+  }
+
+  /**
+   * Records that the command matched but was not executed, if metrics are enabled.
+   *
+   * @param reason
+   *     The reason why the command was not executed
+   */
+  void recordRejection(RejectionReason reason) {
+    CommandMetrics commandMetrics = metrics;
+    if (commandMetrics != null) {
+      commandMetrics.recordRejection(reason);
+    }
+  }
+
+  /**
+   * Frees a slot previously reserved via {@link #tryAcquire()}.
+   */
+  void release() {
+    if (maxConcurrency > 0) {
+      running.decrementAndGet();
+    }
+  }
+
+  /**
+   * Returns the id of whoever shares a limit with the given scope.
+   *
+   * @param scope
+   *     The scope of the limit
+   * @param author
+   *     The author of the message
+   * @param channel
+   *     The channel the message was sent in
+   *
+   * @return The id of the user, channel or guild, or <code>0</code> if the limit is global
+   */
+  static long scopeId(RateLimitScope scope, User author, TextChannel channel) {
+    switch (scope) {
+      case USER:
+        return author.getIdLong();
+      case CHANNEL:
+        return channel.getIdLong();
+      case GUILD:
+        return channel.getGuild().getIdLong();
+      default:
+        return 0L;
+    }
+  }
+
+  private static final class GuildCooldown {
+
+    private final long millis;
+    private final RateLimit rateLimit;
+    private final RateLimiter rateLimiter;
+
+    private GuildCooldown(long millis, RateLimit rateLimit) {
+      this.millis = millis;
+      this.rateLimit = rateLimit;
+      this.rateLimiter = new RateLimiter(rateLimit, RateLimiter.DEFAULT_MAX_BUCKETS);
+    }
+  }
+}
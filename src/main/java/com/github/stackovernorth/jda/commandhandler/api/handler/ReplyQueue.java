@@ -0,0 +1,192 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.handler;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import net.dv8tion.jda.api.entities.TextChannel;
+
+/**
+ * Sends replies of commands with at most one request per channel at a time.
+ * <p>
+ * Sending every reply right away lets requests pile up in JDA during bursts, which then run into the rate limits of
+ * Discord. Instead, only one message per channel is sent at a time. Replies which arrive in the meantime are combined
+ * into as few messages as possible and sent once the previous message was sent. Thus a burst of short replies results
+ * in a few long messages, and a single reply is still sent without any delay.
+ * </p>
+ * <p>
+ * The number of replies waiting per channel is limited. Once a channel reaches the limit, further replies are dropped
+ * and commands used in that channel are rejected with {@link
+ * com.github.stackovernorth.jda.commandhandler.api.command.RejectionReason#REPLY_BACKLOG} until the backlog was sent.
+ * </p>
+ */
+public final class ReplyQueue {
+
+  /**
+   * The maximum length of a single message.
+   */
+  public static final int MAX_MESSAGE_LENGTH = 2000;
+
+  private final int maxPending;
+  private final ConcurrentMap<Long, ChannelQueue> channels = new ConcurrentHashMap<>();
+
+  ReplyQueue(int maxPending) {
+    this.maxPending = maxPending;
+  }
+
+  /**
+   * Queues a reply to the given channel.
+   * <p>
+   * Replies longer than {@link #MAX_MESSAGE_LENGTH} are split into several messages.
+   * </p>
+   *
+   * @param channel
+   *     The channel to reply in
+   * @param content
+   *     The content of the reply
+   *
+   * @return <code>true</code> if the reply was queued, <code>false</code> if it was dropped since too many replies are
+   *     waiting for this channel
+   *
+   * @throws IllegalArgumentException
+   *     If the channel is <code>null</code> or the content is <code>null</code> or empty
+   */
+  public boolean reply(TextChannel channel, String content) {
+    if (channel == null || content == null || content.isEmpty()) {
+      throw new IllegalArgumentException("The channel and content must not be null or empty!");
+    }
+
+    while (true) {
+      ChannelQueue queue = channels.computeIfAbsent(channel.getIdLong(), id -> new ChannelQueue());
+      Boolean queued = queue.offer(channel, content);
+      if (queued != null) {
+        return queued;
+      }
+
+      // The queue was closed right after it became idle, so a new one is created.
+    }
+  }
+
+  /**
+   * Returns how many replies are waiting to be sent to the given channel.
+   *
+   * @param channelId
+   *     The id of the channel
+   *
+   * @return The number of waiting replies
+   */
+  public int getPending(long channelId) {
+    ChannelQueue queue = channels.get(channelId);
+    return queue == null ? 0 : queue.size;
+  }
+
+  /**
+   * Checks whether the backlog of a channel reached the limit, so commands used in it should not be executed.
+   *
+   * @param channel
+   *     The channel the command was used in
+   *
+   * @return <code>true</code> if the channel cannot take any more replies
+   */
+  boolean isCongested(TextChannel channel) {
+    if (channels.isEmpty()) {
+      return false;
+    }
+
+    ChannelQueue queue = channels.get(channel.getIdLong());
+    return queue != null && queue.size >= maxPending;
+  }
+
+  /**
+   * The replies waiting for a single channel.
+   * <p>
+   * Once all replies were sent, the queue removes itself, so only channels with pending replies take up memory.
+   * </p>
+   */
+  private final class ChannelQueue {
+
+    private final ArrayDeque<String> pending = new ArrayDeque<>();
+    private volatile int size;
+    private TextChannel channel;
+    private boolean sending;
+    private boolean closed;
+
+    private synchronized Boolean offer(TextChannel channel, String content) {
+      if (closed) {
+        return null;
+      }
+
+      int parts = (content.length() + MAX_MESSAGE_LENGTH - 1) / MAX_MESSAGE_LENGTH;
+      if (size + parts > maxPending) {
+        return false;
+      }
+
+      for (int start = 0; start < content.length(); start += MAX_MESSAGE_LENGTH) {
+        pending.add(content.substring(start, Math.min(start + MAX_MESSAGE_LENGTH, content.length())));
+      }
+
+      size = pending.size();
+      this.channel = channel;
+      if (!sending) {
+        sending = true;
+        sendNext();
+      }
+
+      return true;
+    }
+
+    private synchronized void sent() {
+      if (pending.isEmpty()) {
+        sending = false;
+        closed = true;
+        channels.remove(channel.getIdLong(), this);
+      } else {
+        sendNext();
+      }
+    }
+
+    // Combines as many waiting replies as fit into a single message, separated by line breaks.
+    private void sendNext() {
+      StringBuilder message = new StringBuilder(pending.poll());
+      while (!pending.isEmpty() && message.length() + 1 + pending.peek().length() <= MAX_MESSAGE_LENGTH) {
+        message.append('\n').append(pending.poll());
+      }
+
+      size = pending.size();
+
+      // Failures are not retried, JDA already retries requests which hit a rate limit.
+      try {
+        channel.sendMessage(message).queue(success -> sent(), failure -> sent());
+      } catch (RuntimeException e) {
+        // JDA throws right away if the bot lacks access to the channel. The message is dropped like a failed request,
+        // otherwise the queue would stay busy and reject every further command in the channel.
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        sent();
+      }
+    }
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.handler;
+
+import com.github.stackovernorth.jda.commandhandler.api.command.CachePolicy;
+import com.github.stackovernorth.jda.commandhandler.api.command.CacheScope;
+import com.github.stackovernorth.jda.commandhandler.listener.CacheableCommandListener;
+import com.github.stackovernorth.jda.commandhandler.util.WeightedLruCache;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.TextChannel;
+
+/**
+ * Caches the replies of a command using a {@link CacheableCommandListener}.
+ * <p>
+ * Replies are cached by the scope of the cache and the arguments of the command, joined by single spaces so the
+ * amount of whitespace between them does not matter. While a reply is being created, identical invocations wait for
+ * it instead of calling the listener again.
+ * </p>
+ */
+final class ResultCache {
+
+  private final CacheScope scope;
+  private final WeightedLruCache<String, Message> replies;
+  private final ConcurrentMap<String, CompletableFuture<Message>> running = new ConcurrentHashMap<>();
+
+  ResultCache(CachePolicy cachePolicy) {
+    this.scope = cachePolicy.getScope();
+    this.replies = new WeightedLruCache<>(cachePolicy.getMaxEntries(), cachePolicy.getMaxWeight(),
+        cachePolicy.getTtl(TimeUnit.NANOSECONDS), ResultCache::weightOf);
+  }
+
+  /**
+   * Sends the cached reply for the given invocation, or creates it via the listener if there is none.
+   *
+   * @param listener
+   *     The listener creating the reply
+   * @param sender
+   *     The sender of the message
+   * @param channel
+   *     The channel the message was sent from
+   * @param message
+   *     The message as object
+   * @param args
+   *     The arguments of the message
+   */
+  void respond(CacheableCommandListener listener, Member sender, TextChannel channel, Message message, String[] args) {
+    String key = keyOf(channel, message, args);
+    Message cached = replies.get(key);
+    if (cached != null) {
+      send(channel, cached);
+      return;
+    }
+
+    CompletableFuture<Message> reply = new CompletableFuture<>();
+    CompletableFuture<Message> pending = running.putIfAbsent(key, reply);
+    if (pending != null) {
+      // If creating the reply fails, the failure is already reported by the invocation creating it.
+      pending.thenAccept(created -> send(channel, created));
+      return;
+    }
+
+    try {
+      Message created = listener.onCommand(sender, channel, message, args);
+      if (created != null) {
+        replies.put(key, created);
+      }
+
+      reply.complete(created);
+      send(channel, created);
+    } catch (RuntimeException | Error e) {
+      reply.completeExceptionally(e);
+      throw e;
+    } finally {
+      running.remove(key, reply);
+    }
+  }
+
+  /**
+   * Sends a reply created by a {@link CacheableCommandListener}.
+   *
+   * @param channel
+   *     The channel to send the reply to
+   * @param reply
+   *     The reply or <code>null</code> if nothing should be sent
+   */
+  static void send(TextChannel channel, Message reply) {
+    if (reply != null) {
+      channel.sendMessage(reply).queue();
+    }
+  }
+
+  private String keyOf(TextChannel channel, Message message, String[] args) {
+    long scopeId;
+    switch (scope) {
+      case USER:
+        scopeId = message.getAuthor().getIdLong();
+        break;
+      case CHANNEL:
+        scopeId = channel.getIdLong();
+        break;
+      case GUILD:
+        scopeId = channel.getGuild().getIdLong();
+        break;
+      default:
+        scopeId = 0;
+    }
+
+    return scopeId + ":" + String.join(" ", args);
+  }
+
+  private static long weightOf(Message reply) {
+    long weight = reply.getContentRaw().length();
+    for (MessageEmbed embed : reply.getEmbeds()) {
+      weight += embed.getLength();
+    }
+
+    return weight;
+  }
+}
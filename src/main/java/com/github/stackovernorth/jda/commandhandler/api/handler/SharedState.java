@@ -0,0 +1,213 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.github.stackovernorth.jda.commandhandler.api.handler;
+
+import com.github.stackovernorth.jda.commandhandler.api.command.RateLimit;
+import com.github.stackovernorth.jda.commandhandler.api.config.CommandOverride;
+import com.github.stackovernorth.jda.commandhandler.api.state.StateBackend;
+import com.github.stackovernorth.jda.commandhandler.api.state.StateBatch;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import net.dv8tion.jda.api.entities.TextChannel;
+import net.dv8tion.jda.api.entities.User;
+
+/**
+ * Checks the limits of a command against a {@link StateBackend} shared by all processes of the bot.
+ * <p>
+ * The rate limit and the deduplication of an invocation are sent as a single batch, so every invocation costs at most
+ * one round trip. Rate limits are counted in fixed windows of their period, starting with the first invocation. The
+ * check never blocks: its outcome completes once the backend answered, or once the timeout elapsed.
+ * </p>
+ * <p>
+ * If the backend fails or does not answer in time, the circuit opens and the limits of the current process are used
+ * instead, right away and without asking the backend. While it is open, a single invocation every few seconds probes
+ * whether the backend is available again. Only the failure opening the circuit is reported to the uncaught exception
+ * handler.
+ * </p>
+ */
+final class SharedState {
+
+  static final long DEFAULT_TIMEOUT_MILLIS = 500;
+  static final long PROBE_INTERVAL_MILLIS = 5000;
+
+  /**
+   * The outcome of checking an invocation against the shared state.
+   */
+  enum Outcome {
+    ALLOWED,
+    DUPLICATE,
+    RATE_LIMITED,
+    UNAVAILABLE
+  }
+
+  private static final CompletableFuture<Outcome> ALLOWED = CompletableFuture.completedFuture(Outcome.ALLOWED);
+  private static final CompletableFuture<Outcome> UNAVAILABLE = CompletableFuture.completedFuture(Outcome.UNAVAILABLE);
+
+  final StateBackend backend;
+  private final long timeoutMillis;
+  private final ScheduledExecutorService timeouts;
+  private volatile boolean open;
+  // While the circuit is open, the first invocation after this time probes the backend.
+  private final AtomicLong nextProbe = new AtomicLong();
+
+  SharedState(StateBackend backend, long timeout, TimeUnit unit) {
+    this.backend = backend;
+    this.timeoutMillis = Math.max(1, unit.toMillis(timeout));
+    this.timeouts = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "CommandHandler-SharedState");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Returns the key under which the processes share that a message triggered a command with the given content.
+   *
+   * @param messageId
+   *     The id of the message
+   * @param content
+   *     The raw content of the message
+   *
+   * @return The key of the message
+   */
+  static String dedupKey(long messageId, String content) {
+    return "message:" + messageId + ":" + Integer.toHexString(content.hashCode());
+  }
+
+  /**
+   * Takes a token from the shared rate limit of a command and marks its message as dispatched.
+   * <p>
+   * The returned future is completed on the thread of the backend or of the timeout, so anything depending on it should
+   * hand off its work to an executor.
+   * </p>
+   *
+   * @param registered
+   *     The command which will be executed
+   * @param author
+   *     The user who used the command
+   * @param channel
+   *     The channel the command was used in
+   * @param override
+   *     The settings of the command overridden within the guild, may be <code>null</code>
+   * @param dedupKey
+   *     The key of the message, <code>null</code> if it is not deduplicated
+   * @param dedupWindowMillis
+   *     How long the message is remembered
+   *
+   * @return A {@link CompletableFuture} of the {@link Outcome} of the check
+   */
+  CompletableFuture<Outcome> check(RegisteredCommand registered, User author, TextChannel channel,
+      CommandOverride override, String dedupKey, long dedupWindowMillis) {
+    long guildId = channel.getGuild().getIdLong();
+    RateLimit rateLimit = registered.rateLimit(guildId, override);
+    if (rateLimit == null && dedupKey == null) {
+      return ALLOWED;
+    }
+
+    if (open && !tryProbe()) {
+      return UNAVAILABLE;
+    }
+
+    StateBatch batch = new StateBatch();
+    if (dedupKey != null) {
+      batch.increment(dedupKey, 1, dedupWindowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    if (rateLimit != null) {
+      // Cooldowns configured for a guild are separate from the rate limit of the command.
+      long scopeId = RegisteredCommand.scopeId(rateLimit.getScope(), author, channel);
+      String key = rateLimit == registered.command.getRateLimit() ? "rate:" + registered.path + ":" + scopeId
+          : "cooldown:" + guildId + ":" + registered.path + ":" + scopeId;
+      batch.increment(key, rateLimit.getPermits(), rateLimit.getPeriod(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS);
+    }
+
+    CompletableFuture<Outcome> outcome = new CompletableFuture<>();
+    ScheduledFuture<?> timeout = timeouts.schedule(() -> {
+      if (outcome.complete(Outcome.UNAVAILABLE)) {
+        failed(new TimeoutException("The shared state did not answer within " + timeoutMillis + " milliseconds!"));
+      }
+    }, timeoutMillis, TimeUnit.MILLISECONDS);
+
+    CompletableFuture<long[]> results;
+    try {
+      results = backend.execute(batch);
+    } catch (RuntimeException e) {
+      results = new CompletableFuture<>();
+      results.completeExceptionally(e);
+    }
+
+    results.whenComplete((values, error) -> {
+      timeout.cancel(false);
+      if (error != null) {
+        if (outcome.complete(Outcome.UNAVAILABLE)) {
+          failed(error);
+        }
+        return;
+      }
+
+      open = false;
+      if (dedupKey != null && values[0] > 1) {
+        outcome.complete(Outcome.DUPLICATE);
+      } else if (rateLimit != null && values[values.length - 1] > rateLimit.getPermits()) {
+        outcome.complete(Outcome.RATE_LIMITED);
+      } else {
+        outcome.complete(Outcome.ALLOWED);
+      }
+    });
+
+    return outcome;
+  }
+
+  /**
+   * Stops waiting for the backend. Pending checks are not completed anymore.
+   */
+  void close() {
+    timeouts.shutdownNow();
+  }
+
+  private boolean tryProbe() {
+    long probe = nextProbe.get();
+    long now = System.currentTimeMillis();
+    return now >= probe && nextProbe.compareAndSet(probe, now + PROBE_INTERVAL_MILLIS);
+  }
+
+  private void failed(Throwable cause) {
+    nextProbe.set(System.currentTimeMillis() + PROBE_INTERVAL_MILLIS);
+
+    // An unavailable backend fails every invocation, so only the failure opening the circuit is reported.
+    if (!open) {
+      open = true;
+      Thread thread = Thread.currentThread();
+      thread.getUncaughtExceptionHandler().uncaughtException(thread,
+          new IllegalStateException("The shared state is unavailable, using the limits of this process!", cause));
+    }
+  }
+}
@@ -0,0 +1,256 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.handler;
+
+import com.github.stackovernorth.jda.commandhandler.api.argument.ParsePlan;
+import com.github.stackovernorth.jda.commandhandler.api.command.Command;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import net.dv8tion.jda.api.interactions.commands.build.SubcommandData;
+import net.dv8tion.jda.api.interactions.commands.build.SubcommandGroupData;
+
+/**
+ * Synchronizes the registered commands with the slash commands registered to Discord.
+ * <p>
+ * All slash commands currently registered are retrieved with a single request and compared to the registered
+ * commands. Only commands which are new or changed are uploaded and only commands which are no longer registered are
+ * deleted, so restarting the bot without changing any command does not upload anything.
+ * </p>
+ * <p>
+ * Discord allows two levels of sub-commands. Sub-commands are only registered if they or one of their sub-commands are
+ * available as slash command, deeper levels are ignored. Note that a slash command with sub-commands cannot be executed
+ * itself.
+ * </p>
+ */
+final class SlashCommandSync {
+
+  private static final int MAX_DESCRIPTION_LENGTH = 100;
+
+  private SlashCommandSync() {
+  }
+
+  /**
+   * Synchronizes the slash commands of the given {@link JDA} object with the registered commands.
+   * <p>
+   * Once done, the ids of all slash commands are stored in the registry, so slash commands are routed by their id.
+   * </p>
+   *
+   * @param jda
+   *     The {@link JDA} object used to register the slash commands
+   * @param registry
+   *     The registry containing all commands
+   *
+   * @return A {@link CompletableFuture} completed with the number of slash commands created, updated or deleted
+   */
+  static CompletableFuture<Integer> sync(JDA jda, CommandRegistry registry) {
+    Map<String, CommandData> desired = new LinkedHashMap<>();
+    for (Command command : registry.getCommands()) {
+      CommandData data = toCommandData(command);
+      if (data != null) {
+        desired.put(data.getName(), data);
+      }
+    }
+
+    return jda.retrieveCommands().submit().thenCompose(existing -> {
+      Map<String, Long> ids = new ConcurrentHashMap<>();
+      Set<String> existingNames = new HashSet<>();
+      List<CompletableFuture<?>> changes = new ArrayList<>();
+      for (net.dv8tion.jda.api.interactions.commands.Command current : existing) {
+        existingNames.add(current.getName());
+        CommandData data = desired.get(current.getName());
+        if (data == null) {
+          changes.add(jda.deleteCommandById(current.getIdLong()).submit());
+        } else if (describe(data).equals(describe(current))) {
+          ids.put(current.getName(), current.getIdLong());
+        } else {
+          changes.add(upsert(jda, data, ids));
+        }
+      }
+
+      desired.forEach((name, data) -> {
+        if (!existingNames.contains(name)) {
+          changes.add(upsert(jda, data, ids));
+        }
+      });
+
+      return CompletableFuture.allOf(changes.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+        registry.setSlashCommandIds(ids);
+        return changes.size();
+      });
+    });
+  }
+
+  /**
+   * Converts a command into the data of a slash command.
+   *
+   * @param command
+   *     The command to convert
+   *
+   * @return The data of the slash command or <code>null</code> if the command is not available as slash command
+   */
+  static CommandData toCommandData(Command command) {
+    if (!isSlashCommand(command)) {
+      return null;
+    }
+
+    CommandData data = new CommandData(command.getCommandName(), descriptionOf(command));
+    List<Command> children = slashSubCommands(command);
+    if (children.isEmpty()) {
+      return data.addOptions(optionsOf(command));
+    }
+
+    for (Command child : children) {
+      List<Command> grandchildren = slashSubCommands(child);
+      if (grandchildren.isEmpty()) {
+        data.addSubcommands(subcommandOf(child));
+      } else {
+        SubcommandGroupData group = new SubcommandGroupData(child.getCommandName(), descriptionOf(child));
+        grandchildren.forEach(grandchild -> group.addSubcommands(subcommandOf(grandchild)));
+        data.addSubcommandGroups(group);
+      }
+    }
+
+    return data;
+  }
+
+  private static CompletableFuture<Void> upsert(JDA jda, CommandData data, Map<String, Long> ids) {
+    return jda.upsertCommand(data).submit().thenAccept(created -> ids.put(created.getName(), created.getIdLong()));
+  }
+
+  private static boolean isSlashCommand(Command command) {
+    if (command.getSlashListener() != null) {
+      return true;
+    }
+
+    for (Command subCommand : command.getSubCommands()) {
+      if (isSlashCommand(subCommand)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private static List<Command> slashSubCommands(Command command) {
+    List<Command> subCommands = new ArrayList<>();
+    for (Command subCommand : command.getSubCommands()) {
+      if (isSlashCommand(subCommand)) {
+        subCommands.add(subCommand);
+      }
+    }
+
+    return subCommands;
+  }
+
+  private static SubcommandData subcommandOf(Command command) {
+    return new SubcommandData(command.getCommandName(), descriptionOf(command)).addOptions(optionsOf(command));
+  }
+
+  private static OptionData[] optionsOf(Command command) {
+    ParsePlan parsePlan = command.getParsePlan();
+    List<OptionData> options = parsePlan == null ? Collections.emptyList() : parsePlan.toOptions();
+    return options.toArray(new OptionData[0]);
+  }
+
+  private static String descriptionOf(Command command) {
+    // Discord requires a description, so the name is used if none was set.
+    String description = command.getCommandDescription();
+    if (description == null || description.isEmpty()) {
+      description = command.getCommandName();
+    }
+
+    return description.length() > MAX_DESCRIPTION_LENGTH ? description.substring(0, MAX_DESCRIPTION_LENGTH)
+        : description;
+  }
+
+  private static String describe(CommandData data) {
+    StringBuilder builder = new StringBuilder();
+    describe(builder, data.getName(), data.getDescription());
+    data.getOptions().forEach(option -> describe(builder, option));
+    for (SubcommandData subcommand : data.getSubcommands()) {
+      describe(builder, subcommand);
+    }
+
+    for (SubcommandGroupData group : data.getSubcommandGroups()) {
+      describe(builder, group.getName(), group.getDescription());
+      group.getSubcommands().forEach(subcommand -> describe(builder, subcommand));
+    }
+
+    return builder.toString();
+  }
+
+  private static String describe(net.dv8tion.jda.api.interactions.commands.Command command) {
+    StringBuilder builder = new StringBuilder();
+    describe(builder, command.getName(), command.getDescription());
+    command.getOptions().forEach(option -> describe(builder, option.getType(), option.getName(),
+        option.getDescription(), option.isRequired()));
+    command.getSubcommands().forEach(subcommand -> describe(builder, subcommand));
+    for (net.dv8tion.jda.api.interactions.commands.Command.SubcommandGroup group : command.getSubcommandGroups()) {
+      describe(builder, group.getName(), group.getDescription());
+      group.getSubcommands().forEach(subcommand -> describe(builder, subcommand));
+    }
+
+    return builder.toString();
+  }
+
+  private static void describe(StringBuilder builder, SubcommandData subcommand) {
+    describe(builder, subcommand.getName(), subcommand.getDescription());
+    subcommand.getOptions().forEach(option -> describe(builder, option));
+  }
+
+  private static void describe(StringBuilder builder,
+      net.dv8tion.jda.api.interactions.commands.Command.Subcommand subcommand) {
+    describe(builder, subcommand.getName(), subcommand.getDescription());
+    subcommand.getOptions().forEach(option -> describe(builder, option.getType(), option.getName(),
+        option.getDescription(), option.isRequired()));
+  }
+
+  private static void describe(StringBuilder builder, OptionData option) {
+    describe(builder, option.getType(), option.getName(), option.getDescription(), option.isRequired());
+  }
+
+  private static void describe(StringBuilder builder, OptionType type, String name, String description,
+      boolean required) {
+    builder.append('(').append(type).append(' ').append(required);
+    describe(builder, name, description);
+    builder.append(')');
+  }
+
+  private static void describe(StringBuilder builder, String name, String description) {
+    // Both are separated by a character Discord does not allow in names, so two different pairs never look the same.
+    builder.append('[').append(name).append('\n').append(description).append(']');
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.github.stackovernorth.jda.commandhandler.api.interceptor;
+
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Implement this interface to run your own code around the listener of a command, e.g. for logging, auditing or
+ * feature flags.
+ * <p>
+ * Interceptors are called once a command passed all of its checks and limits, right before its listener, on the same
+ * thread as the listener. Global interceptors added to the handler are called first, followed by the interceptors of
+ * the command, each in the order they were added.
+ * </p>
+ */
+@FunctionalInterface
+public interface CommandInterceptor {
+
+  /**
+   * This method will be triggered once someone executes a command this interceptor applies to.
+   * <p>
+   * Call {@link InterceptorChain#proceed(CommandInvocation)} to continue with the next interceptor and finally the
+   * listener of the command. If it is not called, the command is not executed.
+   * </p>
+   *
+   * @param invocation
+   *     The invocation of the command
+   * @param chain
+   *     The remaining interceptors and the listener
+   */
+  void intercept(CommandInvocation invocation, InterceptorChain chain);
+
+  /**
+   * Creates an interceptor which is called before the listener and decides whether the command is executed.
+   *
+   * @param check
+   *     Returns <code>true</code> if the command should be executed
+   *
+   * @return The interceptor
+   */
+  static CommandInterceptor before(Predicate<CommandInvocation> check) {
+    return (invocation, chain) -> {
+      if (check.test(invocation)) {
+        chain.proceed(invocation);
+      }
+    };
+  }
+
+  /**
+   * Creates an interceptor which is called after the listener, even if the listener failed.
+   *
+   * @param action
+   *     The action to perform
+   *
+   * @return The interceptor
+   */
+  static CommandInterceptor after(Consumer<CommandInvocation> action) {
+    return (invocation, chain) -> {
+      try {
+        chain.proceed(invocation);
+      } finally {
+        action.accept(invocation);
+      }
+    };
+  }
+}
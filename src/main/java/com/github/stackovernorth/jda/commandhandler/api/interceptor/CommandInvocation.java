@@ -0,0 +1,138 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.github.stackovernorth.jda.commandhandler.api.interceptor;
+
+import com.github.stackovernorth.jda.commandhandler.api.command.Command;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.TextChannel;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.interaction.SlashCommandEvent;
+
+/**
+ * A single execution of a command as it is passed through the interceptors.
+ * <p>
+ * Instances are created by the handler for every command which passed its checks and limits. The class is final, so
+ * every invocation carries the call of its listener, which the end of the chain runs.
+ * </p>
+ */
+public final class CommandInvocation {
+
+  private final Command command;
+  private final Member sender;
+  private final TextChannel channel;
+  private final User author;
+  private final Message message;
+  private final SlashCommandEvent slashEvent;
+  private final Runnable listenerCall;
+
+  /**
+   * Creates a new invocation, which is done by the handler for every executed command.
+   *
+   * @param command
+   *     The executed command
+   * @param sender
+   *     The sender of the command, <code>null</code> for webhook messages
+   * @param channel
+   *     The channel the command was executed in
+   * @param author
+   *     The author of the command
+   * @param message
+   *     The message which triggered the command, <code>null</code> for slash commands
+   * @param slashEvent
+   *     The event of the slash command, <code>null</code> for messages
+   * @param listenerCall
+   *     The call of the listener, run once the last interceptor proceeds
+   */
+  public CommandInvocation(Command command, Member sender, TextChannel channel, User author, Message message,
+      SlashCommandEvent slashEvent, Runnable listenerCall) {
+    this.command = command;
+    this.sender = sender;
+    this.channel = channel;
+    this.author = author;
+    this.message = message;
+    this.slashEvent = slashEvent;
+    this.listenerCall = listenerCall;
+  }
+
+  /**
+   * Returns the command which is executed.
+   *
+   * @return The executed {@link Command}, which is the sub-command if one was used
+   */
+  public Command getCommand() {
+    return command;
+  }
+
+  /**
+   * Returns the member who executed the command.
+   *
+   * @return The sender of the command, <code>null</code> for webhook messages
+   */
+  public Member getSender() {
+    return sender;
+  }
+
+  /**
+   * Returns the channel the command was executed in.
+   *
+   * @return The channel of the command
+   */
+  public TextChannel getChannel() {
+    return channel;
+  }
+
+  /**
+   * Returns the user who executed the command.
+   *
+   * @return The author of the command
+   */
+  public User getAuthor() {
+    return author;
+  }
+
+  /**
+   * Returns the message which triggered the command.
+   *
+   * @return The message or <code>null</code> if the command was executed as slash command
+   */
+  public Message getMessage() {
+    return message;
+  }
+
+  /**
+   * Returns the event of the slash command which triggered the command.
+   *
+   * @return The event or <code>null</code> if the command was triggered by a message
+   */
+  public SlashCommandEvent getSlashEvent() {
+    return slashEvent;
+  }
+
+  void callListener() {
+    listenerCall.run();
+  }
+}
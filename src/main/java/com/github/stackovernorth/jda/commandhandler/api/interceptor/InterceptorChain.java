@@ -0,0 +1,66 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.github.stackovernorth.jda.commandhandler.api.interceptor;
+
+import java.util.List;
+
+/**
+ * The interceptors following an interceptor and finally the listener of the command.
+ */
+@FunctionalInterface
+public interface InterceptorChain {
+
+  /**
+   * Continues with the next interceptor or, if there is none left, calls the listener of the command.
+   *
+   * @param invocation
+   *     The invocation of the command
+   */
+  void proceed(CommandInvocation invocation);
+
+  /**
+   * Composes interceptors into a single chain ending with the listener of the command.
+   * <p>
+   * Every interceptor is bound to its successor once, so calling the chain does not iterate over any list. The last
+   * link runs the listener call of the invocation it receives, which is always one created by the handler.
+   * </p>
+   *
+   * @param interceptors
+   *     The interceptors in the order they should be called
+   *
+   * @return The composed chain
+   */
+  static InterceptorChain compose(List<CommandInterceptor> interceptors) {
+    InterceptorChain chain = CommandInvocation::callListener;
+    for (int i = interceptors.size() - 1; i >= 0; i--) {
+      CommandInterceptor interceptor = interceptors.get(i);
+      InterceptorChain next = chain;
+      chain = invocation -> interceptor.intercept(invocation, next);
+    }
+
+    return chain;
+  }
+}
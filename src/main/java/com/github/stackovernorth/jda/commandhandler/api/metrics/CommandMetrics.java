@@ -0,0 +1,106 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.metrics;
+
+import com.github.stackovernorth.jda.commandhandler.api.command.Command;
+import com.github.stackovernorth.jda.commandhandler.api.command.RejectionReason;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records how often a single {@link Command} was invoked or rejected and how long it took.
+ * <p>
+ * Instances are created and recorded to by the handler. Use {@link #snapshot()} or the snapshot of the whole handler
+ * to read the recorded values.
+ * </p>
+ */
+public final class CommandMetrics {
+
+  private final Command command;
+  private final LongAdder invocations = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+  private final LongAdder[] rejections = new LongAdder[RejectionReason.values().length];
+  private final LatencyHistogram preDispatch = new LatencyHistogram();
+  private final LatencyHistogram execution = new LatencyHistogram();
+
+  public CommandMetrics(Command command) {
+    this.command = command;
+    for (int i = 0; i < rejections.length; i++) {
+      rejections[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Records that the command is about to be executed.
+   *
+   * @param preDispatchNanos
+   *     The time between receiving the message and calling the listener in nanoseconds
+   */
+  public void recordInvocation(long preDispatchNanos) {
+    invocations.increment();
+    preDispatch.record(preDispatchNanos);
+  }
+
+  /**
+   * Records how long the listener of the command took.
+   *
+   * @param executionNanos
+   *     The execution time in nanoseconds
+   * @param failed
+   *     Whether the listener threw an exception
+   */
+  public void recordExecution(long executionNanos, boolean failed) {
+    execution.record(executionNanos);
+    if (failed) {
+      failures.increment();
+    }
+  }
+
+  /**
+   * Records that the command matched but was not executed.
+   *
+   * @param reason
+   *     The reason why the command was not executed
+   */
+  public void recordRejection(RejectionReason reason) {
+    rejections[reason.ordinal()].increment();
+  }
+
+  /**
+   * Creates an immutable copy of the recorded values.
+   *
+   * @return A new {@link CommandMetricsSnapshot}
+   */
+  public CommandMetricsSnapshot snapshot() {
+    Map<RejectionReason, Long> rejected = new EnumMap<>(RejectionReason.class);
+    for (RejectionReason reason : RejectionReason.values()) {
+      rejected.put(reason, rejections[reason.ordinal()].sum());
+    }
+
+    return new CommandMetricsSnapshot(command.getCommandName(), invocations.sum(), failures.sum(), rejected,
+        preDispatch.snapshot(), execution.snapshot());
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.metrics;
+
+import com.github.stackovernorth.jda.commandhandler.api.command.RejectionReason;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * An immutable copy of the {@link CommandMetrics} of a single command.
+ */
+public final class CommandMetricsSnapshot {
+
+  private final String commandName;
+  private final long invocations;
+  private final long failures;
+  private final Map<RejectionReason, Long> rejections;
+  private final HistogramSnapshot preDispatch;
+  private final HistogramSnapshot execution;
+
+  CommandMetricsSnapshot(String commandName, long invocations, long failures, Map<RejectionReason, Long> rejections,
+      HistogramSnapshot preDispatch, HistogramSnapshot execution) {
+    this.commandName = commandName;
+    this.invocations = invocations;
+    this.failures = failures;
+    this.rejections = Collections.unmodifiableMap(rejections);
+    this.preDispatch = preDispatch;
+    this.execution = execution;
+  }
+
+  /**
+   * Returns the name of the command.
+   *
+   * @return The command name as String
+   */
+  public String getCommandName() {
+    return commandName;
+  }
+
+  /**
+   * Returns how often the listener of the command was called.
+   *
+   * @return The number of invocations
+   */
+  public long getInvocations() {
+    return invocations;
+  }
+
+  /**
+   * Returns how often the listener of the command threw an exception.
+   *
+   * @return The number of failed invocations
+   */
+  public long getFailures() {
+    return failures;
+  }
+
+  /**
+   * Returns how often the command matched but was not executed for the given reason.
+   *
+   * @param reason
+   *     The reason of the rejection
+   *
+   * @return The number of rejections
+   */
+  public long getRejections(RejectionReason reason) {
+    return rejections.getOrDefault(reason, 0L);
+  }
+
+  /**
+   * Returns the number of rejections for every reason.
+   *
+   * @return An unmodifiable {@link Map} of rejections by reason
+   */
+  public Map<RejectionReason, Long> getRejections() {
+    return rejections;
+  }
+
+  /**
+   * Returns the time between receiving the message and calling the listener.
+   * <p>
+   * This includes the checks of the command and the time spent waiting for a free thread of the executor.
+   * </p>
+   *
+   * @return A {@link HistogramSnapshot} of the pre-dispatch latency
+   */
+  public HistogramSnapshot getPreDispatch() {
+    return preDispatch;
+  }
+
+  /**
+   * Returns the time the listener of the command took.
+   *
+   * @return A {@link HistogramSnapshot} of the execution time
+   */
+  public HistogramSnapshot getExecution() {
+    return execution;
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the metrics of a command handler which do not belong to a single command.
+ */
+public final class DispatchMetrics {
+
+  private final LongAdder messages = new LongAdder();
+  private final LongAdder unknownCommands = new LongAdder();
+
+  /**
+   * Records that a message was received.
+   */
+  public void recordMessage() {
+    messages.increment();
+  }
+
+  /**
+   * Records that a message started with a prefix but did not match any command.
+   */
+  public void recordUnknownCommand() {
+    unknownCommands.increment();
+  }
+
+  /**
+   * Returns how many messages were received.
+   *
+   * @return The number of messages
+   */
+  public long getMessages() {
+    return messages.sum();
+  }
+
+  /**
+   * Returns how many messages did not match any command although they started with a prefix.
+   *
+   * @return The number of unknown commands
+   */
+  public long getUnknownCommands() {
+    return unknownCommands.sum();
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An immutable copy of a {@link LatencyHistogram}.
+ */
+public final class HistogramSnapshot {
+
+  private final long[] counts;
+  private final long count;
+  private final long sum;
+  private final long max;
+
+  HistogramSnapshot(long[] counts, long sum, long max) {
+    this.counts = counts;
+    this.sum = sum;
+    this.max = max;
+
+    long total = 0;
+    for (long bucket : counts) {
+      total += bucket;
+    }
+
+    this.count = total;
+  }
+
+  /**
+   * Returns the number of recorded values.
+   *
+   * @return The number of values
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Returns the average of all recorded values.
+   *
+   * @param unit
+   *     The {@link TimeUnit} the value should be returned in
+   *
+   * @return The mean or <code>0</code> if nothing was recorded
+   */
+  public double getMean(TimeUnit unit) {
+    return count == 0 ? 0 : (double) sum / count / unit.toNanos(1);
+  }
+
+  /**
+   * Returns the highest recorded value.
+   *
+   * @param unit
+   *     The {@link TimeUnit} the value should be returned in
+   *
+   * @return The maximum or <code>0</code> if nothing was recorded
+   */
+  public long getMax(TimeUnit unit) {
+    return unit.convert(max, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Returns the value below which the given percentage of all recorded values fall.
+   * <p>
+   * E.g. <code>getPercentile(99, TimeUnit.MILLISECONDS)</code> returns the 99th percentile in milliseconds. Like every
+   * value in the histogram, this is off by at most about 6%.
+   * </p>
+   *
+   * @param percentile
+   *     The percentile between <code>0</code> and <code>100</code>
+   * @param unit
+   *     The {@link TimeUnit} the value should be returned in
+   *
+   * @return The value at the percentile or <code>0</code> if nothing was recorded
+   */
+  public long getPercentile(double percentile, TimeUnit unit) {
+    if (count == 0) {
+      return 0;
+    }
+
+    long rank = Math.max((long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100 * count), 1);
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return unit.convert(Math.min(LatencyHistogram.highestValueOf(i), max), TimeUnit.NANOSECONDS);
+      }
+    }
+
+    return unit.convert(max, TimeUnit.NANOSECONDS);
+  }
+}
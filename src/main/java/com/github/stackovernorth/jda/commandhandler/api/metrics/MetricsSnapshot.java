@@ -0,0 +1,83 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * An immutable copy of all metrics of a command handler.
+ */
+public final class MetricsSnapshot {
+
+  private final long timestamp;
+  private final long messages;
+  private final long unknownCommands;
+  private final Map<String, CommandMetricsSnapshot> commands;
+
+  public MetricsSnapshot(long timestamp, long messages, long unknownCommands,
+      Map<String, CommandMetricsSnapshot> commands) {
+    this.timestamp = timestamp;
+    this.messages = messages;
+    this.unknownCommands = unknownCommands;
+    this.commands = Collections.unmodifiableMap(commands);
+  }
+
+  /**
+   * Returns when this snapshot was taken.
+   *
+   * @return The time in milliseconds since the epoch
+   */
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  /**
+   * Returns how many messages the handler received, including the ones which were no commands.
+   *
+   * @return The number of messages
+   */
+  public long getMessages() {
+    return messages;
+  }
+
+  /**
+   * Returns how many messages started with a prefix but did not match any command.
+   *
+   * @return The number of unknown commands
+   */
+  public long getUnknownCommands() {
+    return unknownCommands;
+  }
+
+  /**
+   * Returns the metrics of every command by its name.
+   *
+   * @return An unmodifiable {@link Map} of command metrics
+   */
+  public Map<String, CommandMetricsSnapshot> getCommands() {
+    return commands;
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.github.stackovernorth.jda.commandhandler.api.state;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link StateBackend} keeping its counters in the memory of the current process.
+ * <p>
+ * This is enough for a bot running in a single JVM, and is what {@link StateServer} uses to serve the counters of
+ * several processes. Expired counters are only dropped once the maximum number of counters is reached, and if most of
+ * them are still alive, some are dropped anyway to keep the memory bounded.
+ * </p>
+ */
+public final class InMemoryStateBackend implements StateBackend {
+
+  /**
+   * The maximum number of counters kept by default.
+   */
+  public static final int DEFAULT_MAX_COUNTERS = 1_000_000;
+
+  private final int maxCounters;
+  private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a new backend keeping at most {@value #DEFAULT_MAX_COUNTERS} counters.
+   */
+  public InMemoryStateBackend() {
+    this(DEFAULT_MAX_COUNTERS);
+  }
+
+  /**
+   * Creates a new backend.
+   *
+   * @param maxCounters
+   *     The maximum number of counters kept
+   *
+   * @throws IllegalArgumentException
+   *     If the maximum number of counters is not positive
+   */
+  public InMemoryStateBackend(int maxCounters) {
+    if (maxCounters < 1) {
+      throw new IllegalArgumentException("The maximum number of counters must be positive!");
+    }
+
+    this.maxCounters = maxCounters;
+  }
+
+  @Override
+  public CompletableFuture<long[]> execute(StateBatch batch) {
+    long[] results = new long[batch.size()];
+    for (int i = 0; i < results.length; i++) {
+      results[i] = increment(batch.getKey(i), batch.getLimit(i), batch.getTtl(i, TimeUnit.MILLISECONDS), null, i);
+    }
+
+    return CompletableFuture.completedFuture(results);
+  }
+
+  /**
+   * Increments a single counter unless it reached its limit.
+   *
+   * @param key
+   *     The key of the counter
+   * @param limit
+   *     The value the counter is never incremented beyond
+   * @param ttlMillis
+   *     How long the counter lives after its first increment, <code>0</code> if it never expires
+   * @param expiresInMillis
+   *     The array to store the remaining time to live of the counter in, <code>-1</code> if it never expires, may be
+   *     <code>null</code>
+   * @param index
+   *     The index to store the remaining time to live at
+   *
+   * @return The value of the counter after the increment, or its value plus one if it was not incremented
+   */
+  long increment(String key, long limit, long ttlMillis, long[] expiresInMillis, int index) {
+    long now = System.nanoTime();
+    if (counters.size() >= maxCounters && !counters.containsKey(key)) {
+      evict(now);
+    }
+
+    Counter counter = counters.compute(key, (k, current) -> {
+      if (current == null || current.isExpired(now)) {
+        return new Counter(1, ttlMillis > 0, now + TimeUnit.MILLISECONDS.toNanos(ttlMillis), false);
+      }
+
+      return current.value >= limit ? new Counter(current.value, current.expires, current.expiresAt, true)
+          : new Counter(current.value + 1, current.expires, current.expiresAt, false);
+    });
+
+    if (expiresInMillis != null) {
+      expiresInMillis[index] = counter.expires
+          ? Math.max(TimeUnit.NANOSECONDS.toMillis(counter.expiresAt - now), 1) : -1;
+    }
+
+    return counter.rejected ? counter.value + 1 : counter.value;
+  }
+
+  private void evict(long now) {
+    counters.values().removeIf(counter -> counter.isExpired(now));
+
+    // If most counters are still alive, drop some anyway to keep the memory bounded.
+    Iterator<String> keys = counters.keySet().iterator();
+    while (counters.size() > maxCounters * 3 / 4 && keys.hasNext()) {
+      keys.next();
+      keys.remove();
+    }
+  }
+
+  private static final class Counter {
+
+    private final long value;
+    private final boolean expires;
+    private final long expiresAt;
+    private final boolean rejected;
+
+    private Counter(long value, boolean expires, long expiresAt, boolean rejected) {
+      this.value = value;
+      this.expires = expires;
+      this.expiresAt = expiresAt;
+      this.rejected = rejected;
+    }
+
+    private boolean isExpired(long now) {
+      return expires && expiresAt - now <= 0;
+    }
+  }
+}
@@ -0,0 +1,373 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.github.stackovernorth.jda.commandhandler.api.state;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link StateBackend} keeping its counters on a {@link StateServer}, shared by all processes connected to it.
+ * <p>
+ * All batches are sent over a single connection by a daemon thread. Batches submitted while a previous one is still
+ * being written are written along with it and flushed once, and the thread does not wait for a response before
+ * sending the next batch. A batch therefore costs at most one round trip, no matter how many counters it contains or
+ * how many other batches are in flight. If the connection breaks, or the server did not answer a batch within 5
+ * seconds, the batches waiting for a response fail and the next batch opens a new connection.
+ * </p>
+ * <p>
+ * Counters which reached their limit are remembered for a short while, so further increments of them are answered
+ * without any round trip. Since a counter never decreases before it expires, this only delays noticing that a counter
+ * was reset on the server, e.g. because the server was restarted.
+ * </p>
+ */
+public final class RemoteStateBackend implements StateBackend {
+
+  /**
+   * How long counters which reached their limit are remembered by default, in milliseconds.
+   */
+  public static final long DEFAULT_NEAR_CACHE_MILLIS = 250;
+
+  private static final int CONNECT_TIMEOUT_MILLIS = 1000;
+  private static final long RESPONSE_TIMEOUT_MILLIS = 5000;
+  // How often the writer thread checks for a missing response while no batches are submitted.
+  private static final long RESPONSE_CHECK_MILLIS = 500;
+  private static final int MAX_NEAR_CACHE_SIZE = 100_000;
+
+  private final InetSocketAddress address;
+  private final long nearCacheNanos;
+  private final Map<String, LimitedCounter> nearCache = new ConcurrentHashMap<>();
+  private final BlockingQueue<Request> requests = new LinkedBlockingQueue<>();
+  private final Thread writer;
+  private volatile boolean closed;
+
+  // Only used by the writer thread.
+  private Connection connection;
+
+  /**
+   * Creates a new backend remembering counters which reached their limit for {@value #DEFAULT_NEAR_CACHE_MILLIS}
+   * milliseconds.
+   *
+   * @param address
+   *     The address of the {@link StateServer}
+   */
+  public RemoteStateBackend(InetSocketAddress address) {
+    this(address, DEFAULT_NEAR_CACHE_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Creates a new backend. The connection is opened with the first batch.
+   *
+   * @param address
+   *     The address of the {@link StateServer}
+   * @param nearCacheTtl
+   *     How long counters which reached their limit are remembered, <code>0</code> to always ask the server
+   * @param unit
+   *     The {@link TimeUnit} of the time to live
+   *
+   * @throws IllegalArgumentException
+   *     If the address is <code>null</code> or the time to live is negative
+   */
+  public RemoteStateBackend(InetSocketAddress address, long nearCacheTtl, TimeUnit unit) {
+    if (address == null || nearCacheTtl < 0) {
+      throw new IllegalArgumentException("The address must not be null and the time to live must not be negative!");
+    }
+
+    this.address = address;
+    this.nearCacheNanos = unit.toNanos(nearCacheTtl);
+    this.writer = new Thread(this::writeRequests, "command-state-writer");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  @Override
+  public CompletableFuture<long[]> execute(StateBatch batch) {
+    // Counters which are known to be at their limit are answered right away, only the others are sent.
+    long now = System.nanoTime();
+    long[] results = new long[batch.size()];
+    int[] sent = new int[batch.size()];
+    int sentCount = 0;
+    for (int i = 0; i < results.length; i++) {
+      LimitedCounter counter = nearCache.get(batch.getKey(i));
+      if (counter != null && counter.expiresAt - now > 0 && counter.value >= batch.getLimit(i)) {
+        results[i] = counter.value + 1;
+      } else {
+        sent[sentCount++] = i;
+      }
+    }
+
+    if (sentCount == 0) {
+      return CompletableFuture.completedFuture(results);
+    }
+
+    Request request = new Request(batch, results, sent, sentCount);
+    if (closed) {
+      request.future.completeExceptionally(new IllegalStateException("The backend was closed!"));
+    } else {
+      requests.add(request);
+    }
+
+    return request.future;
+  }
+
+  /**
+   * Closes the connection. Batches waiting for a response fail.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    writer.interrupt();
+  }
+
+  private void writeRequests() {
+    List<Request> batch = new ArrayList<>();
+    try {
+      while (!closed) {
+        Request next = requests.poll(RESPONSE_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+        checkResponses();
+        if (next == null) {
+          continue;
+        }
+
+        batch.add(next);
+        requests.drainTo(batch);
+        try {
+          Connection current = connect();
+          for (Request request : batch) {
+            current.write(request);
+          }
+
+          current.out.flush();
+        } catch (IOException e) {
+          disconnect(e);
+          batch.forEach(request -> request.future.completeExceptionally(e));
+        }
+
+        batch.clear();
+      }
+    } catch (InterruptedException e) {
+      // The backend was closed.
+    }
+
+    IllegalStateException closedException = new IllegalStateException("The backend was closed!");
+    disconnect(closedException);
+    batch.forEach(request -> request.future.completeExceptionally(closedException));
+    requests.forEach(request -> request.future.completeExceptionally(closedException));
+  }
+
+  private Connection connect() throws IOException {
+    if (connection == null || connection.isClosed()) {
+      Socket socket = new Socket();
+      try {
+        socket.setTcpNoDelay(true);
+        socket.connect(address, CONNECT_TIMEOUT_MILLIS);
+      } catch (IOException e) {
+        socket.close();
+        throw e;
+      }
+
+      connection = new Connection(socket);
+      Thread reader = new Thread(connection::readResponses, "command-state-reader");
+      reader.setDaemon(true);
+      reader.start();
+    }
+
+    return connection;
+  }
+
+  private void checkResponses() {
+    // A server which stopped answering without closing the connection would otherwise leave batches pending forever.
+    Request oldest = connection == null ? null : connection.oldest();
+    if (oldest != null && System.nanoTime() - oldest.sentAt > TimeUnit.MILLISECONDS.toNanos(RESPONSE_TIMEOUT_MILLIS)) {
+      disconnect(new IOException("The server did not answer within " + RESPONSE_TIMEOUT_MILLIS + " milliseconds!"));
+    }
+  }
+
+  private void disconnect(Exception cause) {
+    if (connection != null) {
+      connection.fail(cause);
+      connection = null;
+    }
+  }
+
+  private void remember(String key, long value, long limit, long expiresInMillis) {
+    if (nearCacheNanos == 0 || value < limit) {
+      return;
+    }
+
+    long now = System.nanoTime();
+    long ttl = expiresInMillis < 0 ? nearCacheNanos
+        : Math.min(nearCacheNanos, TimeUnit.MILLISECONDS.toNanos(expiresInMillis));
+    if (nearCache.size() >= MAX_NEAR_CACHE_SIZE) {
+      nearCache.values().removeIf(counter -> counter.expiresAt - now <= 0);
+
+      // If most counters are still remembered, forget some anyway to keep the memory bounded.
+      Iterator<String> keys = nearCache.keySet().iterator();
+      while (nearCache.size() > MAX_NEAR_CACHE_SIZE * 3 / 4 && keys.hasNext()) {
+        keys.next();
+        keys.remove();
+      }
+    }
+
+    // A rejected increment was answered with the value plus one, but the counter stayed at its limit.
+    nearCache.put(key, new LimitedCounter(Math.min(value, limit), now + ttl));
+  }
+
+  private final class Connection {
+
+    private final Socket socket;
+    private final DataOutputStream out;
+    private final Queue<Request> pending = new ArrayDeque<>();
+    private boolean closed;
+
+    private Connection(Socket socket) throws IOException {
+      this.socket = socket;
+      this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+    private void write(Request request) throws IOException {
+      // The request is queued before it is written, so its response cannot arrive before it is expected.
+      synchronized (this) {
+        if (closed) {
+          throw new IOException("The connection was closed!");
+        }
+
+        request.sentAt = System.nanoTime();
+        pending.add(request);
+      }
+
+      StateBatch batch = request.batch;
+      out.writeInt(request.sentCount);
+      for (int i = 0; i < request.sentCount; i++) {
+        int index = request.sent[i];
+        out.writeUTF(batch.getKey(index));
+        out.writeLong(batch.getLimit(index));
+        out.writeLong(batch.getTtl(index, TimeUnit.MILLISECONDS));
+      }
+    }
+
+    private synchronized Request oldest() {
+      return pending.peek();
+    }
+
+    private synchronized boolean isClosed() {
+      return closed;
+    }
+
+    private void readResponses() {
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+        while (true) {
+          int size = in.readInt();
+          Request request;
+          synchronized (this) {
+            request = pending.poll();
+          }
+
+          if (request == null || size != request.sentCount) {
+            throw new IOException("Received a response which does not match any request!");
+          }
+
+          for (int i = 0; i < size; i++) {
+            int index = request.sent[i];
+            long value = in.readLong();
+            long expiresInMillis = in.readLong();
+            request.results[index] = value;
+            remember(request.batch.getKey(index), value, request.batch.getLimit(index), expiresInMillis);
+          }
+
+          request.future.complete(request.results);
+        }
+      } catch (IOException e) {
+        fail(e);
+      }
+    }
+
+    private void fail(Exception cause) {
+      List<Request> failed;
+      synchronized (this) {
+        if (closed) {
+          return;
+        }
+
+        closed = true;
+        failed = new ArrayList<>(pending);
+        pending.clear();
+      }
+
+      try {
+        socket.close();
+      } catch (IOException e) {
+        // The connection is closed either way.
+      }
+
+      failed.forEach(request -> request.future.completeExceptionally(cause));
+    }
+  }
+
+  private static final class Request {
+
+    private final StateBatch batch;
+    private final long[] results;
+    private final int[] sent;
+    private final int sentCount;
+    private final CompletableFuture<long[]> future = new CompletableFuture<>();
+    // Only changed by the writer thread, read by it while holding the lock of the connection.
+    private long sentAt;
+
+    private Request(StateBatch batch, long[] results, int[] sent, int sentCount) {
+      this.batch = batch;
+      this.results = results;
+      this.sent = sent;
+      this.sentCount = sentCount;
+    }
+  }
+
+  private static final class LimitedCounter {
+
+    private final long value;
+    private final long expiresAt;
+
+    private LimitedCounter(long value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.github.stackovernorth.jda.commandhandler.api.state;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Keeps counters shared by all processes of a bot, so cooldowns and deduplication hold across shards running in
+ * different JVMs.
+ * <p>
+ * Every counter of a {@link StateBatch} is incremented atomically unless it reached its limit. The result for a counter
+ * is its value after the increment, or its value plus one if it was already at its limit and therefore not
+ * incremented. An invocation is allowed as long as the result does not exceed the limit. Counters which are not
+ * incremented for longer than their time to live start at zero again.
+ * </p>
+ * <p>
+ * {@link InMemoryStateBackend} keeps the counters of a single process, {@link RemoteStateBackend} those of a {@link
+ * StateServer} shared by several processes. Implementations must be thread safe.
+ * </p>
+ */
+public interface StateBackend extends AutoCloseable {
+
+  /**
+   * Increments all counters of a batch, in a single round trip if the backend is remote.
+   * <p>
+   * The batch must not be changed until the returned future is completed.
+   * </p>
+   *
+   * @param batch
+   *     The counters to increment
+   *
+   * @return A future completed with the result of every counter, in the order they were added to the batch
+   */
+  CompletableFuture<long[]> execute(StateBatch batch);
+
+  /**
+   * Releases the resources of the backend, e.g. its connection.
+   */
+  @Override
+  default void close() {
+  }
+}
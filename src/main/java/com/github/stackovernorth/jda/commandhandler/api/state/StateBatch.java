@@ -0,0 +1,152 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.github.stackovernorth.jda.commandhandler.api.state;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A batch of counters to increment in a single round trip to a {@link StateBackend}.
+ * <p>
+ * Every counter has a limit it is never incremented beyond and a time to live, counted from its first increment, after
+ * which it starts at zero again. Cooldowns are counters limited to the number of invocations within a period,
+ * deduplication uses counters limited to one, and usage counters have no limit and never expire.
+ * </p>
+ */
+public final class StateBatch {
+
+  /**
+   * The maximum length of a key.
+   */
+  public static final int MAX_KEY_LENGTH = 1024;
+
+  private String[] keys = new String[2];
+  private long[] limits = new long[2];
+  private long[] ttlMillis = new long[2];
+  private int size;
+
+  /**
+   * Adds a counter which is incremented unless it reached its limit.
+   *
+   * @param key
+   *     The key of the counter, shared by all processes using the same backend
+   * @param limit
+   *     The value the counter is never incremented beyond
+   * @param ttl
+   *     How long the counter lives after its first increment, <code>0</code> if it never expires
+   * @param unit
+   *     The {@link TimeUnit} of the time to live
+   *
+   * @return <code>this</code> for chaining
+   *
+   * @throws IllegalArgumentException
+   *     If the key is empty or too long, the limit is not positive or the time to live is negative
+   */
+  public StateBatch increment(String key, long limit, long ttl, TimeUnit unit) {
+    if (key == null || key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+      throw new IllegalArgumentException("The key must not be empty or longer than " + MAX_KEY_LENGTH + " characters!");
+    }
+
+    if (limit < 1 || ttl < 0) {
+      throw new IllegalArgumentException("The limit must be positive and the time to live must not be negative!");
+    }
+
+    if (size == keys.length) {
+      keys = Arrays.copyOf(keys, size * 2);
+      limits = Arrays.copyOf(limits, size * 2);
+      ttlMillis = Arrays.copyOf(ttlMillis, size * 2);
+    }
+
+    keys[size] = key;
+    limits[size] = limit;
+    ttlMillis[size] = unit.toMillis(ttl);
+    size++;
+
+    return this;
+  }
+
+  /**
+   * Adds a counter without a limit which never expires, e.g. to count how often a command was used.
+   *
+   * @param key
+   *     The key of the counter, shared by all processes using the same backend
+   *
+   * @return <code>this</code> for chaining
+   *
+   * @throws IllegalArgumentException
+   *     If the key is empty or too long
+   */
+  public StateBatch increment(String key) {
+    return increment(key, Long.MAX_VALUE, 0, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Returns the number of counters in the batch.
+   *
+   * @return The number of counters
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the key of a counter.
+   *
+   * @param index
+   *     The index of the counter within the batch
+   *
+   * @return The key of the counter
+   */
+  public String getKey(int index) {
+    return keys[index];
+  }
+
+  /**
+   * Returns the limit of a counter.
+   *
+   * @param index
+   *     The index of the counter within the batch
+   *
+   * @return The value the counter is never incremented beyond
+   */
+  public long getLimit(int index) {
+    return limits[index];
+  }
+
+  /**
+   * Returns the time to live of a counter.
+   *
+   * @param index
+   *     The index of the counter within the batch
+   * @param unit
+   *     The {@link TimeUnit} the time to live should be returned in
+   *
+   * @return The time to live, <code>0</code> if the counter never expires
+   */
+  public long getTtl(int index, TimeUnit unit) {
+    return unit.convert(ttlMillis[index], TimeUnit.MILLISECONDS);
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.github.stackovernorth.jda.commandhandler.api.state;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+
+/**
+ * A small server sharing the counters of an {@link InMemoryStateBackend} with {@link RemoteStateBackend}s of several
+ * processes.
+ * <p>
+ * It stands in for a dedicated store during development and for bots whose processes all run on a few machines. Each
+ * connection is served by its own daemon thread, which answers requests in the order they arrived. Responses are only
+ * flushed once no further request is waiting, so pipelined requests are answered with a single write.
+ * </p>
+ * <p>
+ * A request consists of the number of counters as an <code>int</code>, followed by the key of each counter as modified
+ * UTF-8, its limit and its time to live in milliseconds as <code>long</code>s. The response consists of the number of
+ * counters, followed by the result of each counter and its remaining time to live in milliseconds, <code>-1</code> if
+ * it never expires.
+ * </p>
+ */
+public final class StateServer implements AutoCloseable {
+
+  static final int MAX_BATCH_SIZE = 65_536;
+
+  private final InMemoryStateBackend backend;
+  private final ServerSocket serverSocket;
+
+  /**
+   * Starts a new server keeping its counters in a new {@link InMemoryStateBackend}.
+   *
+   * @param port
+   *     The port to listen on, <code>0</code> to use any free port
+   *
+   * @throws IOException
+   *     If the port cannot be bound
+   */
+  public StateServer(int port) throws IOException {
+    this(new InetSocketAddress(port), new InMemoryStateBackend());
+  }
+
+  /**
+   * Starts a new server.
+   *
+   * @param address
+   *     The address to listen on
+   * @param backend
+   *     The backend keeping the counters
+   *
+   * @throws IOException
+   *     If the address cannot be bound
+   */
+  public StateServer(InetSocketAddress address, InMemoryStateBackend backend) throws IOException {
+    this.backend = backend;
+    this.serverSocket = new ServerSocket();
+    serverSocket.bind(address);
+
+    Thread acceptor = new Thread(this::accept, "command-state-server");
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  /**
+   * Returns the port the server listens on.
+   *
+   * @return The port
+   */
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * Stops accepting new connections. Open connections are served until their clients close them.
+   */
+  @Override
+  public void close() {
+    try {
+      serverSocket.close();
+    } catch (IOException e) {
+      // The server is closed either way.
+    }
+  }
+
+  private void accept() {
+    try {
+      while (true) {
+        Socket socket = serverSocket.accept();
+        socket.setTcpNoDelay(true);
+        Thread connection = new Thread(() -> serve(socket), "command-state-connection");
+        connection.setDaemon(true);
+        connection.start();
+      }
+    } catch (IOException e) {
+      // The server was closed.
+    }
+  }
+
+  private void serve(Socket socket) {
+    // Closing either stream closes the socket.
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+      while (true) {
+        int size = in.readInt();
+        if (size < 0 || size > MAX_BATCH_SIZE) {
+          throw new IOException("Invalid batch size " + size);
+        }
+
+        long[] expiresInMillis = new long[size];
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+          String key = in.readUTF();
+          long limit = in.readLong();
+          long ttlMillis = in.readLong();
+          out.writeLong(backend.increment(key, limit, ttlMillis, expiresInMillis, i));
+          out.writeLong(expiresInMillis[i]);
+        }
+
+        if (in.available() == 0) {
+          out.flush();
+        }
+      }
+    } catch (EOFException | SocketException e) {
+      // The client closed the connection.
+    } catch (IOException e) {
+      Thread thread = Thread.currentThread();
+      thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+    }
+  }
+}
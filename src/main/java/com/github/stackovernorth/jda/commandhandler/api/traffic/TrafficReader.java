@@ -0,0 +1,124 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.github.stackovernorth.jda.commandhandler.api.traffic;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads the records of a log written by {@link TrafficRecorder}, one at a time, so logs of any size can be read.
+ */
+public final class TrafficReader implements AutoCloseable {
+
+  private static final int MAX_CONTENT_LENGTH = 64 * 1024;
+
+  private final DataInputStream in;
+  private long receivedAt;
+
+  /**
+   * Opens a log.
+   *
+   * @param file
+   *     The file containing the log
+   *
+   * @throws IOException
+   *     If the file cannot be read or is no log written by {@link TrafficRecorder}
+   */
+  public TrafficReader(Path file) throws IOException {
+    this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+    try {
+      if (in.readInt() != TrafficRecorder.MAGIC || in.readUnsignedByte() != TrafficRecorder.VERSION) {
+        throw new IOException("The file is no traffic log of a supported version!");
+      }
+    } catch (IOException e) {
+      in.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Reads the next record.
+   *
+   * @return The next {@link TrafficRecord} or <code>null</code> if the end of the log was reached
+   *
+   * @throws IOException
+   *     If the log cannot be read or is corrupted
+   */
+  public TrafficRecord next() throws IOException {
+    int firstByte = in.read();
+    if (firstByte < 0) {
+      return null;
+    }
+
+    receivedAt += readVarLong(firstByte);
+
+    try {
+      long messageId = in.readLong();
+      long guildId = in.readLong();
+      long channelId = in.readLong();
+      long authorId = in.readLong();
+      long permissions = in.readLong();
+      int flags = in.readUnsignedByte();
+      long length = readVarLong(in.readUnsignedByte());
+      if (length > MAX_CONTENT_LENGTH) {
+        throw new IOException("The log is corrupted, a message is " + length + " bytes long!");
+      }
+
+      byte[] content = new byte[(int) length];
+      in.readFully(content);
+      return new TrafficRecord(receivedAt, messageId, guildId, channelId, authorId, permissions,
+          (flags & TrafficRecorder.FLAG_BOT) != 0, (flags & TrafficRecorder.FLAG_WEBHOOK) != 0,
+          new String(content, StandardCharsets.UTF_8));
+    } catch (EOFException e) {
+      throw new IOException("The log ends within a record!", e);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+  private long readVarLong(int firstByte) throws IOException {
+    long value = firstByte & 0x7F;
+    int current = firstByte;
+    for (int shift = 7; (current & 0x80) != 0; shift += 7) {
+      if (shift > 63) {
+        throw new IOException("The log is corrupted, a number is too long!");
+      }
+
+      current = in.readUnsignedByte();
+      value |= (long) (current & 0x7F) << shift;
+    }
+
+    return value;
+  }
+}
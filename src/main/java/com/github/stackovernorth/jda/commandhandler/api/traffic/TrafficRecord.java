@@ -0,0 +1,159 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.github.stackovernorth.jda.commandhandler.api.traffic;
+
+/**
+ * A single message as captured by {@link TrafficRecorder}, holding everything needed to feed it through a handler
+ * again.
+ */
+public final class TrafficRecord {
+
+  private final long receivedAt;
+  private final long messageId;
+  private final long guildId;
+  private final long channelId;
+  private final long authorId;
+  private final long permissions;
+  private final boolean bot;
+  private final boolean webhook;
+  private final String content;
+
+  /**
+   * Creates a new record.
+   *
+   * @param receivedAt
+   *     When the message was received, in milliseconds since the epoch
+   * @param messageId
+   *     The id of the message
+   * @param guildId
+   *     The id of the guild the message was sent in
+   * @param channelId
+   *     The id of the channel the message was sent in
+   * @param authorId
+   *     The id of the author
+   * @param permissions
+   *     The raw effective permissions of the author within the guild, <code>0</code> if the author is no member
+   * @param bot
+   *     Whether the author is a bot
+   * @param webhook
+   *     Whether the message was sent by a webhook
+   * @param content
+   *     The raw content of the message
+   */
+  public TrafficRecord(long receivedAt, long messageId, long guildId, long channelId, long authorId, long permissions,
+      boolean bot, boolean webhook, String content) {
+    this.receivedAt = receivedAt;
+    this.messageId = messageId;
+    this.guildId = guildId;
+    this.channelId = channelId;
+    this.authorId = authorId;
+    this.permissions = permissions;
+    this.bot = bot;
+    this.webhook = webhook;
+    this.content = content;
+  }
+
+  /**
+   * Returns when the message was received.
+   *
+   * @return The time in milliseconds since the epoch
+   */
+  public long getReceivedAt() {
+    return receivedAt;
+  }
+
+  /**
+   * Returns the id of the message.
+   *
+   * @return The id of the message
+   */
+  public long getMessageId() {
+    return messageId;
+  }
+
+  /**
+   * Returns the id of the guild the message was sent in.
+   *
+   * @return The id of the guild
+   */
+  public long getGuildId() {
+    return guildId;
+  }
+
+  /**
+   * Returns the id of the channel the message was sent in.
+   *
+   * @return The id of the channel
+   */
+  public long getChannelId() {
+    return channelId;
+  }
+
+  /**
+   * Returns the id of the author.
+   *
+   * @return The id of the author
+   */
+  public long getAuthorId() {
+    return authorId;
+  }
+
+  /**
+   * Returns the effective permissions of the author within the guild.
+   *
+   * @return The raw permissions, <code>0</code> if the author is no member
+   */
+  public long getPermissions() {
+    return permissions;
+  }
+
+  /**
+   * Returns whether the author is a bot.
+   *
+   * @return <code>true</code> if the author is a bot
+   */
+  public boolean isBot() {
+    return bot;
+  }
+
+  /**
+   * Returns whether the message was sent by a webhook.
+   *
+   * @return <code>true</code> if the message was sent by a webhook
+   */
+  public boolean isWebhook() {
+    return webhook;
+  }
+
+  /**
+   * Returns the raw content of the message.
+   *
+   * @return The content
+   */
+  public String getContent() {
+    return content;
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.github.stackovernorth.jda.commandhandler.api.traffic;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.annotation.Nonnull;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.events.message.guild.GuildMessageReceivedEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+
+/**
+ * Records every message received in a guild to a compact binary log, which {@link TrafficReader} reads again, e.g. to
+ * replay real traffic through a handler without a connection to Discord.
+ * <p>
+ * Add the recorder as event listener to your {@link net.dv8tion.jda.api.JDA} object or shard manager. Note that the
+ * log contains the content of every message, so handle it like any other personal data of your users.
+ * </p>
+ * <p>
+ * The log starts with the magic number <code>JCHT</code> and a version byte. Every record consists of the time since
+ * the previous record, or since the epoch for the first one, in milliseconds as variable-length integer, the ids of
+ * the message, guild, channel and author and the raw permissions of the author as <code>long</code>s, a byte of flags
+ * and the content as variable-length integer of its length followed by its UTF-8 bytes. If the log cannot be written,
+ * the error is reported to the uncaught exception handler once and recording stops.
+ * </p>
+ */
+public final class TrafficRecorder extends ListenerAdapter implements AutoCloseable {
+
+  static final int MAGIC = 0x4A434854;
+  static final int VERSION = 1;
+  static final int FLAG_BOT = 1;
+  static final int FLAG_WEBHOOK = 2;
+
+  private final DataOutputStream out;
+  private long previousReceivedAt;
+  private long records;
+  private boolean closed;
+
+  /**
+   * Creates a new recorder, replacing the file if it already exists.
+   *
+   * @param file
+   *     The file to write the log to
+   *
+   * @throws UncheckedIOException
+   *     If the file cannot be created
+   */
+  public TrafficRecorder(Path file) {
+    try {
+      this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+      out.writeInt(MAGIC);
+      out.writeByte(VERSION);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void onGuildMessageReceived(@Nonnull GuildMessageReceivedEvent event) {
+    Message message = event.getMessage();
+    Member member = message.getMember();
+    long permissions = member == null ? 0 : Permission.getRaw(member.getPermissions());
+    record(new TrafficRecord(System.currentTimeMillis(), message.getIdLong(), event.getGuild().getIdLong(),
+        event.getChannel().getIdLong(), message.getAuthor().getIdLong(), permissions, message.getAuthor().isBot(),
+        message.isWebhookMessage(), message.getContentRaw()));
+  }
+
+  /**
+   * Appends a record to the log.
+   *
+   * @param record
+   *     The record to append
+   */
+  public synchronized void record(TrafficRecord record) {
+    if (closed) {
+      return;
+    }
+
+    try {
+      // The first record holds the time since the epoch. Records are appended in the order they arrive, so the delay
+      // is never negative even if the clock jumps back.
+      long delay = Math.max(record.getReceivedAt() - previousReceivedAt, 0);
+      writeVarLong(out, delay);
+      out.writeLong(record.getMessageId());
+      out.writeLong(record.getGuildId());
+      out.writeLong(record.getChannelId());
+      out.writeLong(record.getAuthorId());
+      out.writeLong(record.getPermissions());
+      out.writeByte((record.isBot() ? FLAG_BOT : 0) | (record.isWebhook() ? FLAG_WEBHOOK : 0));
+      byte[] content = record.getContent().getBytes(StandardCharsets.UTF_8);
+      writeVarLong(out, content.length);
+      out.write(content);
+      previousReceivedAt += delay;
+      records++;
+    } catch (IOException e) {
+      close();
+      Thread thread = Thread.currentThread();
+      thread.getUncaughtExceptionHandler().uncaughtException(thread, new UncheckedIOException(e));
+    }
+  }
+
+  /**
+   * Returns how many messages were recorded.
+   *
+   * @return The number of records
+   */
+  public synchronized long getRecords() {
+    return records;
+  }
+
+  /**
+   * Flushes and closes the log. Messages received afterwards are not recorded.
+   */
+  @Override
+  public synchronized void close() {
+    if (closed) {
+      return;
+    }
+
+    closed = true;
+    try {
+      out.close();
+    } catch (IOException e) {
+      // The log is closed either way.
+    }
+  }
+
+  private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+
+    out.writeByte((int) value);
+  }
+}
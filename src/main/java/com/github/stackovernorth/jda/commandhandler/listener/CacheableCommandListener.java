@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.listener;
+
+import com.github.stackovernorth.jda.commandhandler.api.command.CommandBuilder;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.TextChannel;
+import net.dv8tion.jda.api.entities.User;
+
+/**
+ * In order to cache the results of a command, this interface needs to be implemented instead of {@link
+ * CommandListener}.
+ * <p>
+ * Instead of sending the reply itself, the listener returns it and the handler sends it. If a cache was set via {@link
+ * CommandBuilder#setCache(long, java.util.concurrent.TimeUnit,
+ * com.github.stackovernorth.jda.commandhandler.api.command.CacheScope)}, the reply is reused for identical arguments
+ * until it expires, and identical invocations running at the same time only call this listener once.
+ * </p>
+ * <p>
+ * Note that the reply must only depend on the arguments and the scope of the cache, e.g. a cache shared within the
+ * guild must not return a reply mentioning the {@link User} who used the command.
+ * </p>
+ */
+public interface CacheableCommandListener {
+
+  /**
+   * This method will be triggered once someone executes the corresponding command and no cached reply is available.
+   * <p>
+   * Just like {@link CommandListener#onCommand(Member, TextChannel, Message, String[])}, this will only be triggered if
+   * the sender passed all checks of the command.
+   * </p>
+   *
+   * @param sender
+   *     The sender of the message
+   * @param channel
+   *     The channel the message was sent from
+   * @param message
+   *     An object of the message
+   * @param args
+   *     The arguments of the message, split at each whitespace
+   *
+   * @return The reply which is sent to the channel or <code>null</code> if nothing should be sent
+   */
+  Message onCommand(Member sender, TextChannel channel, Message message, String[] args);
+}
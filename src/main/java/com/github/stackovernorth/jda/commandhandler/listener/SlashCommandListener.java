@@ -0,0 +1,69 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.listener;
+
+import com.github.stackovernorth.jda.commandhandler.api.argument.ArgumentParseException;
+import com.github.stackovernorth.jda.commandhandler.api.argument.CommandArguments;
+import net.dv8tion.jda.api.events.interaction.SlashCommandEvent;
+
+/**
+ * In order to execute a command as slash command, this interface needs to be implemented in addition to {@link
+ * CommandListener} or {@link TypedCommandListener}.
+ * <p>
+ * The declared arguments of the command are registered as options of the slash command, so you receive them just as
+ * typed as with {@link TypedCommandListener}.
+ * </p>
+ */
+public interface SlashCommandListener {
+
+  /**
+   * This method will be triggered once someone executes the corresponding slash command with valid options.
+   * <p>
+   * Just like the other listeners, this will only be triggered if the user passed all checks of the command. Note that
+   * Discord expects a reply to every slash command, so make sure to reply to or acknowledge the event.
+   * </p>
+   *
+   * @param event
+   *     The event of the slash command, used to reply
+   * @param arguments
+   *     The parsed options of the command
+   */
+  void onSlashCommand(SlashCommandEvent event, CommandArguments arguments);
+
+  /**
+   * This method will be triggered if the options of the slash command do not match the declared arguments.
+   * <p>
+   * By default this replies with the reason only visible to the user.
+   * </p>
+   *
+   * @param event
+   *     The event of the slash command, used to reply
+   * @param error
+   *     The reason why the options could not be parsed
+   */
+  default void onParseError(SlashCommandEvent event, ArgumentParseException error) {
+    event.reply(error.getMessage()).setEphemeral(true).queue();
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.github.stackovernorth.jda.commandhandler.listener;
+
+import com.github.stackovernorth.jda.commandhandler.api.command.Command;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.TextChannel;
+
+/**
+ * Implement this interface to decide what happens if someone misspelled the name of a command.
+ */
+public interface SuggestionListener {
+
+  /**
+   * This method will be triggered once someone used a prefix followed by an unknown name which is close to the name or
+   * an alias of a registered command.
+   * <p>
+   * Note that the suggested command was not checked against the channels and permissions of the sender.
+   * </p>
+   *
+   * @param sender
+   *     The sender of the message
+   * @param channel
+   *     The channel the message was sent from
+   * @param prefix
+   *     The prefix the sender used
+   * @param unknownName
+   *     The unknown name following the prefix
+   * @param suggestion
+   *     The command closest to the unknown name
+   */
+  void onUnknownCommand(Member sender, TextChannel channel, String prefix, String unknownName, Command suggestion);
+}
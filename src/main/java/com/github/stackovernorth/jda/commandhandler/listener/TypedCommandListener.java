@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.listener;
+
+import com.github.stackovernorth.jda.commandhandler.api.argument.ArgumentParseException;
+import com.github.stackovernorth.jda.commandhandler.api.argument.CommandArguments;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.TextChannel;
+
+/**
+ * In order to handle commands with declared arguments, this interface needs to be implemented instead of {@link
+ * CommandListener}.
+ * <p>
+ * The arguments are parsed according to their declaration before this listener is called, so you receive them
+ * already typed.
+ * </p>
+ */
+public interface TypedCommandListener {
+
+  /**
+   * This method will be triggered once someone executes the corresponding command with valid arguments.
+   * <p>
+   * Just like {@link CommandListener#onCommand(Member, TextChannel, Message, String[])}, this will only be triggered if
+   * the sender passed all checks of the command.
+   * </p>
+   *
+   * @param sender
+   *     The sender of the message
+   * @param channel
+   *     The channel the message was sent from
+   * @param message
+   *     An object of the message
+   * @param arguments
+   *     The parsed arguments of the command
+   */
+  void onCommand(Member sender, TextChannel channel, Message message, CommandArguments arguments);
+
+  /**
+   * This method will be triggered if the arguments of the message do not match the declared ones.
+   * <p>
+   * By default this does nothing. Override it to e.g. reply with the usage of the command.
+   * </p>
+   *
+   * @param sender
+   *     The sender of the message
+   * @param channel
+   *     The channel the message was sent from
+   * @param message
+   *     An object of the message
+   * @param error
+   *     The reason why the arguments could not be parsed
+   */
+  default void onParseError(Member sender, TextChannel channel, Message message, ArgumentParseException error) {
+  }
+}
@@ -0,0 +1,280 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.github.stackovernorth.jda.commandhandler.util;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * An immutable BK-tree which finds the name closest to a misspelled one by their edit distance.
+ * <p>
+ * Every child of a node is stored along with its edit distance to that node. Due to the triangle inequality, only
+ * children whose distance lies close to the distance between the node and the searched name can contain a better
+ * match, so most of the tree is skipped. Adding a name copies only the nodes on its path, thus a tree can be extended
+ * without rebuilding it while other threads are still searching the previous one.
+ * </p>
+ * <p>
+ * The distances are computed directly on a region of another String, so searching for a name found within the content
+ * of a message does not copy it first.
+ * </p>
+ *
+ * @param <V>
+ *     The type of the values
+ */
+public final class BkTree<V> {
+
+  private static final BkTree<?> EMPTY = new BkTree<>(null);
+
+  private final Node<V> root;
+
+  private BkTree(Node<V> root) {
+    this.root = root;
+  }
+
+  /**
+   * Returns a tree containing no names at all.
+   *
+   * @param <V>
+   *     The type of the values
+   *
+   * @return An empty tree
+   */
+  @SuppressWarnings("unchecked")
+  public static <V> BkTree<V> empty() {
+    return (BkTree<V>) EMPTY;
+  }
+
+  /**
+   * Returns a new tree which additionally contains the given name.
+   * <p>
+   * If the name is already part of this tree, its value is replaced.
+   * </p>
+   *
+   * @param name
+   *     The name to add
+   * @param value
+   *     The value of the name
+   *
+   * @return A new tree, this tree stays unchanged
+   */
+  public BkTree<V> with(String name, V value) {
+    int[] rows = new int[(name.length() + 1) * 2];
+    return new BkTree<>(insert(root, name, value, rows));
+  }
+
+  /**
+   * Returns the value of the name closest to the name found in the given region of a String.
+   * <p>
+   * The search stops after comparing the given number of names, so its cost is bounded even if the tree is large. In
+   * that case the closest name found so far is returned. If several names are equally close, the one added first wins.
+   * </p>
+   *
+   * @param content
+   *     The String containing the name
+   * @param start
+   *     The index of the first character of the name (inclusive)
+   * @param end
+   *     The index after the last character of the name (exclusive)
+   * @param maxDistance
+   *     The maximum edit distance a name may have
+   * @param maxVisits
+   *     The maximum number of names compared
+   *
+   * @return The value of the closest name or <code>null</code> if no name is close enough
+   */
+  public V nearest(String content, int start, int end, int maxDistance, int maxVisits) {
+    return nearest(content, start, end, maxDistance, maxVisits, value -> true);
+  }
+
+  /**
+   * Returns the value of the name closest to the name found in the given region of a String, only considering values
+   * which are accepted by the given filter.
+   * <p>
+   * The filter is only tested for names which are closer than the best match so far, and values it rejects still
+   * guide the search through the tree.
+   * </p>
+   *
+   * @param content
+   *     The String containing the name
+   * @param start
+   *     The index of the first character of the name (inclusive)
+   * @param end
+   *     The index after the last character of the name (exclusive)
+   * @param maxDistance
+   *     The maximum edit distance a name may have
+   * @param maxVisits
+   *     The maximum number of names compared
+   * @param filter
+   *     Tests whether a value may be returned
+   *
+   * @return The value of the closest accepted name or <code>null</code> if no accepted name is close enough
+   */
+  public V nearest(String content, int start, int end, int maxDistance, int maxVisits, Predicate<? super V> filter) {
+    if (root == null || maxDistance < 1) {
+      return null;
+    }
+
+    Search<V> search = new Search<>(content, start, end, maxDistance, maxVisits, filter);
+    search.visit(root);
+    return search.bestValue;
+  }
+
+  /**
+   * Returns whether this tree contains no names at all.
+   *
+   * @return <code>true</code> if the tree is empty
+   */
+  public boolean isEmpty() {
+    return root == null;
+  }
+
+  private static <V> Node<V> insert(Node<V> node, String name, V value, int[] rows) {
+    if (node == null) {
+      return leaf(name, value);
+    }
+
+    int distance = distance(node.name, name, 0, name.length(), rows);
+    if (distance == 0) {
+      return new Node<>(name, value, node.distances, node.children);
+    }
+
+    for (int i = 0; i < node.distances.length; i++) {
+      if (node.distances[i] == distance) {
+        Node<V>[] children = node.children.clone();
+        children[i] = insert(children[i], name, value, rows);
+        return new Node<>(node.name, node.value, node.distances, children);
+      }
+    }
+
+    int[] distances = Arrays.copyOf(node.distances, node.distances.length + 1);
+    Node<V>[] children = Arrays.copyOf(node.children, node.children.length + 1);
+    distances[distances.length - 1] = distance;
+    children[children.length - 1] = leaf(name, value);
+    return new Node<>(node.name, node.value, distances, children);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <V> Node<V> leaf(String name, V value) {
+    return new Node<>(name, value, new int[0], (Node<V>[]) new Node<?>[0]);
+  }
+
+  /**
+   * Computes the Levenshtein distance between a name and a region of a String, keeping only two rows of the matrix.
+   *
+   * @param name
+   *     The name
+   * @param content
+   *     The String containing the other name
+   * @param start
+   *     The index of the first character of the other name (inclusive)
+   * @param end
+   *     The index after the last character of the other name (exclusive)
+   * @param rows
+   *     Space for two rows, at least twice as long as the other name plus one
+   *
+   * @return The number of insertions, deletions and substitutions needed to turn one name into the other
+   */
+  private static int distance(String name, String content, int start, int end, int[] rows) {
+    int width = end - start + 1;
+    int previous = 0;
+    int current = width;
+    for (int j = 0; j < width; j++) {
+      rows[previous + j] = j;
+    }
+
+    for (int i = 1; i <= name.length(); i++) {
+      char c = name.charAt(i - 1);
+      rows[current] = i;
+      for (int j = 1; j < width; j++) {
+        int cost = c == content.charAt(start + j - 1) ? 0 : 1;
+        rows[current + j] = Math.min(Math.min(rows[current + j - 1], rows[previous + j]) + 1,
+            rows[previous + j - 1] + cost);
+      }
+
+      int swap = previous;
+      previous = current;
+      current = swap;
+    }
+
+    return rows[previous + width - 1];
+  }
+
+  private static final class Node<V> {
+
+    private final String name;
+    private final V value;
+    private final int[] distances;
+    private final Node<V>[] children;
+
+    private Node(String name, V value, int[] distances, Node<V>[] children) {
+      this.name = name;
+      this.value = value;
+      this.distances = distances;
+      this.children = children;
+    }
+  }
+
+  private static final class Search<V> {
+
+    private final String content;
+    private final int start;
+    private final int end;
+    private final int[] rows;
+    private final Predicate<? super V> filter;
+    private int visitsLeft;
+    private int bestDistance;
+    private V bestValue;
+
+    private Search(String content, int start, int end, int maxDistance, int maxVisits, Predicate<? super V> filter) {
+      this.content = content;
+      this.start = start;
+      this.end = end;
+      this.rows = new int[(end - start + 1) * 2];
+      this.filter = filter;
+      this.visitsLeft = maxVisits;
+      this.bestDistance = maxDistance + 1;
+    }
+
+    private void visit(Node<V> node) {
+      if (visitsLeft-- <= 0) {
+        return;
+      }
+
+      int distance = distance(node.name, content, start, end, rows);
+      if (distance < bestDistance && filter.test(node.value)) {
+        bestDistance = distance;
+        bestValue = node.value;
+      }
+
+      // Only children within the distance of the best match so far can be any closer, and that distance only shrinks.
+      for (int i = 0; i < node.children.length && bestDistance > 0; i++) {
+        if (Math.abs(node.distances[i] - distance) < bestDistance) {
+          visit(node.children[i]);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * An immutable set of primitive <code>long</code> values, e.g. ids of channels or guilds.
+ * <p>
+ * Values are stored in an open addressing table, so checking whether an id is contained neither boxes the id nor
+ * walks through a list. Since the set cannot be changed, it can be shared between threads without any locking. To
+ * change it, create a new set and replace the old one.
+ * </p>
+ */
+public final class LongHashSet {
+
+  private static final LongHashSet EMPTY = new LongHashSet(new long[0]);
+
+  private final long[] table;
+  private final int mask;
+  private final int size;
+  private final boolean containsZero;
+
+  private LongHashSet(long[] values) {
+    int capacity = Integer.highestOneBit(Math.max(values.length, 1) * 2) << 1;
+    this.table = new long[capacity];
+    this.mask = capacity - 1;
+
+    int count = 0;
+    boolean zero = false;
+    for (long value : values) {
+      // Zero marks an empty slot, so it is tracked separately.
+      if (value == 0) {
+        count += zero ? 0 : 1;
+        zero = true;
+        continue;
+      }
+
+      int slot = slot(value);
+      while (table[slot] != 0 && table[slot] != value) {
+        slot = (slot + 1) & mask;
+      }
+
+      if (table[slot] == 0) {
+        table[slot] = value;
+        count++;
+      }
+    }
+
+    this.size = count;
+    this.containsZero = zero;
+  }
+
+  /**
+   * Creates a new set containing the given values.
+   *
+   * @param values
+   *     The values of the set, duplicates are ignored
+   *
+   * @return A new set
+   */
+  public static LongHashSet of(long... values) {
+    return values.length == 0 ? EMPTY : new LongHashSet(values);
+  }
+
+  /**
+   * Creates a new set containing the given values.
+   *
+   * @param values
+   *     The values of the set, duplicates are ignored
+   *
+   * @return A new set
+   */
+  public static LongHashSet of(Collection<Long> values) {
+    long[] array = new long[values.size()];
+    int index = 0;
+    for (Long value : values) {
+      array[index++] = value;
+    }
+
+    return of(array);
+  }
+
+  /**
+   * Returns a new set which contains all values of this set and the given value.
+   *
+   * @param value
+   *     The value to add
+   *
+   * @return A new set or <code>this</code> if the value is already contained
+   */
+  public LongHashSet with(long value) {
+    if (contains(value)) {
+      return this;
+    }
+
+    long[] values = Arrays.copyOf(toArray(), size + 1);
+    values[size] = value;
+    return new LongHashSet(values);
+  }
+
+  /**
+   * Returns a new set which contains all values of this set except the given value.
+   *
+   * @param value
+   *     The value to remove
+   *
+   * @return A new set or <code>this</code> if the value is not contained
+   */
+  public LongHashSet without(long value) {
+    if (!contains(value)) {
+      return this;
+    }
+
+    return of(Arrays.stream(toArray()).filter(v -> v != value).toArray());
+  }
+
+  /**
+   * Checks whether the given value is part of this set.
+   *
+   * @param value
+   *     The value to look for
+   *
+   * @return <code>true</code> if the value is contained, otherwise <code>false</code>
+   */
+  public boolean contains(long value) {
+    if (value == 0) {
+      return containsZero;
+    }
+
+    for (int slot = slot(value); ; slot = (slot + 1) & mask) {
+      long current = table[slot];
+      if (current == value) {
+        return true;
+      }
+
+      if (current == 0) {
+        return false;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of values in this set.
+   *
+   * @return The size of the set
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns whether this set contains no values at all.
+   *
+   * @return <code>true</code> if the set is empty
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns all values of this set in no particular order.
+   *
+   * @return A new array containing all values
+   */
+  public long[] toArray() {
+    long[] values = new long[size];
+    int index = 0;
+    if (containsZero) {
+      values[index++] = 0;
+    }
+
+    for (long value : table) {
+      if (value != 0) {
+        values[index++] = value;
+      }
+    }
+
+    return values;
+  }
+
+  private int slot(long value) {
+    // Snowflakes share most of their high bits, so they are mixed before being used as index.
+    long hash = value * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32)) & mask;
+  }
+}
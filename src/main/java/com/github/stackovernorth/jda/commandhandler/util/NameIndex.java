@@ -0,0 +1,126 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.util;
+
+import java.util.Map;
+
+/**
+ * An immutable table mapping names to values, which can be looked up directly from a region of another String.
+ * <p>
+ * Names are stored in an open addressing table hashed the same way as {@link String#hashCode()}. Thus a name found
+ * within the content of a message can be looked up in constant time without copying it into a new String first.
+ * </p>
+ *
+ * @param <V>
+ *     The type of the values
+ */
+public final class NameIndex<V> {
+
+  private final String[] keys;
+  private final Object[] values;
+  private final int mask;
+  private final int size;
+
+  /**
+   * Creates a new index containing all entries of the given map.
+   *
+   * @param entries
+   *     The names and their values
+   */
+  public NameIndex(Map<String, V> entries) {
+    int capacity = Integer.highestOneBit(Math.max(entries.size(), 1) * 2) << 1;
+    this.keys = new String[capacity];
+    this.values = new Object[capacity];
+    this.mask = capacity - 1;
+    this.size = entries.size();
+
+    entries.forEach((key, value) -> {
+      int slot = spread(key.hashCode()) & mask;
+      while (keys[slot] != null) {
+        slot = (slot + 1) & mask;
+      }
+
+      keys[slot] = key;
+      values[slot] = value;
+    });
+  }
+
+  /**
+   * Returns the value of the name found in the given region of a String.
+   *
+   * @param content
+   *     The String containing the name
+   * @param start
+   *     The index of the first character of the name (inclusive)
+   * @param end
+   *     The index after the last character of the name (exclusive)
+   *
+   * @return The value or <code>null</code> if the name is not part of this index
+   */
+  @SuppressWarnings("unchecked")
+  public V get(String content, int start, int end) {
+    int length = end - start;
+    int hash = 0;
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + content.charAt(i);
+    }
+
+    for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+      String key = keys[slot];
+      if (key == null) {
+        return null;
+      }
+
+      if (key.length() == length && content.regionMatches(start, key, 0, length)) {
+        return (V) values[slot];
+      }
+    }
+  }
+
+  /**
+   * Returns the value of the given name.
+   *
+   * @param name
+   *     The name to look up
+   *
+   * @return The value or <code>null</code> if the name is not part of this index
+   */
+  public V get(String name) {
+    return get(name, 0, name.length());
+  }
+
+  /**
+   * Returns whether this index contains no names at all.
+   *
+   * @return <code>true</code> if the index is empty
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+}
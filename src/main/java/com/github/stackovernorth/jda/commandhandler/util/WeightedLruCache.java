@@ -0,0 +1,231 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * A cache which evicts the least recently used entries once it holds too many or too heavy entries.
+ * <p>
+ * Every entry expires after a fixed time to live and has a weight, e.g. its length. Once either the number of entries
+ * or the total weight exceeds its limit, the least recently used entries are evicted until both limits are met again.
+ * An entry which is heavier than the total limit on its own is not cached at all. All methods are synchronized, so the
+ * cache can be shared between threads.
+ * </p>
+ *
+ * @param <K>
+ *     The type of the keys
+ * @param <V>
+ *     The type of the values
+ */
+public final class WeightedLruCache<K, V> {
+
+  private final int maxEntries;
+  private final long maxWeight;
+  private final long ttlNanos;
+  private final ToLongFunction<? super V> weigher;
+  private final BiConsumer<? super K, ? super V> evictionListener;
+  private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long weight;
+
+  /**
+   * Creates a new, empty cache.
+   *
+   * @param maxEntries
+   *     The maximum number of entries
+   * @param maxWeight
+   *     The maximum total weight of all entries
+   * @param ttlNanos
+   *     The time to live of every entry in nanoseconds
+   * @param weigher
+   *     The function calculating the weight of a value
+   *
+   * @throws IllegalArgumentException
+   *     If a limit or the time to live is not positive or the weigher is <code>null</code>
+   */
+  public WeightedLruCache(int maxEntries, long maxWeight, long ttlNanos, ToLongFunction<? super V> weigher) {
+    this(maxEntries, maxWeight, ttlNanos, weigher, (key, value) -> {
+    });
+  }
+
+  /**
+   * Creates a new, empty cache which reports every value evicted due to its limits.
+   * <p>
+   * The listener is called after the lock of the cache was released, so it may take its time, e.g. to persist the
+   * value. It is not called for values which expired or were removed explicitly.
+   * </p>
+   *
+   * @param maxEntries
+   *     The maximum number of entries
+   * @param maxWeight
+   *     The maximum total weight of all entries
+   * @param ttlNanos
+   *     The time to live of every entry in nanoseconds
+   * @param weigher
+   *     The function calculating the weight of a value
+   * @param evictionListener
+   *     Receives the key and value of every evicted entry, including values too heavy to be cached at all
+   *
+   * @throws IllegalArgumentException
+   *     If a limit or the time to live is not positive or the weigher or listener is <code>null</code>
+   */
+  public WeightedLruCache(int maxEntries, long maxWeight, long ttlNanos, ToLongFunction<? super V> weigher,
+      BiConsumer<? super K, ? super V> evictionListener) {
+    if (maxEntries < 1 || maxWeight < 1 || ttlNanos < 1 || weigher == null || evictionListener == null) {
+      throw new IllegalArgumentException("The limits and the time to live must be positive!");
+    }
+
+    this.maxEntries = maxEntries;
+    this.maxWeight = maxWeight;
+    this.ttlNanos = ttlNanos;
+    this.weigher = weigher;
+    this.evictionListener = evictionListener;
+  }
+
+  /**
+   * Returns the value of the given key and marks it as recently used.
+   *
+   * @param key
+   *     The key of the value
+   *
+   * @return The value or <code>null</code> if it is not cached or expired
+   */
+  public synchronized V get(K key) {
+    Entry<V> entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+
+    if (System.nanoTime() - entry.expiresAt >= 0) {
+      remove(key);
+      return null;
+    }
+
+    return entry.value;
+  }
+
+  /**
+   * Caches a value, replacing the previous value of the key.
+   *
+   * @param key
+   *     The key of the value
+   * @param value
+   *     The value to cache
+   */
+  public void put(K key, V value) {
+    long valueWeight = Math.max(weigher.applyAsLong(value), 1);
+    if (valueWeight > maxWeight) {
+      remove(key);
+      evictionListener.accept(key, value);
+      return;
+    }
+
+    List<Map.Entry<K, Entry<V>>> evicted = null;
+    synchronized (this) {
+      remove(key);
+      entries.put(key, new Entry<>(value, valueWeight, System.nanoTime() + ttlNanos));
+      weight += valueWeight;
+
+      Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+      while (entries.size() > maxEntries || weight > maxWeight) {
+        Map.Entry<K, Entry<V>> entry = eldest.next();
+        weight -= entry.getValue().weight;
+        eldest.remove();
+        if (evicted == null) {
+          evicted = new ArrayList<>();
+        }
+
+        evicted.add(entry);
+      }
+    }
+
+    if (evicted != null) {
+      evicted.forEach(entry -> evictionListener.accept(entry.getKey(), entry.getValue().value));
+    }
+  }
+
+  /**
+   * Removes the value of the given key.
+   *
+   * @param key
+   *     The key of the value
+   *
+   * @return The removed value or <code>null</code> if none was cached
+   */
+  public synchronized V remove(K key) {
+    Entry<V> entry = entries.remove(key);
+    if (entry == null) {
+      return null;
+    }
+
+    weight -= entry.weight;
+    return entry.value;
+  }
+
+  /**
+   * Removes all values.
+   */
+  public synchronized void clear() {
+    entries.clear();
+    weight = 0;
+  }
+
+  /**
+   * Returns the number of cached values, including expired values which were not evicted yet.
+   *
+   * @return The number of entries
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Returns the total weight of all cached values.
+   *
+   * @return The total weight
+   */
+  public synchronized long getWeight() {
+    return weight;
+  }
+
+  private static final class Entry<V> {
+
+    private final V value;
+    private final long weight;
+    private final long expiresAt;
+
+    private Entry(V value, long weight, long expiresAt) {
+      this.value = value;
+      this.weight = weight;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
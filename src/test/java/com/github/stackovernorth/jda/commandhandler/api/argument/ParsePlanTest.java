@@ -0,0 +1,118 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.argument;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+class ParsePlanTest {
+
+  @Test
+  void rejectsDuplicateNames() {
+    assertThrows(IllegalArgumentException.class, () -> ParsePlan.compile(Arrays.asList(
+        new Argument("a", ArgumentType.INTEGER, false, false),
+        new Argument("a", ArgumentType.STRING, false, false))));
+  }
+
+  @Test
+  void rejectsRequiredAfterOptional() {
+    assertThrows(IllegalArgumentException.class, () -> ParsePlan.compile(Arrays.asList(
+        new Argument("a", ArgumentType.INTEGER, true, false),
+        new Argument("b", ArgumentType.STRING, false, false))));
+  }
+
+  @Test
+  void rejectsVarargsAndGreedyBeforeLast() {
+    assertThrows(IllegalArgumentException.class, () -> ParsePlan.compile(Arrays.asList(
+        new Argument("a", ArgumentType.INTEGER, false, true),
+        new Argument("b", ArgumentType.STRING, false, false))));
+    assertThrows(IllegalArgumentException.class, () -> ParsePlan.compile(Arrays.asList(
+        new Argument("a", ArgumentType.GREEDY_STRING, false, false),
+        new Argument("b", ArgumentType.STRING, false, false))));
+  }
+
+  @Test
+  void parsesArgumentsAfterStart() throws ArgumentParseException {
+    ParsePlan plan = ParsePlan.compile(Arrays.asList(
+        new Argument("count", ArgumentType.INTEGER, false, false),
+        new Argument("id", ArgumentType.LONG, false, false),
+        new Argument("time", ArgumentType.DURATION, false, false),
+        new Argument("title", ArgumentType.STRING, false, false),
+        new Argument("text", ArgumentType.GREEDY_STRING, true, false)));
+    CommandArguments arguments = plan.parse("!remind  3 12345678901 1h30m \"a \\\"b\\\"\"  rest of it  ", 7, null);
+
+    assertEquals(3, arguments.getInt("count"));
+    assertEquals(12345678901L, arguments.getLong("id"));
+    assertEquals(Duration.ofMinutes(90), arguments.getDuration("time"));
+    assertEquals("a \"b\"", arguments.getString("title"));
+    assertEquals("rest of it", arguments.getString("text"));
+  }
+
+  @Test
+  void parsesVarargsAndMissingOptionals() throws ArgumentParseException {
+    ParsePlan plan = ParsePlan.compile(Arrays.asList(
+        new Argument("name", ArgumentType.STRING, true, false),
+        new Argument("numbers", ArgumentType.INTEGER, false, true)));
+
+    CommandArguments arguments = plan.parse("!sum total 1 2 3", 4, null);
+    assertEquals("total", arguments.getString("name"));
+    assertEquals(Arrays.asList(1, 2, 3), arguments.getList("numbers"));
+
+    arguments = plan.parse("!sum", 4, null);
+    assertFalse(arguments.has("name"));
+    assertNull(arguments.getString("name"));
+    assertEquals(Collections.emptyList(), arguments.getList("numbers"));
+  }
+
+  @Test
+  void rejectsInvalidContent() {
+    ParsePlan plan = ParsePlan.compile(Arrays.asList(
+        new Argument("count", ArgumentType.INTEGER, false, false),
+        new Argument("time", ArgumentType.DURATION, true, false)));
+
+    ArgumentParseException missing = assertThrows(ArgumentParseException.class, () -> plan.parse("!x", 2, null));
+    assertEquals("count", missing.getArgumentName());
+    ArgumentParseException invalid = assertThrows(ArgumentParseException.class, () -> plan.parse("!x a", 2, null));
+    assertEquals("count", invalid.getArgumentName());
+    ArgumentParseException duration = assertThrows(ArgumentParseException.class, () -> plan.parse("!x 1 5y", 2, null));
+    assertEquals("time", duration.getArgumentName());
+    ArgumentParseException tooMany = assertThrows(ArgumentParseException.class, () -> plan.parse("!x 1 1s 2", 2, null));
+    assertNull(tooMany.getArgumentName());
+  }
+
+  @Test
+  void rejectsUnclosedQuote() {
+    ParsePlan plan = ParsePlan.compile(Collections.singletonList(new Argument("title", ArgumentType.STRING, false,
+        false)));
+    assertThrows(ArgumentParseException.class, () -> plan.parse("!x \"open", 2, null));
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class GuildConfigStoreTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void loadsConfigOnFirstUse() throws IOException {
+    write(1, "prefixes=!\ncommand.ping.enabled=false\n");
+    GuildConfigStore store = new GuildConfigStore(directory);
+    List<Long> loaded = new ArrayList<>();
+    store.addListener((guildId, config) -> loaded.add(guildId));
+    assertNull(store.getIfLoaded(1));
+
+    GuildConfig config = store.get(1);
+    assertEquals(Collections.singletonList("!"), config.getPrefixes());
+    assertFalse(config.getOverride("ping").getEnabled());
+    assertSame(config, store.getIfLoaded(1));
+    assertSame(config, store.get(1));
+    assertSame(GuildConfig.EMPTY, store.get(2));
+    assertEquals(Arrays.asList(1L, 2L), loaded);
+  }
+
+  @Test
+  void preloadsConfigOnce() throws IOException {
+    write(1, "prefixes=!\n");
+    GuildConfigStore store = new GuildConfigStore(directory);
+    List<Long> loaded = new ArrayList<>();
+    store.addListener((guildId, config) -> loaded.add(guildId));
+
+    GuildConfig first = store.preload(1).join();
+    assertSame(first, store.preload(1).join());
+    assertSame(first, store.getIfLoaded(1));
+    assertEquals(Collections.singletonList(1L), loaded);
+  }
+
+  @Test
+  void evictsLeastRecentlyUsedConfigs() {
+    GuildConfigStore store = new GuildConfigStore(directory, 2);
+    store.get(1);
+    store.get(2);
+    store.get(1);
+    store.get(3);
+
+    assertNull(store.getIfLoaded(2));
+    assertSame(GuildConfig.EMPTY, store.getIfLoaded(1));
+    assertSame(GuildConfig.EMPTY, store.getIfLoaded(3));
+    assertThrows(IllegalArgumentException.class, () -> new GuildConfigStore(directory, 0));
+  }
+
+  @Test
+  void releasesConfig() throws IOException {
+    write(1, "prefixes=!\n");
+    GuildConfigStore store = new GuildConfigStore(directory);
+    store.get(1);
+    store.release(1);
+
+    // Only the configuration is forgotten, the guild keeps its prefixes in case the bot joins it again.
+    assertNull(store.getIfLoaded(1));
+    assertEquals(Collections.singletonList("!"), store.getPrefixIndex().get(1L));
+  }
+
+  @Test
+  void rejectsInvalidUpdate() throws IOException {
+    write(1, "prefixes=!\n");
+    GuildConfigStore store = new GuildConfigStore(directory);
+    assertThrows(IllegalArgumentException.class, () -> store.update(1, properties -> properties.setProperty(
+        "prefixes", ",")));
+
+    assertEquals("prefixes=!\n", new String(Files.readAllBytes(file(1)), StandardCharsets.UTF_8));
+    assertEquals(Collections.singletonList("!"), store.get(1).getPrefixes());
+  }
+
+  @Test
+  void indexesPrefixesWithoutLoadingConfigs() throws IOException {
+    write(1, "prefixes=!,?\ncommand.ping.enabled=false\n");
+    write(2, "command.ping.enabled=false\n");
+
+    GuildConfigStore store = new GuildConfigStore(directory);
+    assertEquals(Collections.singletonMap(1L, Arrays.asList("!", "?")), store.getPrefixIndex());
+    assertNull(store.getIfLoaded(1));
+    assertNull(store.getIfLoaded(2));
+    assertTrue(Files.exists(directory.resolve("prefixes.properties")));
+  }
+
+  @Test
+  void readsOnlyFilesChangedSinceIndex() throws IOException {
+    write(1, "prefixes=!\n");
+    new GuildConfigStore(directory);
+
+    // A file older than the index is not read again, a newer one is.
+    write(1, "prefixes=?\n");
+    Files.setLastModifiedTime(file(1), FileTime.fromMillis(0));
+    write(2, "prefixes=$\n");
+    GuildConfigStore store = new GuildConfigStore(directory);
+
+    assertEquals(Collections.singletonList("!"), store.getPrefixIndex().get(1L));
+    assertEquals(Collections.singletonList("$"), store.getPrefixIndex().get(2L));
+  }
+
+  @Test
+  void forgetsPrefixesOfDeletedFiles() throws IOException {
+    write(1, "prefixes=!\n");
+    new GuildConfigStore(directory);
+    Files.delete(file(1));
+
+    assertTrue(new GuildConfigStore(directory).getPrefixIndex().isEmpty());
+  }
+
+  @Test
+  void indexesUpdatedPrefixes() {
+    GuildConfigStore store = new GuildConfigStore(directory);
+    store.update(1, properties -> properties.setProperty("prefixes", "!"));
+    assertEquals(Collections.singletonList("!"), store.getPrefixIndex().get(1L));
+    assertEquals(Collections.singletonList("!"), new GuildConfigStore(directory).getPrefixIndex().get(1L));
+
+    store.update(1, properties -> properties.remove("prefixes"));
+    assertTrue(store.getPrefixIndex().isEmpty());
+    assertTrue(new GuildConfigStore(directory).getPrefixIndex().isEmpty());
+  }
+
+  private void write(long guildId, String content) throws IOException {
+    Files.write(file(guildId), content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private Path file(long guildId) {
+    return directory.resolve(guildId + ".properties");
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.guild;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class GuildStatesTest {
+
+  private final List<Long> released = Collections.synchronizedList(new ArrayList<>());
+
+  @Test
+  void loadsStateOnFirstUse() {
+    GuildStates<String> states = new GuildStates<>(new Loader(), 10, 100);
+    assertNull(states.getIfLoaded(1));
+
+    assertEquals("state 1", states.get(1));
+    assertSame(states.get(1), states.getIfLoaded(1));
+    assertEquals(1, states.getLoads());
+    assertEquals(1, states.getHits());
+  }
+
+  @Test
+  void evictsLeastRecentlyUsedStates() {
+    GuildStates<String> states = new GuildStates<>(new Loader(), 2, 100);
+    states.get(1);
+    states.get(2);
+    states.get(1);
+    states.get(3);
+
+    assertNull(states.getIfLoaded(2));
+    assertEquals(2, states.size());
+    assertEquals(1, states.getEvictions());
+    assertEquals(Collections.singletonList(2L), released);
+  }
+
+  @Test
+  void releasesStateRightAway() {
+    GuildStates<String> states = new GuildStates<>(new Loader(), 10, 100);
+    states.get(1);
+    states.release(1);
+    states.release(2);
+
+    assertNull(states.getIfLoaded(1));
+    assertEquals(Collections.singletonList(1L), released);
+    assertEquals(0, states.getEvictions());
+  }
+
+  @Test
+  void loadsStateOnceForConcurrentRequests() throws Exception {
+    CountDownLatch loadStarted = new CountDownLatch(1);
+    CountDownLatch finishLoad = new CountDownLatch(1);
+    AtomicInteger loads = new AtomicInteger();
+    GuildStates<String> states = new GuildStates<>(guildId -> {
+      loads.incrementAndGet();
+      loadStarted.countDown();
+      await(finishLoad);
+      return "state " + guildId;
+    }, 10, 100);
+
+    CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> states.get(1));
+    assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+    CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> states.get(1));
+    finishLoad.countDown();
+
+    assertEquals("state 1", first.get(5, TimeUnit.SECONDS));
+    assertEquals("state 1", second.get(5, TimeUnit.SECONDS));
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void releasesStateLoadedAfterRelease() throws Exception {
+    CountDownLatch loadStarted = new CountDownLatch(1);
+    CountDownLatch finishLoad = new CountDownLatch(1);
+    GuildStates<String> states = new GuildStates<>(new Loader() {
+      @Override
+      public String load(long guildId) {
+        loadStarted.countDown();
+        await(finishLoad);
+        return super.load(guildId);
+      }
+    }, 10, 100);
+
+    CompletableFuture<String> loading = CompletableFuture.supplyAsync(() -> states.get(1));
+    assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+    states.release(1);
+    finishLoad.countDown();
+
+    assertEquals("state 1", loading.get(5, TimeUnit.SECONDS));
+    assertNull(states.getIfLoaded(1));
+    assertEquals(0, states.size());
+    assertEquals(Collections.singletonList(1L), released);
+  }
+
+  @Test
+  void rejectsMissingState() {
+    GuildStates<String> states = new GuildStates<>(guildId -> null, 10, 100);
+    assertThrows(IllegalStateException.class, () -> states.get(1));
+    assertEquals(0, states.size());
+    assertThrows(IllegalArgumentException.class, () -> new GuildStates<String>(null, 10, 100));
+  }
+
+  @Test
+  void releasesStatesUntilWeightFits() {
+    GuildStates<String> states = new GuildStates<>(new Loader(), 10, 14);
+    states.get(1);
+    states.get(2);
+    states.get(3);
+
+    assertEquals(Arrays.asList(1L), released);
+    assertEquals(14, states.getWeight());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private class Loader implements GuildStateLoader<String> {
+
+    @Override
+    public String load(long guildId) {
+      return "state " + guildId;
+    }
+
+    @Override
+    public void release(long guildId, String state) {
+      released.add(guildId);
+    }
+
+    @Override
+    public long weigh(String state) {
+      return state.length();
+    }
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.handler;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class MessageTokenizerTest {
+
+  @Test
+  void tokenEndStopsAtWhitespace() {
+    assertEquals(5, MessageTokenizer.tokenEnd("!ping pong", 0));
+    assertEquals(10, MessageTokenizer.tokenEnd("!ping pong", 6));
+    assertEquals(3, MessageTokenizer.tokenEnd("!ab", 0));
+  }
+
+  @Test
+  void skipWhitespaceStopsAtToken() {
+    assertEquals(4, MessageTokenizer.skipWhitespace("a \t\nb", 1));
+    assertEquals(5, MessageTokenizer.skipWhitespace("a    ", 1));
+    assertEquals(0, MessageTokenizer.skipWhitespace("abc", 0));
+  }
+
+  @Test
+  void argumentsAreEmptyWithoutTokens() {
+    assertEquals(0, MessageTokenizer.arguments("!ping", 5).length);
+    assertEquals(0, MessageTokenizer.arguments("!ping  \t ", 5).length);
+    assertEquals(0, MessageTokenizer.arguments("", 0).length);
+  }
+
+  @Test
+  void argumentsMatchSplittingAtWhitespace() {
+    String[] contents = {"!ban  someone\tfor\nspam ", "!echo a b c", "!x \u000B y\f z\r\n"};
+    for (String content : contents) {
+      int start = MessageTokenizer.tokenEnd(content, 0);
+      String rest = content.substring(start).trim();
+      String[] expected = rest.isEmpty() ? new String[0] : rest.split("[ \t\n\r\f\u000B]+");
+      assertArrayEquals(expected, MessageTokenizer.arguments(content, start), content);
+    }
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class PrefixTrieTest {
+
+  private final PrefixTrie trie = new PrefixTrie(Arrays.asList("!", "!!", "bot ", "b"));
+
+  @Test
+  void matchesLongestPrefix() {
+    assertEquals(2, trie.match("!!ping"));
+    assertEquals(1, trie.match("!ping"));
+    assertEquals(4, trie.match("bot ping"));
+    assertEquals(1, trie.match("bo ping"));
+  }
+
+  @Test
+  void matchesWholeContent() {
+    assertEquals(1, trie.match("!"));
+    assertEquals(4, trie.match("bot "));
+  }
+
+  @Test
+  void returnsMinusOneWithoutMatch() {
+    assertEquals(-1, trie.match("?ping"));
+    assertEquals(-1, trie.match(""));
+    assertEquals(-1, PrefixTrie.EMPTY.match("!ping"));
+  }
+
+  @Test
+  void matchesEmptyPrefix() {
+    PrefixTrie withEmpty = new PrefixTrie(Arrays.asList("", "!"));
+    assertEquals(0, withEmpty.match("ping"));
+    assertEquals(1, withEmpty.match("!ping"));
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.handler;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.stackovernorth.jda.commandhandler.api.command.RateLimit;
+import com.github.stackovernorth.jda.commandhandler.api.command.RateLimitScope;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class RateLimiterTest {
+
+  @Test
+  void allowsBurstOfPermits() {
+    RateLimiter limiter = new RateLimiter(new RateLimit(3, 1, TimeUnit.HOURS, RateLimitScope.USER), 100);
+    assertTrue(limiter.tryAcquire(1));
+    assertTrue(limiter.tryAcquire(1));
+    assertTrue(limiter.tryAcquire(1));
+    assertFalse(limiter.tryAcquire(1));
+  }
+
+  @Test
+  void limitsEveryKeySeparately() {
+    RateLimiter limiter = new RateLimiter(new RateLimit(1, 1, TimeUnit.HOURS, RateLimitScope.USER), 100);
+    assertTrue(limiter.tryAcquire(1));
+    assertFalse(limiter.tryAcquire(1));
+    assertTrue(limiter.tryAcquire(2));
+    assertFalse(limiter.tryAcquire(2));
+  }
+
+  @Test
+  void refillsAfterPeriod() throws InterruptedException {
+    RateLimiter limiter = new RateLimiter(new RateLimit(1, 200, TimeUnit.MILLISECONDS, RateLimitScope.USER), 100);
+    assertTrue(limiter.tryAcquire(1));
+    assertFalse(limiter.tryAcquire(1));
+    Thread.sleep(250);
+    assertTrue(limiter.tryAcquire(1));
+  }
+
+  @Test
+  void dropsBucketsBeyondLimit() {
+    RateLimiter limiter = new RateLimiter(new RateLimit(1, 1, TimeUnit.HOURS, RateLimitScope.USER), 4);
+    for (long key = 0; key < 4; key++) {
+      assertTrue(limiter.tryAcquire(key));
+    }
+
+    // The buckets are still in use, so some of them are dropped to make room and the key starts with a full bucket.
+    assertTrue(limiter.tryAcquire(4));
+    int limited = 0;
+    for (long key = 0; key <= 4; key++) {
+      if (!limiter.tryAcquire(key)) {
+        limited++;
+      }
+    }
+
+    assertTrue(limited < 5);
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.interceptor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class InterceptorChainTest {
+
+  private final List<String> calls = new ArrayList<>();
+
+  @Test
+  void endsWithListenerOfInvocation() {
+    InterceptorChain chain = InterceptorChain.compose(Arrays.asList(
+        (invocation, next) -> {
+          calls.add("first");
+          next.proceed(invocation);
+          calls.add("first done");
+        },
+        CommandInterceptor.before(invocation -> calls.add("second")),
+        CommandInterceptor.after(invocation -> calls.add("third done"))));
+
+    chain.proceed(invocation());
+    assertEquals(Arrays.asList("first", "second", "listener", "third done", "first done"), calls);
+  }
+
+  @Test
+  void skipsListenerIfInterceptorDoesNotProceed() {
+    InterceptorChain chain = InterceptorChain.compose(Arrays.asList(
+        CommandInterceptor.before(invocation -> false),
+        CommandInterceptor.after(invocation -> calls.add("after"))));
+
+    chain.proceed(invocation());
+    assertEquals(Collections.emptyList(), calls);
+  }
+
+  @Test
+  void reusesComposedChain() {
+    InterceptorChain chain = InterceptorChain.compose(Collections.emptyList());
+    chain.proceed(invocation());
+    chain.proceed(invocation());
+    assertEquals(Arrays.asList("listener", "listener"), calls);
+  }
+
+  private CommandInvocation invocation() {
+    return new CommandInvocation(null, null, null, null, null, null, () -> calls.add("listener"));
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.state;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class InMemoryStateBackendTest {
+
+  private final InMemoryStateBackend backend = new InMemoryStateBackend();
+
+  @Test
+  void countsUpToLimit() {
+    for (long expected = 1; expected <= 3; expected++) {
+      assertEquals(expected, execute(new StateBatch().increment("user:1", 3, 1, TimeUnit.HOURS))[0]);
+    }
+
+    // A rejected increment reports one more than the limit but does not count.
+    assertEquals(4, execute(new StateBatch().increment("user:1", 3, 1, TimeUnit.HOURS))[0]);
+    assertEquals(4, execute(new StateBatch().increment("user:1", 3, 1, TimeUnit.HOURS))[0]);
+  }
+
+  @Test
+  void countsEveryKeyOfBatch() {
+    StateBatch batch = new StateBatch()
+        .increment("user:1", 10, 1, TimeUnit.HOURS)
+        .increment("guild:1", 10, 1, TimeUnit.HOURS)
+        .increment("total");
+    assertArrayEquals(new long[] {1, 1, 1}, execute(batch));
+    assertArrayEquals(new long[] {2, 2, 2}, execute(batch));
+    assertArrayEquals(new long[] {1, 3}, execute(new StateBatch().increment("user:2").increment("total")));
+  }
+
+  @Test
+  void resetsExpiredCounters() throws InterruptedException {
+    StateBatch batch = new StateBatch().increment("user:1", 1, 200, TimeUnit.MILLISECONDS);
+    assertEquals(1, execute(batch)[0]);
+    assertEquals(2, execute(batch)[0]);
+    Thread.sleep(250);
+    assertEquals(1, execute(batch)[0]);
+  }
+
+  @Test
+  void rejectsInvalidIncrements() {
+    StateBatch batch = new StateBatch();
+    assertThrows(IllegalArgumentException.class, () -> batch.increment(""));
+    assertThrows(IllegalArgumentException.class, () -> batch.increment(null));
+    assertThrows(IllegalArgumentException.class, () -> batch.increment("a", 0, 1, TimeUnit.SECONDS));
+    assertThrows(IllegalArgumentException.class, () -> batch.increment("a", 1, -1, TimeUnit.SECONDS));
+    assertThrows(IllegalArgumentException.class, () -> new InMemoryStateBackend(0));
+    assertEquals(0, batch.size());
+  }
+
+  private long[] execute(StateBatch batch) {
+    return backend.execute(batch).join();
+  }
+}
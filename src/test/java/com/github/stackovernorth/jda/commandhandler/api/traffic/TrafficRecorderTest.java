@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.api.traffic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TrafficRecorderTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void readsRecordedTraffic() throws IOException {
+    List<TrafficRecord> records = Arrays.asList(
+        new TrafficRecord(1_600_000_000_000L, 1, 2, 3, 4, 8, false, false, "!ping"),
+        new TrafficRecord(1_600_000_000_250L, Long.MAX_VALUE, -1, 0, 7, Long.MIN_VALUE, true, false, ""),
+        new TrafficRecord(1_600_000_100_000L, 5, 6, 7, 8, 0, false, true, "!echo héllo 👋 日本"));
+    Path file = directory.resolve("traffic.log");
+    try (TrafficRecorder recorder = new TrafficRecorder(file)) {
+      records.forEach(recorder::record);
+      assertEquals(3, recorder.getRecords());
+    }
+
+    try (TrafficReader reader = new TrafficReader(file)) {
+      for (TrafficRecord expected : records) {
+        TrafficRecord actual = reader.next();
+        assertNotNull(actual);
+        assertEquals(expected.getReceivedAt(), actual.getReceivedAt());
+        assertEquals(expected.getMessageId(), actual.getMessageId());
+        assertEquals(expected.getGuildId(), actual.getGuildId());
+        assertEquals(expected.getChannelId(), actual.getChannelId());
+        assertEquals(expected.getAuthorId(), actual.getAuthorId());
+        assertEquals(expected.getPermissions(), actual.getPermissions());
+        assertEquals(expected.isBot(), actual.isBot());
+        assertEquals(expected.isWebhook(), actual.isWebhook());
+        assertEquals(expected.getContent(), actual.getContent());
+      }
+
+      assertNull(reader.next());
+    }
+  }
+
+  @Test
+  void keepsOrderIfClockJumpsBack() throws IOException {
+    Path file = directory.resolve("traffic.log");
+    try (TrafficRecorder recorder = new TrafficRecorder(file)) {
+      recorder.record(new TrafficRecord(1000, 1, 1, 1, 1, 0, false, false, "a"));
+      recorder.record(new TrafficRecord(900, 2, 1, 1, 1, 0, false, false, "b"));
+    }
+
+    try (TrafficReader reader = new TrafficReader(file)) {
+      assertEquals(1000, reader.next().getReceivedAt());
+      assertEquals(1000, reader.next().getReceivedAt());
+    }
+  }
+
+  @Test
+  void ignoresRecordsAfterClose() throws IOException {
+    Path file = directory.resolve("traffic.log");
+    TrafficRecorder recorder = new TrafficRecorder(file);
+    recorder.close();
+    recorder.record(new TrafficRecord(1000, 1, 1, 1, 1, 0, false, false, "a"));
+    assertEquals(0, recorder.getRecords());
+
+    try (TrafficReader reader = new TrafficReader(file)) {
+      assertNull(reader.next());
+    }
+  }
+
+  @Test
+  void rejectsBrokenLogs() throws IOException {
+    Path foreign = directory.resolve("foreign.log");
+    Files.write(foreign, new byte[] {1, 2, 3, 4, 5});
+    assertThrows(IOException.class, () -> new TrafficReader(foreign));
+
+    Path file = directory.resolve("traffic.log");
+    try (TrafficRecorder recorder = new TrafficRecorder(file)) {
+      recorder.record(new TrafficRecord(1000, 1, 1, 1, 1, 0, false, false, "!ping"));
+    }
+
+    byte[] bytes = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(bytes, bytes.length - 2));
+    try (TrafficReader reader = new TrafficReader(file)) {
+      assertThrows(IOException.class, reader::next);
+    }
+  }
+}
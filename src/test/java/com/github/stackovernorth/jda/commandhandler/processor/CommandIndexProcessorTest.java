@@ -0,0 +1,179 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.stackovernorth.jda.commandhandler.api.annotation.CommandIndex;
+import com.github.stackovernorth.jda.commandhandler.api.command.Command;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import net.dv8tion.jda.api.Permission;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CommandIndexProcessorTest {
+
+  private static final String INDEX = "com.github.stackovernorth.jda.commandhandler.api.annotation.CommandIndex";
+
+  @TempDir
+  Path directory;
+
+  private final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+  @Test
+  void generatesIndexOfAllCommands() throws Exception {
+    source("bot.commands.PingCommand", "package bot.commands;\n"
+        + "import com.github.stackovernorth.jda.commandhandler.api.annotation.RegisterCommand;\n"
+        + "import com.github.stackovernorth.jda.commandhandler.listener.CommandListener;\n"
+        + "import net.dv8tion.jda.api.Permission;\n"
+        + "import net.dv8tion.jda.api.entities.*;\n"
+        + "@RegisterCommand(name = \"ping\", aliases = {\"p\", \"pong\"}, description = \"Says \\\"pong\\\"\",\n"
+        + "    channels = 42, permissions = Permission.MESSAGE_MANAGE)\n"
+        + "public class PingCommand implements CommandListener {\n"
+        + "  public void onCommand(Member sender, TextChannel channel, Message message, String[] args) {}\n"
+        + "}\n");
+    source("bot.commands.admin.BanCommand", "package bot.commands.admin;\n"
+        + "import com.github.stackovernorth.jda.commandhandler.api.annotation.RegisterCommand;\n"
+        + "import com.github.stackovernorth.jda.commandhandler.listener.CommandListener;\n"
+        + "import net.dv8tion.jda.api.entities.*;\n"
+        + "@RegisterCommand(name = \"ban\", allowBotReply = true)\n"
+        + "public class BanCommand implements CommandListener {\n"
+        + "  public void onCommand(Member sender, TextChannel channel, Message message, String[] args) {}\n"
+        + "}\n");
+
+    assertTrue(compile(), diagnostics.getDiagnostics().toString());
+    assertTrue(Files.exists(directory.resolve("generated/bot/commands/GeneratedCommandIndex.java")));
+    assertEquals("bot.commands.GeneratedCommandIndex\n", new String(Files.readAllBytes(
+        directory.resolve("classes/META-INF/services/" + INDEX)), StandardCharsets.UTF_8));
+
+    try (URLClassLoader loader = new URLClassLoader(new URL[] {directory.resolve("classes").toUri().toURL()},
+        getClass().getClassLoader())) {
+      List<CommandIndex> indexes = new ArrayList<>();
+      ServiceLoader.load(CommandIndex.class, loader).forEach(indexes::add);
+      assertEquals(1, indexes.size());
+
+      List<Command> commands = indexes.get(0).getCommands();
+      // Sorted by the qualified names of the listeners.
+      assertEquals(Arrays.asList("ping", "ban"),
+          commands.stream().map(Command::getCommandName).collect(Collectors.toList()));
+      assertTrue(commands.get(1).getBotAllowance());
+
+      Command ping = commands.get(0);
+      assertEquals(Arrays.asList("p", "pong"), ping.getCommandAliases());
+      assertEquals("Says \"pong\"", ping.getCommandDescription());
+      assertEquals(Collections.singletonList(42L), ping.getCommandChannels());
+      assertEquals(Collections.singletonList(Permission.MESSAGE_MANAGE), ping.getCommandPermissions());
+      assertFalse(ping.getBotAllowance());
+    }
+  }
+
+  @Test
+  void placesIndexInChosenPackage() throws Exception {
+    source("bot.PingCommand", "package bot;\n"
+        + "import com.github.stackovernorth.jda.commandhandler.api.annotation.RegisterCommand;\n"
+        + "import com.github.stackovernorth.jda.commandhandler.listener.CommandListener;\n"
+        + "import net.dv8tion.jda.api.entities.*;\n"
+        + "@RegisterCommand(name = \"ping\")\n"
+        + "public class PingCommand implements CommandListener {\n"
+        + "  public void onCommand(Member sender, TextChannel channel, Message message, String[] args) {}\n"
+        + "}\n");
+
+    assertTrue(compile("-A" + CommandIndexProcessor.PACKAGE_OPTION + "=bot.generated"),
+        diagnostics.getDiagnostics().toString());
+    assertTrue(Files.exists(directory.resolve("classes/bot/generated/GeneratedCommandIndex.class")));
+  }
+
+  @Test
+  void rejectsInvalidCommands() throws Exception {
+    source("bot.HiddenCommand", "package bot;\n"
+        + "import com.github.stackovernorth.jda.commandhandler.api.annotation.RegisterCommand;\n"
+        + "import com.github.stackovernorth.jda.commandhandler.listener.CommandListener;\n"
+        + "import net.dv8tion.jda.api.entities.*;\n"
+        + "@RegisterCommand(name = \"hidden\")\n"
+        + "class HiddenCommand implements CommandListener {\n"
+        + "  public void onCommand(Member sender, TextChannel channel, Message message, String[] args) {}\n"
+        + "}\n");
+    source("bot.NoListener", "package bot;\n"
+        + "import com.github.stackovernorth.jda.commandhandler.api.annotation.RegisterCommand;\n"
+        + "@RegisterCommand(name = \"none\")\n"
+        + "public class NoListener {\n"
+        + "}\n");
+
+    assertFalse(compile());
+    List<String> errors = diagnostics.getDiagnostics().stream()
+        .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+        .map(diagnostic -> diagnostic.getMessage(null))
+        .collect(Collectors.toList());
+    assertTrue(errors.contains("Commands must be public, non-abstract classes."), errors.toString());
+    assertTrue(errors.contains("Commands must implement CommandListener, TypedCommandListener or "
+        + "CacheableCommandListener."), errors.toString());
+    assertFalse(Files.exists(directory.resolve("classes/META-INF/services/" + INDEX)));
+  }
+
+  private void source(String name, String content) throws IOException {
+    Path file = directory.resolve("sources/" + name.replace('.', '/') + ".java");
+    Files.createDirectories(file.getParent());
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private boolean compile(String... options) throws IOException {
+    Path classes = Files.createDirectories(directory.resolve("classes"));
+    Path generated = Files.createDirectories(directory.resolve("generated"));
+    List<String> arguments = new ArrayList<>(Arrays.asList("-classpath", System.getProperty("java.class.path"),
+        "-d", classes.toString(), "-s", generated.toString()));
+    Collections.addAll(arguments, options);
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    try (StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8);
+        Stream<Path> walk = Files.walk(directory.resolve("sources"))) {
+      List<File> sources = walk.filter(Files::isRegularFile).map(Path::toFile).collect(Collectors.toList());
+      JavaCompiler.CompilationTask task = compiler.getTask(null, files, diagnostics, arguments, null,
+          files.getJavaFileObjectsFromFiles(sources));
+      task.setProcessors(Collections.singletonList(new CommandIndexProcessor()));
+      return task.call();
+    }
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class BkTreeTest {
+
+  private final BkTree<String> tree = BkTree.<String>empty()
+      .with("ping", "ping")
+      .with("help", "help")
+      .with("ban", "ban")
+      .with("kick", "kick")
+      .with("play", "play");
+
+  @Test
+  void findsNearestName() {
+    assertEquals("ping", tree.nearest("!pign", 1, 5, 2, 100));
+    assertEquals("help", tree.nearest("!hlep me", 1, 5, 2, 100));
+    assertEquals("kick", tree.nearest("kik", 0, 3, 1, 100));
+    assertEquals("ban", tree.nearest("ban", 0, 3, 1, 100));
+  }
+
+  @Test
+  void ignoresNamesBeyondMaxDistance() {
+    assertNull(tree.nearest("pign", 0, 4, 1, 100));
+    assertNull(tree.nearest("something", 0, 9, 2, 100));
+    assertNull(tree.nearest("ping", 0, 4, 0, 100));
+  }
+
+  @Test
+  void skipsFilteredValues() {
+    assertEquals("ping", tree.nearest("plng", 0, 4, 2, 100));
+    assertEquals("play", tree.nearest("plng", 0, 4, 2, 100, value -> !value.equals("ping")));
+    assertNull(tree.nearest("plng", 0, 4, 2, 100, value -> false));
+  }
+
+  @Test
+  void replacesEqualName() {
+    BkTree<String> replaced = tree.with("ping", "pong");
+    assertEquals("pong", replaced.nearest("ping", 0, 4, 1, 100));
+    assertEquals("ping", tree.nearest("ping", 0, 4, 1, 100));
+  }
+
+  @Test
+  void emptyTreeFindsNothing() {
+    BkTree<String> empty = BkTree.empty();
+    assertTrue(empty.isEmpty());
+    assertFalse(tree.isEmpty());
+    assertNull(empty.nearest("ping", 0, 4, 2, 100));
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class NameIndexTest {
+
+  @Test
+  void findsNamesByRegion() {
+    Map<String, Integer> entries = new HashMap<>();
+    entries.put("ping", 1);
+    entries.put("pong", 2);
+    entries.put("help", 3);
+    NameIndex<Integer> index = new NameIndex<>(entries);
+
+    assertEquals(1, index.get("!ping now", 1, 5));
+    assertEquals(2, index.get("!!pong", 2, 6));
+    assertEquals(3, index.get("help"));
+    assertNull(index.get("!pin", 1, 4));
+    assertNull(index.get("pings"));
+    assertNull(index.get(""));
+    assertFalse(index.isEmpty());
+  }
+
+  @Test
+  void findsAllOfManyNames() {
+    Map<String, Integer> entries = new HashMap<>();
+    for (int i = 0; i < 1000; i++) {
+      entries.put("command" + i, i);
+    }
+
+    NameIndex<Integer> index = new NameIndex<>(entries);
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i, index.get("command" + i));
+    }
+
+    assertNull(index.get("command1000"));
+  }
+
+  @Test
+  void emptyIndexFindsNothing() {
+    NameIndex<Integer> index = new NameIndex<>(Collections.emptyMap());
+    assertTrue(index.isEmpty());
+    assertNull(index.get("ping"));
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 StackOverNorth (via https://github.com/StackOverNorth)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.stackovernorth.jda.commandhandler.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class WeightedLruCacheTest {
+
+  private static final long TTL = TimeUnit.HOURS.toNanos(1);
+
+  private final List<String> evicted = new ArrayList<>();
+
+  @Test
+  void evictsLeastRecentlyUsedEntry() {
+    WeightedLruCache<String, String> cache = new WeightedLruCache<>(2, 100, TTL, String::length,
+        (key, value) -> evicted.add(key));
+    cache.put("a", "1");
+    cache.put("b", "2");
+    cache.get("a");
+    cache.put("c", "3");
+
+    assertEquals("1", cache.get("a"));
+    assertNull(cache.get("b"));
+    assertEquals("3", cache.get("c"));
+    assertEquals(Arrays.asList("b"), evicted);
+  }
+
+  @Test
+  void evictsUntilWeightFits() {
+    WeightedLruCache<String, String> cache = new WeightedLruCache<>(100, 10, TTL, String::length,
+        (key, value) -> evicted.add(key));
+    cache.put("a", "1234");
+    cache.put("b", "1234");
+    cache.put("c", "1234567");
+
+    assertEquals(Arrays.asList("a", "b"), evicted);
+    assertEquals(1, cache.size());
+    assertEquals(7, cache.getWeight());
+  }
+
+  @Test
+  void rejectsValueHeavierThanLimit() {
+    WeightedLruCache<String, String> cache = new WeightedLruCache<>(100, 4, TTL, String::length,
+        (key, value) -> evicted.add(key));
+    cache.put("a", "1");
+    cache.put("a", "12345");
+
+    assertNull(cache.get("a"));
+    assertEquals(Arrays.asList("a"), evicted);
+    assertEquals(0, cache.getWeight());
+  }
+
+  @Test
+  void replacesEntryOfSameKey() {
+    WeightedLruCache<String, String> cache = new WeightedLruCache<>(100, 100, TTL, String::length);
+    cache.put("a", "1");
+    cache.put("a", "123");
+
+    assertEquals("123", cache.get("a"));
+    assertEquals(1, cache.size());
+    assertEquals(3, cache.getWeight());
+  }
+
+  @Test
+  void expiresEntries() throws InterruptedException {
+    WeightedLruCache<String, String> cache = new WeightedLruCache<>(100, 100, TimeUnit.MILLISECONDS.toNanos(10),
+        String::length);
+    cache.put("a", "1");
+    Thread.sleep(20);
+
+    assertNull(cache.get("a"));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void removesAndClearsEntries() {
+    WeightedLruCache<String, String> cache = new WeightedLruCache<>(100, 100, TTL, String::length);
+    cache.put("a", "12");
+    cache.put("b", "345");
+
+    assertEquals("12", cache.remove("a"));
+    assertNull(cache.remove("a"));
+    assertEquals(3, cache.getWeight());
+
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.getWeight());
+  }
+
+  @Test
+  void rejectsInvalidLimits() {
+    assertThrows(IllegalArgumentException.class, () -> new WeightedLruCache<String, String>(0, 1, 1, String::length));
+    assertThrows(IllegalArgumentException.class, () -> new WeightedLruCache<String, String>(1, 0, 1, String::length));
+    assertThrows(IllegalArgumentException.class, () -> new WeightedLruCache<String, String>(1, 1, 0, String::length));
+  }
+}